@@ -0,0 +1,25 @@
+package com.chatBot.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Minimal publish/subscribe channel between bot nodes, used to propagate state that
+ * every node keeps in memory (e.g. the restaurant open/closed flag). Every subscriber
+ * gets every message, the publishing node's own included.
+ *
+ * Delivery is best-effort: subscribers must treat messages as hints and be able to
+ * re-read the source of truth from the database.
+ */
+public interface ClusterMessageBus {
+
+    void publish(String channel, String payload);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+    /**
+     * Runs {@code listener} each time the bus is connected again after losing its
+     * connection. Messages published in between are lost, so this is where subscribers
+     * re-read what they keep in memory.
+     */
+    void onReconnect(Runnable listener);
+}
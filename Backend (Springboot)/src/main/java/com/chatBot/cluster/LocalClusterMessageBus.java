@@ -0,0 +1,39 @@
+package com.chatBot.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for the cluster bus (cluster.bus=local): delivers synchronously to every
+ * subscriber in this process and never reaches another node. Used for single-node
+ * deployments and in tests, where several service instances sharing one bus play the part
+ * of separate nodes.
+ */
+public class LocalClusterMessageBus implements ClusterMessageBus {
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String channel, String payload) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (Exception e) {
+                System.err.println("Cluster bus listener failed on " + channel + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    // Never disconnected
+    @Override
+    public void onReconnect(Runnable listener) {
+    }
+}
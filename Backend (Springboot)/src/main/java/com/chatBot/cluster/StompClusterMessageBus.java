@@ -0,0 +1,229 @@
+package com.chatBot.cluster;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cluster bus over an external STOMP broker (cluster.bus=stomp): ActiveMQ, Artemis or
+ * RabbitMQ with its STOMP plugin, normally the same broker the WebSocket relay uses. A
+ * channel is the topic /topic/cluster.{channel}, so every node, the publisher included,
+ * gets every message. Listeners run on one delivery thread, in the order the broker sent.
+ *
+ * The connection is opened in the background and, whenever it drops (heartbeats notice a
+ * dead one), opened again every reconnectMillis. What is published meanwhile is dropped;
+ * once back the subscriptions are renewed and the onReconnect listeners run. They also run
+ * when the first connect succeeds only after failed attempts (broker down at startup), as
+ * other nodes' messages sent in the meantime were missed just the same.
+ */
+public class StompClusterMessageBus implements ClusterMessageBus {
+
+    static final String DESTINATION_PREFIX = "/topic/cluster.";
+
+    private final String address;
+    private final ReactorNettyTcpStompClient client;
+    private final StompHeaders connectHeaders = new StompHeaders();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final ExecutorService delivery;
+    private final long reconnectMillis;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean reconnectPending = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile StompSession session;
+    private volatile boolean connectedBefore;
+    private volatile boolean missedMessages; // a connect attempt failed or the connection dropped
+    private volatile boolean stopped;
+
+    public StompClusterMessageBus(String host, int port, String login, String passcode, long reconnectMillis) {
+        this.address = host + ":" + port;
+        this.reconnectMillis = reconnectMillis;
+        connectHeaders.setLogin(login);
+        connectHeaders.setPasscode(passcode);
+
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("cluster-bus-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        client = new ReactorNettyTcpStompClient(host, port);
+        client.setMessageConverter(new StringMessageConverter());
+        client.setTaskScheduler(scheduler); // heartbeats, so a dead connection is noticed
+
+        delivery = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        connect();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+        scheduler.shutdown();
+        delivery.shutdownNow();
+    }
+
+    @Override
+    public void publish(String channel, String payload) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        try {
+            current.send(DESTINATION_PREFIX + channel, payload);
+        } catch (Exception e) {
+            dropped.incrementAndGet();
+            System.err.println("Cluster bus publish on " + channel + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(String channel, Consumer<String> listener) {
+        List<Consumer<String>> channelListeners = listeners.get(channel);
+        if (channelListeners == null) {
+            channelListeners = new CopyOnWriteArrayList<>();
+            listeners.put(channel, channelListeners);
+            StompSession current = session;
+            if (current != null && current.isConnected()) {
+                subscribe(current, channel);
+            }
+        }
+        channelListeners.add(listener);
+    }
+
+    @Override
+    public void onReconnect(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    public boolean isConnected() {
+        StompSession current = session;
+        return current != null && current.isConnected();
+    }
+
+    private void connect() {
+        if (stopped) {
+            return;
+        }
+        client.connectAsync(connectHeaders, new SessionHandler()).whenComplete((connected, ex) -> {
+            if (ex != null) {
+                System.err.println("Cluster bus could not connect to " + address + ": " + ex.getMessage());
+                missedMessages = true;
+                scheduleReconnect();
+            }
+        });
+    }
+
+    private void scheduleReconnect() {
+        if (stopped || !reconnectPending.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            reconnectPending.set(false);
+            connect();
+        }, Instant.now().plusMillis(reconnectMillis));
+    }
+
+    // Called with the lock held, or before anyone else can see the session
+    private void subscribe(StompSession current, String channel) {
+        current.subscribe(DESTINATION_PREFIX + channel, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                delivery.execute(() -> deliver(channel, (String) payload));
+            }
+        });
+    }
+
+    private void deliver(String channel, String payload) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (Exception e) {
+                System.err.println("Cluster bus listener failed on " + channel + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private final class SessionHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(StompSession connected, StompHeaders connectedHeaders) {
+            synchronized (StompClusterMessageBus.this) {
+                listeners.keySet().forEach(channel -> subscribe(connected, channel));
+                session = connected;
+            }
+            boolean firstConnect = !connectedBefore;
+            connectedBefore = true;
+            if (!missedMessages) {
+                System.out.println("Cluster bus connected to " + address);
+                return;
+            }
+            missedMessages = false;
+            System.out.println("Cluster bus " + (firstConnect ? "connected" : "reconnected") + " to " + address
+                    + " after failed attempts, " + dropped.getAndSet(0) + " messages dropped while disconnected");
+            for (Runnable listener : reconnectListeners) {
+                delivery.execute(() -> {
+                    try {
+                        listener.run();
+                    } catch (Exception e) {
+                        System.err.println("Cluster bus reconnect listener failed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void handleException(StompSession failed, StompCommand command, StompHeaders headers, byte[] payload, Throwable ex) {
+            System.err.println("Cluster bus failed to handle a " + command + " frame: " + ex.getMessage());
+        }
+
+        @Override
+        public void handleTransportError(StompSession failed, Throwable ex) {
+            missedMessages = true;
+            if (session == failed) {
+                session = null;
+                System.err.println("Cluster bus lost its connection to " + address + ": " + ex.getMessage());
+            }
+            scheduleReconnect();
+        }
+    }
+}
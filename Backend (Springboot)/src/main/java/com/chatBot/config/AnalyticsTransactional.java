@@ -0,0 +1,25 @@
+package com.chatBot.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Read-only transaction that runs on the analytics connection pool (optionally a read
+ * replica) instead of the OLTP pool used by the chatbot, so dashboard queries can never
+ * starve order placement of connections.
+ *
+ * Joining an already running transaction keeps that transaction's pool.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = AnalyticsTransactional.LABEL)
+public @interface AnalyticsTransactional {
+
+    String LABEL = "analytics";
+}
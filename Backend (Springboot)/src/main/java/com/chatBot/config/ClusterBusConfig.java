@@ -0,0 +1,46 @@
+package com.chatBot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.cluster.StompClusterMessageBus;
+
+/**
+ * The bus the nodes propagate in-memory state over (cluster.bus):
+ *  - local  this JVM only, for a single node
+ *  - stomp  an external STOMP broker shared by every node (cluster.stomp.*, by default the
+ *           WebSocket relay's broker); needed as soon as there is more than one node
+ */
+@Configuration
+public class ClusterBusConfig {
+
+    @Value("${cluster.bus:local}")
+    private String bus;
+
+    @Value("${cluster.stomp.host:${websocket.relay.host:localhost}}")
+    private String stompHost;
+
+    @Value("${cluster.stomp.port:${websocket.relay.port:61613}}")
+    private int stompPort;
+
+    @Value("${cluster.stomp.login:${websocket.relay.login:guest}}")
+    private String stompLogin;
+
+    @Value("${cluster.stomp.passcode:${websocket.relay.passcode:guest}}")
+    private String stompPasscode;
+
+    @Value("${cluster.stomp.reconnect-ms:5000}")
+    private long stompReconnectMillis;
+
+    @Bean
+    public ClusterMessageBus clusterMessageBus() {
+        return switch (bus) {
+            case "local" -> new LocalClusterMessageBus();
+            case "stomp" -> new StompClusterMessageBus(stompHost, stompPort, stompLogin, stompPasscode, stompReconnectMillis);
+            default -> throw new IllegalStateException("Unknown cluster.bus '" + bus + "': use local (one node) or stomp");
+        };
+    }
+}
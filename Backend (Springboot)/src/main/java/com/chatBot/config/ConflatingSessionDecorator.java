@@ -0,0 +1,185 @@
+package com.chatBot.config;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * Writes one dashboard connection's frames from the guard's writer pool, in order, so a
+ * slow connection holds at most one writer and never the broker's outbound threads.
+ *
+ * Frames wait here while the connection is busy. Once conflateAfter frames are waiting the
+ * session is lagging and, with conflation on, an order update drops the waiting updates it
+ * supersedes (every order they carry is in it too). Past the buffer size limit, or once the
+ * oldest waiting frame is older than the send time limit, the session is closed; the
+ * dashboard reconnects and catches up from the order event log.
+ */
+final class ConflatingSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final String ORDER_IDS_HEADER = "\norderIds:";
+
+    private final SlowSessionGuard guard;
+
+    // Guarded by this
+    private final Deque<Frame> buffer = new ArrayDeque<>();
+    private int bufferedBytes;
+    private boolean writing;
+    private boolean closed;
+    private CloseStatus closeWhenWritten;
+
+    ConflatingSessionDecorator(WebSocketSession delegate, SlowSessionGuard guard) {
+        super(delegate);
+        this.guard = guard;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        Frame frame = new Frame(message, orderIds(message), System.nanoTime());
+        String exceeded;
+        synchronized (this) {
+            if (closed || closeWhenWritten != null) {
+                guard.dropped(1);
+                return;
+            }
+            if (guard.isConflating() && frame.orderIds() != null && buffer.size() >= guard.getConflateAfter()) {
+                dropSupersededBy(frame);
+            }
+            buffer.add(frame);
+            bufferedBytes += message.getPayloadLength();
+
+            exceeded = limitExceeded();
+            if (exceeded == null) {
+                if (!writing) {
+                    writing = true;
+                    guard.execute(this::writeBuffered);
+                }
+                return;
+            }
+            closed = true;
+            guard.dropped(buffer.size());
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+
+        guard.closedSlowSession();
+        System.err.println("Closing slow WebSocket session " + getId() + ": " + exceeded);
+        getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE.withReason(exceeded));
+    }
+
+    // Lets the frames already waiting (e.g. a RECEIPT) go out before closing
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (writing) {
+                closeWhenWritten = status;
+                return;
+            }
+            closed = true;
+        }
+        getDelegate().close(status);
+    }
+
+    synchronized int bufferedFrames() {
+        return buffer.size();
+    }
+
+    private void writeBuffered() {
+        while (true) {
+            Frame frame;
+            CloseStatus closeStatus = null;
+            synchronized (this) {
+                frame = closed ? null : buffer.poll();
+                if (frame == null) {
+                    writing = false;
+                    if (!closed && closeWhenWritten != null) {
+                        closed = true;
+                        closeStatus = closeWhenWritten;
+                    }
+                } else {
+                    bufferedBytes -= frame.message().getPayloadLength();
+                }
+            }
+            try {
+                if (frame == null) {
+                    if (closeStatus != null) {
+                        getDelegate().close(closeStatus);
+                    }
+                    return;
+                }
+                getDelegate().sendMessage(frame.message());
+            } catch (IOException | RuntimeException e) {
+                // The connection is gone; the container reports the close to the handler
+                synchronized (this) {
+                    closed = true;
+                    writing = false;
+                    guard.dropped(buffer.size());
+                    buffer.clear();
+                    bufferedBytes = 0;
+                }
+                return;
+            }
+        }
+    }
+
+    // Called with the lock held
+    private void dropSupersededBy(Frame frame) {
+        int before = buffer.size();
+        buffer.removeIf(waiting -> {
+            boolean superseded = waiting.orderIds() != null && frame.orderIds().containsAll(waiting.orderIds());
+            if (superseded) {
+                bufferedBytes -= waiting.message().getPayloadLength();
+            }
+            return superseded;
+        });
+        guard.conflated(before - buffer.size());
+    }
+
+    // Called with the lock held
+    private String limitExceeded() {
+        if (bufferedBytes > guard.getSendBufferSizeLimit()) {
+            return "send buffer over " + guard.getSendBufferSizeLimit() + " bytes";
+        }
+        Frame oldest = buffer.peek();
+        if (oldest != null && System.nanoTime() - oldest.queuedNanos() > TimeUnit.MILLISECONDS.toNanos(guard.getSendTimeLimit())) {
+            return "frames waiting over " + guard.getSendTimeLimit() + " ms";
+        }
+        return null;
+    }
+
+    /**
+     * Ids in the "orderIds" header of a STOMP MESSAGE frame (set by OrderBroadcaster), null
+     * for every other frame.
+     */
+    static Set<Long> orderIds(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text) || !text.getPayload().startsWith("MESSAGE\n")) {
+            return null;
+        }
+        String frame = text.getPayload();
+        int headersEnd = frame.indexOf("\n\n");
+        int at = frame.indexOf(ORDER_IDS_HEADER);
+        if (at < 0 || at > headersEnd) {
+            return null;
+        }
+        int from = at + ORDER_IDS_HEADER.length();
+        Set<Long> ids = new HashSet<>();
+        for (String id : frame.substring(from, frame.indexOf('\n', from)).split(",")) {
+            ids.add(Long.parseLong(id));
+        }
+        return ids;
+    }
+
+    private record Frame(WebSocketMessage<?> message, Set<Long> orderIds, long queuedNanos) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.chatBot.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Which connection pool the current thread's transaction uses. Set by
+ * RoutingJpaTransactionManager when a transaction begins and restored when it ends,
+ * so suspended/resumed transactions keep their own route.
+ */
+public enum DataSourceRoute {
+
+    OLTP,
+    ANALYTICS;
+
+    private static final ThreadLocal<Deque<DataSourceRoute>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public static DataSourceRoute current() {
+        DataSourceRoute route = CURRENT.get().peek();
+        return route != null ? route : OLTP;
+    }
+
+    static void push(DataSourceRoute route) {
+        CURRENT.get().push(route);
+    }
+
+    static void pop() {
+        Deque<DataSourceRoute> stack = CURRENT.get();
+        stack.poll();
+        if (stack.isEmpty()) {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.chatBot.config;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Hibernate second-level + query cache for read-mostly data (menu items, restaurant open flag).
+ *
+ * Every region is created here with an explicit size limit and time-to-live so the cache
+ * can never grow without bound. Writes made through JPA (MenuItemController, the menu
+ * import, RestaurantService.setRestaurantStatus) evict the entity entries and invalidate
+ * the cached queries over the same table automatically.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String MENU_ITEMS_REGION = "menuItems";
+    public static final String RESTAURANT_INFO_REGION = "restaurantInfo";
+
+    @Value("${cache.menu-items.max-entries:2000}")
+    private long menuItemsMaxEntries;
+
+    @Value("${cache.query-results.max-entries:500}")
+    private long queryResultsMaxEntries;
+
+    @Value("${cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        createRegion(cacheManager, MENU_ITEMS_REGION, menuItemsMaxEntries, ttlMinutes);
+        createRegion(cacheManager, RESTAURANT_INFO_REGION, 10, ttlMinutes);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                queryResultsMaxEntries, ttlMinutes);
+        // Update timestamps must outlive every cached query result, so no TTL here
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 1000, 0);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlMinutes) {
+        if (cacheManager.getCache(name) != null) {
+            return; // the provider's CacheManager is shared JVM-wide (e.g. across test contexts)
+        }
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        config.setMaximumSize(OptionalLong.of(maxEntries));
+        if (ttlMinutes > 0) {
+            config.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        }
+        config.setStatisticsEnabled(true);
+        cacheManager.createCache(name, config);
+    }
+}
@@ -0,0 +1,48 @@
+package com.chatBot.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * JpaTransactionManager that picks the connection pool before the transaction's
+ * connection is acquired: transactions labelled {@link AnalyticsTransactional#LABEL}
+ * go to the analytics pool, everything else to the OLTP pool.
+ *
+ * Plain readOnly is not enough to route on: Spring Data runs every repository read as a
+ * read-only transaction, including the chatbot's own lookups.
+ */
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+    public RoutingJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        DataSourceRoute.push(isAnalytics(definition) ? DataSourceRoute.ANALYTICS : DataSourceRoute.OLTP);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            DataSourceRoute.pop();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            DataSourceRoute.pop();
+        }
+    }
+
+    private static boolean isAnalytics(TransactionDefinition definition) {
+        return definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(AnalyticsTransactional.LABEL);
+    }
+}
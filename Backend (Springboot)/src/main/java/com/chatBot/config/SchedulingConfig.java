@@ -0,0 +1,10 @@
+package com.chatBot.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (status refresh, maintenance jobs)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
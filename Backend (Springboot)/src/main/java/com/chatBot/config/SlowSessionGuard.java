@@ -0,0 +1,127 @@
+package com.chatBot.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps one dashboard on a bad connection from backing up the broker: every STOMP session
+ * gets a ConflatingSessionDecorator that buffers its frames and writes them from a small
+ * writer pool, conflates order updates while the session lags, and closes it once it is
+ * past the per-session send limits. Counts what was conflated and dropped for stats().
+ */
+@Component
+public class SlowSessionGuard implements WebSocketHandlerDecoratorFactory {
+
+    private final int sendBufferSizeLimit;
+    private final int sendTimeLimit;
+    private final boolean conflating;
+    private final int conflateAfter;
+    private final ExecutorService writers;
+
+    private final Map<String, ConflatingSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong closedSessions = new AtomicLong();
+
+    public SlowSessionGuard(
+            @Value("${websocket.session.send-buffer-kb:512}") int sendBufferKb,
+            @Value("${websocket.session.send-time-ms:10000}") int sendTimeMillis,
+            @Value("${websocket.session.conflate:true}") boolean conflating,
+            @Value("${websocket.session.conflate-after:4}") int conflateAfter,
+            @Value("${websocket.session.writer-threads:4}") int writerThreads) {
+        this.sendBufferSizeLimit = sendBufferKb * 1024;
+        this.sendTimeLimit = sendTimeMillis;
+        this.conflating = conflating;
+        this.conflateAfter = Math.max(1, conflateAfter);
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+            Thread thread = new Thread(r, "ws-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                ConflatingSessionDecorator decorated = new ConflatingSessionDecorator(session, SlowSessionGuard.this);
+                sessions.put(session.getId(), decorated);
+                super.afterConnectionEstablished(decorated);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    public int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    public int getSendTimeLimit() {
+        return sendTimeLimit;
+    }
+
+    boolean isConflating() {
+        return conflating;
+    }
+
+    int getConflateAfter() {
+        return conflateAfter;
+    }
+
+    void execute(Runnable write) {
+        writers.execute(write);
+    }
+
+    void conflated(int frames) {
+        conflated.addAndGet(frames);
+    }
+
+    void dropped(int frames) {
+        dropped.addAndGet(frames);
+    }
+
+    void closedSlowSession() {
+        closedSessions.incrementAndGet();
+    }
+
+    /**
+     * Open sessions, the ones lagging right now, and since startup the frames conflated
+     * away, the frames dropped with closed sessions and the sessions closed for being slow.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("lagging", sessions.values().stream().filter(s -> s.bufferedFrames() >= conflateAfter).count());
+        stats.put("conflated", conflated.get());
+        stats.put("dropped", dropped.get());
+        stats.put("closedSlowSessions", closedSessions.get());
+        return stats;
+    }
+}
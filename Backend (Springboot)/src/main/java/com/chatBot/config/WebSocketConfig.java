@@ -1,6 +1,8 @@
 package com.chatBot.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
 
@@ -8,6 +10,33 @@ import org.springframework.web.socket.config.annotation.*;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SlowSessionGuard slowSessionGuard;
+
+    @Value("${websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    // "simple": in-JVM broker per node, order updates fanned out over the cluster bus
+    // (OrderBroadcaster); "relay": an external STOMP broker (e.g. ActiveMQ/Artemis) that every
+    // node relays /topic to, needs reactor-netty on the classpath
+    @Value("${websocket.broker:simple}")
+    private String broker;
+
+    @Value("${websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public WebSocketConfig(SlowSessionGuard slowSessionGuard) {
+        this.slowSessionGuard = slowSessionGuard;
+    }
+
 	// Configure message broker for handling messages
 	// Server will use this to route messages
 	//The prefix "/topic" is for broadcasting messages to multiple clients
@@ -15,7 +44,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 	//This setup allows for real-time communication between clients and the server.
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // Broadcast messages
+        if ("relay".equals(broker)) {
+            config.enableStompBrokerRelay("/topic") // Broadcast messages, to every node's clients
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            config.enableSimpleBroker("/topic"); // Broadcast messages
+        }
         config.setApplicationDestinationPrefixes("/app"); // For client→server messages
     }
 
@@ -28,4 +67,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS(); // Fallback support
     }
+
+    // Per-session send limits: SlowSessionGuard buffers, conflates and closes slow sessions;
+    // the same limits apply to the framework's own per-session buffer behind it
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(slowSessionGuard.getSendBufferSizeLimit());
+        registration.setSendTimeLimit(slowSessionGuard.getSendTimeLimit());
+        registration.addDecoratorFactory(slowSessionGuard);
+    }
+
+    // Threads handing broker messages to the sessions; they only queue frames, the writes
+    // happen on SlowSessionGuard's writer pool
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundPoolSize).maxPoolSize(outboundPoolSize);
+    }
 }
@@ -0,0 +1,66 @@
+package com.chatBot.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatBot.config.HibernateCacheConfig;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    private final Statistics statistics;
+
+    public CacheController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // ✅ Second-level / query cache statistics (hits, misses, puts per region)
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        stats.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        stats.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        stats.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        stats.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        stats.put("queryCachePuts", statistics.getQueryCachePutCount());
+        stats.put("jdbcStatements", statistics.getPrepareStatementCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        regions.put(HibernateCacheConfig.MENU_ITEMS_REGION,
+                toMap(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.MENU_ITEMS_REGION)));
+        regions.put(HibernateCacheConfig.RESTAURANT_INFO_REGION,
+                toMap(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.RESTAURANT_INFO_REGION)));
+        regions.put(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                toMap(statistics.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)));
+        stats.put("regions", regions);
+
+        return ResponseEntity.ok(stats);
+    }
+
+    private static Map<String, Object> toMap(CacheRegionStatistics region) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (region == null) {
+            return map;
+        }
+        map.put("hits", region.getHitCount());
+        map.put("misses", region.getMissCount());
+        map.put("puts", region.getPutCount());
+        map.put("elementsInMemory", region.getElementCountInMemory());
+        return map;
+    }
+}
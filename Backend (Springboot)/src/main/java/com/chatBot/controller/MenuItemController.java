@@ -1,13 +1,21 @@
 package com.chatBot.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.chatBot.model.MenuItem;
 import com.chatBot.repository.MenuItemRepository;
+import com.chatBot.service.MenuImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 @RestController
 @RequestMapping("/api/menu")
@@ -17,6 +25,9 @@ public class MenuItemController {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private MenuImportService menuImportService;
+
     // ✅ Get all menu items
     @GetMapping
     public ResponseEntity<List<MenuItem>> getAllItems() {
@@ -64,4 +75,44 @@ public class MenuItemController {
             })
             .orElse(ResponseEntity.notFound().build());
     }
+
+    // ✅ Bulk import from a CSV (name,description,price,available) or JSON array upload
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> importItems(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+
+        String resolvedFormat = format;
+        if (resolvedFormat == null) {
+            String filename = file.getOriginalFilename();
+            resolvedFormat = filename != null && filename.toLowerCase().endsWith(".json")
+                    ? MenuImportService.FORMAT_JSON
+                    : MenuImportService.FORMAT_CSV;
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(menuImportService.importItems(in, resolvedFormat));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to read upload: " + e.getMessage()));
+        }
+    }
+
+    // ✅ Streaming export of the whole menu (csv | json)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        boolean json = MenuImportService.FORMAT_JSON.equalsIgnoreCase(format);
+        if (!json && !MenuImportService.FORMAT_CSV.equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> menuImportService.exportItems(out, format);
+
+        return ResponseEntity.ok()
+                .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=menu." + (json ? "json" : "csv"))
+                .body(body);
+    }
 }
@@ -7,13 +7,33 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.chatBot.config.AnalyticsTransactional;
+import com.chatBot.config.SlowSessionGuard;
+import com.chatBot.dto.CursorPage;
 import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
+import com.chatBot.dto.OrderStatusChange;
 import com.chatBot.model.Order;
-import com.chatBot.repository.OrderRepository;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.service.DashboardService;
+import com.chatBot.service.OrderBroadcaster;
+import com.chatBot.service.OrderColumnStore;
+import com.chatBot.service.OrderRollupService;
 import com.chatBot.service.OrderService;
+import com.chatBot.service.OrderStatusConflictException;
+import com.chatBot.service.OrderStatusHistoryService;
+import com.chatBot.service.PopularItemsIndex;
+import com.chatBot.service.RevenueBuckets;
+import com.chatBot.service.TransactionExportService;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -21,28 +41,41 @@ import com.chatBot.service.OrderService;
 public class OrderController {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderService orderService;
 
     @Autowired
-    private OrderService orderService;
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private OrderColumnStore orderColumnStore;
+
+    @Autowired
+    private PopularItemsIndex popularItemsIndex;
+
+    @Autowired
+    private OrderStatusHistoryService orderStatusHistoryService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private OrderBroadcaster orderBroadcaster;
+
+    @Autowired
+    private SlowSessionGuard slowSessionGuard;
 
     // ✅ Dashboard stats API
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> getDashboardStats(@RequestParam(defaultValue = "50") int size) {
+        // ✅ Totals (archived orders included), status counts and the first page of active
+        // orders, fetched concurrently; further pages from /page?active=true
+        Map<String, Object> stats = new LinkedHashMap<>(dashboardService.getDashboard(size));
 
-        long cashOrders = orderRepository.countCashOrders();
-        long confirmedOnlineOrders = orderRepository.countConfirmedOnlineOrders();
-        double totalRevenue = orderRepository.sumCashOrders() + orderRepository.sumConfirmedOnlineOrders();
-
-        stats.put("cashOrders", cashOrders);
-        stats.put("confirmedOnlineOrders", confirmedOnlineOrders);
-        stats.put("totalRevenue", totalRevenue);
         stats.put("note", "Revenue excludes cancelled orders, but includes running/pending ones.");
 
-        List<OrderDTO> orders = orderService.getFilteredOrders();
-        stats.put("orders", orders);
-
         return ResponseEntity.ok(stats);
     }
 
@@ -51,9 +84,14 @@ public class OrderController {
      *
      * range: "7days" | "30days" | "all"
      *
-     * This implementation uses repository-level queries (findValidOrdersAfter,
-     * findValidOrdersWithItemsAfter, findOrdersForStatusAfter) to minimize
-     * memory and avoid fetching everything into Java then filtering.
+     * Totals and splits are scans over the in-memory column store (OrderColumnStore); the
+     * daily trend and the customer count (HyperLogLog sketches) come from the hourly/daily
+     * rollups (OrderRollupService) and popular items from top-K sketches kept over them
+     * (PopularItemsIndex). Kitchen latency percentiles come from histograms over the status
+     * transition log (OrderStatusHistoryService). No order entities are loaded.
+     *
+     * Between fetches the column store pushes the changes to "counters" on
+     * /topic/analytics, so dashboards refetch only on (re)connect or a range change.
      */
     
     @GetMapping("/analytics")
@@ -88,31 +126,51 @@ public class OrderController {
                     break;
             }
 
+            // ✅ Pick up this node's not yet rolled up changes first
+            orderRollupService.flushPending();
+
             // ====================================================
-            // 1️⃣ Fetch valid orders (excluding PAYMENT_FAILED)
+            // 1️⃣ Totals per (payment mode, payment status, order status), in memory
             // ====================================================
-            List<Order> validOrders = orderRepository.findValidOrdersAfter(startFilter);
+            long totalOrders = 0;       // revenue orders: valid and not cancelled
+            double totalRevenue = 0;
+            long cash = 0, card = 0, upi = 0;
+            long delivered = 0, cancelled = 0, pending = 0; // valid orders, cancelled included
+
+            OrderColumnStore.Totals totals = orderColumnStore.totals(startFilter);
+            for (Object[] row : totals.rows()) {
+                PaymentMode mode = (PaymentMode) row[0];
+                OrderStatus status = (OrderStatus) row[2];
+                long count = ((Number) row[3]).longValue();
+
+                if (row[1] == PaymentStatus.PAYMENT_FAILED) {
+                    continue; // Exclude PAYMENT_FAILED everywhere
+                }
+                if (status == OrderStatus.DELIVERED) {
+                    delivered += count;
+                } else if (status == OrderStatus.CANCELLED) {
+                    cancelled += count;
+                    continue; // Revenue orders EXCLUDE CANCELLED
+                } else {
+                    pending += count;
+                }
 
-            // Revenue orders EXCLUDE CANCELLED
-            List<Order> revenueOrders = validOrders.stream()
-                    .filter(o -> o.getOrderStatus() == null ||
-                            !"CANCELLED".equalsIgnoreCase(o.getOrderStatus()))
-                    .collect(Collectors.toList());
+                totalOrders += count;
+                totalRevenue += ((Number) row[4]).doubleValue();
+                if (mode == PaymentMode.CASH) {
+                    cash += count;
+                } else if (mode == PaymentMode.CARD) {
+                    card += count;
+                } else if (mode == PaymentMode.UPI) {
+                    upi += count;
+                }
+            }
 
             // ====================================================
             // 2️⃣ SUMMARY STATISTICS
             // ====================================================
-            double totalRevenue = revenueOrders.stream()
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
-
-            long totalOrders = revenueOrders.size();
-
-            long totalCustomers = revenueOrders.stream()
-                    .map(Order::getUserPhone)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .count();
+            // ✅ Distinct customers merged from the per-day HyperLogLog sketches (~1.6% error)
+            long totalCustomers = orderRollupService.countCustomersSince(startFilter);
 
             double avgOrderValue = totalOrders > 0 ? totalRevenue / totalOrders : 0;
 
@@ -121,6 +179,22 @@ public class OrderController {
             analytics.put("totalCustomers", totalCustomers);
             analytics.put("avgOrderValue", Math.round(avgOrderValue * 100.0) / 100.0);
 
+            // ✅ Raw counters; /topic/analytics pushes changes to these between fetches
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("orders", totalOrders);
+            counters.put("revenue", Math.round(totalRevenue * 100.0) / 100.0);
+            counters.put("cash", cash);
+            counters.put("card", card);
+            counters.put("upi", upi);
+            counters.put("delivered", delivered);
+            counters.put("pending", pending);
+            counters.put("cancelled", cancelled);
+            analytics.put("counters", counters);
+            // ✅ The pushed changes these counters already hold: apply only later "seq" of this "epoch", from "topic"
+            analytics.put("epoch", totals.epoch());
+            analytics.put("seq", totals.seq());
+            analytics.put("topic", totals.topic());
+
             // ====================================================
             // 3️⃣ DAILY REVENUE TREND — FIXED (continuous timeline)
             // ====================================================
@@ -135,13 +209,7 @@ public class OrderController {
                     break;
 
                 case "all":
-                    Optional<LocalDate> earliest = revenueOrders.stream()
-                            .filter(o -> o.getOrderTime() != null)
-                            .map(o -> o.getOrderTime().toLocalDate())
-                            .min(LocalDate::compareTo);
-
-                    // fallback if no orders
-                    startDateForChart = earliest.orElse(endDate.minusDays(6));
+                    startDateForChart = null; // first day with revenue, fallback if no orders
                     break;
 
                 case "7days":
@@ -151,25 +219,17 @@ public class OrderController {
                     break;
             }
 
-            List<Map<String, Object>> dailyRevenue = 
-                    startDateForChart
-                    .datesUntil(endDate.plusDays(1))          // iterate inclusive
-                    .map(date -> {
-
-                        double dayRevenue = revenueOrders.stream()
-                            .filter(o -> o.getOrderTime() != null &&
-                                    o.getOrderTime().toLocalDate().equals(date))
-                            .mapToDouble(Order::getTotalPrice)
-                            .sum();
-
-                        Map<String, Object> row = new LinkedHashMap<>();
-                        row.put("date", date.getMonthValue() + "/" + date.getDayOfMonth());
-                        row.put("revenue", Math.round(dayRevenue * 100.0) / 100.0);
-
-                        return row;
-                    })
-                    .collect(Collectors.toList());
+            // ✅ One bucket per day, zero-revenue days included
+            RevenueBuckets days = orderRollupService.getRevenueBuckets(
+                    RevenueBuckets.Granularity.DAY, startDateForChart, endDate);
 
+            List<Map<String, Object>> dailyRevenue = new ArrayList<>(days.size());
+            for (int i = 0; i < days.size(); i++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("date", days.label(i));
+                row.put("revenue", Math.round(days.revenue(i) * 100.0) / 100.0);
+                dailyRevenue.add(row);
+            }
 
             analytics.put("dailyRevenue", dailyRevenue);
 
@@ -179,18 +239,6 @@ public class OrderController {
 
             List<Map<String, Object>> paymentSplit = new ArrayList<>();
             if (totalOrders > 0) {
-                long cash = revenueOrders.stream()
-                        .filter(o -> "CASH".equalsIgnoreCase(o.getPaymentMode()))
-                        .count();
-
-                long card = revenueOrders.stream()
-                        .filter(o -> "CARD".equalsIgnoreCase(o.getPaymentMode()))
-                        .count();
-
-                long upi = revenueOrders.stream()
-                        .filter(o -> "UPI".equalsIgnoreCase(o.getPaymentMode()))
-                        .count();
-
                 if (cash > 0) {
                     paymentSplit.add(Map.of(
                             "name", "Cash",
@@ -216,30 +264,15 @@ public class OrderController {
             analytics.put("paymentSplit", paymentSplit);
 
             // ====================================================
-            // 5️⃣ POPULAR ITEMS (Using optimized fetch)
+            // 5️⃣ POPULAR ITEMS (in-memory top-K sketches, cancelled orders included)
             // ====================================================
 
-            List<Order> ordersWithItems = orderRepository.findValidOrdersWithItemsAfter(startFilter);
-
-            Map<String, Integer> itemCounts = new HashMap<>();
-
-            for (Order o : ordersWithItems) {
-                if (o.getOrderItems() == null) continue;
-
-                o.getOrderItems().forEach(item -> {
-                    if (item.getMenuItem() == null) return;
-                    String name = item.getMenuItem().getName();
-                    itemCounts.put(name, itemCounts.getOrDefault(name, 0) + item.getQuantity());
-                });
-            }
-
-            List<Map<String, Object>> popularItems = itemCounts.entrySet().stream()
-                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                    .limit(5)
-                    .map(e -> {
+            List<Map<String, Object>> popularItems = popularItemsIndex
+                    .topItemsSince(startFilter, 5, true).stream()
+                    .map(row -> {
                         Map<String, Object> m = new LinkedHashMap<>();
-                        m.put("name", e.getKey());
-                        m.put("orders", e.getValue());
+                        m.put("name", row[0]);
+                        m.put("orders", ((Number) row[1]).intValue());
                         return m;
                     })
                     .collect(Collectors.toList());
@@ -251,23 +284,8 @@ public class OrderController {
             // 6️⃣ ORDER STATUS DISTRIBUTION
             // ====================================================
 
-            List<Order> ordersForStatus = orderRepository.findOrdersForStatusAfter(startFilter);
-
-            long totalForStatus = ordersForStatus.size();
-
-            long delivered = ordersForStatus.stream()
-                    .filter(o -> "DELIVERED".equalsIgnoreCase(o.getOrderStatus()))
-                    .count();
-
-            long cancelled = ordersForStatus.stream()
-                    .filter(o -> "CANCELLED".equalsIgnoreCase(o.getOrderStatus()))
-                    .count();
-
-            long pending = ordersForStatus.stream()
-                    .filter(o -> o.getOrderStatus() != null &&
-                            !"DELIVERED".equalsIgnoreCase(o.getOrderStatus()) &&
-                            !"CANCELLED".equalsIgnoreCase(o.getOrderStatus()))
-                    .count();
+            // Valid orders (cancelled included, PAYMENT_FAILED excluded)
+            long totalForStatus = delivered + cancelled + pending;
 
             List<Map<String, Object>> orderStatus = new ArrayList<>();
 
@@ -297,6 +315,12 @@ public class OrderController {
 
             analytics.put("orderStatus", orderStatus);
 
+            // ====================================================
+            // 7️⃣ KITCHEN LATENCY
+            // ====================================================
+            // ✅ p50/p90/p99/max seconds spent pending, preparing and out for delivery
+            analytics.put("kitchenLatency", orderStatusHistoryService.latencySince(startFilter));
+
             return ResponseEntity.ok(analytics);
 
         } catch (Exception e) {
@@ -308,32 +332,41 @@ public class OrderController {
 
     
 
+    // ✅ Revenue trend per day / week / month (revenue, orders, orders per payment mode).
+    // 400 for a range over the granularity's bucket limit (2 years of days, 10 of weeks, 20 of months)
+    @GetMapping("/analytics/revenue")
+    public ResponseEntity<?> getRevenueTrend(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            orderRollupService.flushPending();
+            RevenueBuckets buckets = orderRollupService.getRevenueBuckets(
+                    RevenueBuckets.Granularity.from(granularity), from, end);
+            return ResponseEntity.ok(buckets.toRows());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
     // ✅ Update order status (Confirm, Prepare, Deliver, Cancel)
     @PutMapping("/{orderId}/order-status")
     public ResponseEntity<String> updateOrderStatus(
             @PathVariable("orderId") Long orderId,
             @RequestParam String status) {
         
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null) {
-            return ResponseEntity.badRequest().body("Order not found");
-        }
-        
-        // 🚫 Restrict canceling delivered orders only
-        if (order.getOrderStatus().equalsIgnoreCase("Delivered")) {
-            if (status.equalsIgnoreCase("Cancelled")) {
-                return ResponseEntity.badRequest().body("Cannot cancel an already delivered order");
-            }
-        }
-        
         // ✅ Delegate cancellation and other transitions to OrderService so side-effects occur there (WhatsApp message, websocket)
         try {
             Order updated = orderService.updateOrderStatus(orderId, status);
             if (updated != null) {
-                return ResponseEntity.ok("Order status updated successfully to " + updated.getOrderStatus());
+                return ResponseEntity.ok("Order status updated successfully to " + updated.getOrderStatus().getLabel());
             } else {
                 return ResponseEntity.badRequest().body("Failed to update order status");
             }
+        } catch (OrderStatusConflictException conflict) {
+            // ✅ Not allowed from the order's current state (or changed by someone else first)
+            return ResponseEntity.status(409).body(conflict.getMessage());
         } catch (RuntimeException rex) {
             // preserve the business errors/exceptions thrown by the service
             return ResponseEntity.badRequest().body(rex.getMessage());
@@ -343,6 +376,21 @@ public class OrderController {
         }
     }
     
+    // ✅ Bulk status update for the kitchen: [{ "orderId": 1, "status": "Preparing" }, ...]
+    // Applied in one transaction; orders whose current state doesn't allow the move are
+    // listed under "conflicts" and the rest still go through
+    @PutMapping("/order-status")
+    public ResponseEntity<Map<String, Object>> updateOrderStatuses(@RequestBody List<OrderStatusChange> changes) {
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(changes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
     // ✅ Monthly Summary API
     @GetMapping("/monthly-summary")
     public ResponseEntity<List<Map<String, Object>>> getMonthlySummary() {
@@ -358,64 +406,78 @@ public class OrderController {
     }
     
     // ✅ Transaction History API (Exclude Cancelled and Failed Payments)
-    @GetMapping("/transactions")
-    public ResponseEntity<List<Map<String, Object>>> getTransactionHistory() {
-        List<Order> orders = orderRepository.findAll();
-
-        // ✅ Filter only valid (non-cancelled, non-failed) orders
-        List<Order> validOrders = orders.stream()
-            .filter(o -> !"CANCELLED".equalsIgnoreCase(o.getOrderStatus()))
-            .filter(o -> !"PAYMENT_FAILED".equalsIgnoreCase(o.getStatus()))
-            .collect(Collectors.toList());
-
-        List<Map<String, Object>> transactions = validOrders.stream()
-            .filter(o -> o.getPaymentMode() != null)
-            .map(o -> {
-                Map<String, Object> tx = new LinkedHashMap<>();
-                tx.put("id", o.getId());
-                tx.put("customerName", o.getCustomerName());
-                tx.put("userPhone", o.getUserPhone()); // ✅ Added phone number
-                tx.put("paymentMode", o.getPaymentMode());
-                tx.put("status", o.getStatus());
-                tx.put("totalPrice", o.getTotalPrice());
-                tx.put("razorpayPaymentId",
-                    o.getRazorpayPaymentId() != null ? o.getRazorpayPaymentId() : "N/A"); // ✅ Safe check
-                tx.put("orderTime", o.getOrderTime());
-                tx.put("orderStatus", o.getOrderStatus());
-                return tx;
-            })
-            .collect(Collectors.toList());
-
-        return ResponseEntity.ok(transactions);
-    }
+    // ✅ Streaming export of the transactions (csv | ndjson), oldest first, for year-end accounting
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String paymentMode) {
+        boolean ndjson = TransactionExportService.FORMAT_NDJSON.equalsIgnoreCase(format);
+        if (!ndjson && !TransactionExportService.FORMAT_CSV.equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PaymentMode mode;
+        try {
+            mode = paymentMode != null && !paymentMode.isBlank() ? PaymentMode.from(paymentMode) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
+        StreamingResponseBody body = out -> transactionExportService.exportTransactions(out, format, from, to, mode);
 
-    
-    // ✅ Payment Summary API (Exclude Cancelled and Failed Payments)
-    @GetMapping("/payment-summary")
-    public ResponseEntity<Map<String, Object>> getPaymentSummary() {
-        List<Order> orders = orderRepository.findAll();
+        return ResponseEntity.ok()
+                .contentType(ndjson ? new MediaType("application", "x-ndjson") : new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions." + (ndjson ? "ndjson" : "csv"))
+                .body(body);
+    }
 
-        // ✅ Filter only valid (non-cancelled, non-failed) paid/confirmed orders
-        List<Order> validOrders = orders.stream()
-            .filter(o -> !"CANCELLED".equalsIgnoreCase(o.getOrderStatus()))
-            .filter(o -> !"PAYMENT_FAILED".equalsIgnoreCase(o.getStatus()))
-            .collect(Collectors.toList());
+    // ✅ Transaction History, keyset-paginated (newest first) with server-side filters
+    @GetMapping("/transactions/page")
+    @AnalyticsTransactional
+    public ResponseEntity<CursorPage<Map<String, Object>>> getTransactionPage(
+            @ModelAttribute OrderFilter filter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderService.getTransactionsPage(filter, beforeTime, beforeId, size));
+    }
 
-        double totalCash = validOrders.stream()
-            .filter(o -> "CASH".equalsIgnoreCase(o.getPaymentMode()))
-            .mapToDouble(Order::getTotalPrice)
-            .sum();
+    // ✅ Order listing, keyset-paginated (newest first) with server-side filters
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<OrderDTO>> getOrderPage(
+            @ModelAttribute OrderFilter filter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderService.getOrdersPage(filter, beforeTime, beforeId, size));
+    }
 
-        double totalUpi = validOrders.stream()
-            .filter(o -> "UPI".equalsIgnoreCase(o.getPaymentMode()))
-            .mapToDouble(Order::getTotalPrice)
-            .sum();
+    // ✅ Order messages missed since seq "since" of this node's epoch, or "snapshot": true to reload
+    @GetMapping("/events")
+    public ResponseEntity<Map<String, Object>> getOrderEvents(
+            @RequestParam(required = false) String epoch,
+            @RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(orderBroadcaster.eventsSince(epoch, since));
+    }
+
+    // ✅ Live order updates: messages sent, events queued and commit-to-send lag (ms) on this node,
+    // plus slow dashboard sessions (lagging, frames conflated/dropped, sessions closed)
+    @GetMapping("/broadcast-stats")
+    public ResponseEntity<Map<String, Object>> getBroadcastStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(orderBroadcaster.stats());
+        stats.put("websocket", slowSessionGuard.stats());
+        return ResponseEntity.ok(stats);
+    }
 
-        double totalCard = validOrders.stream()
-            .filter(o -> "CARD".equalsIgnoreCase(o.getPaymentMode()))
-            .mapToDouble(Order::getTotalPrice)
-            .sum();
+    // ✅ Payment Summary API (Exclude Cancelled and Failed Payments)
+    @GetMapping("/payment-summary")
+    public ResponseEntity<Map<String, Object>> getPaymentSummary() {
+        // ✅ Per payment mode from the column store (excludes cancelled and failed payments)
+        Map<PaymentMode, Double> revenue = orderService.getValidRevenueByPaymentMode();
+        double totalCash = revenue.getOrDefault(PaymentMode.CASH, 0.0);
+        double totalUpi = revenue.getOrDefault(PaymentMode.UPI, 0.0);
+        double totalCard = revenue.getOrDefault(PaymentMode.CARD, 0.0);
 
         double grandTotal = totalCash + totalUpi + totalCard;
 
@@ -425,6 +487,11 @@ public class OrderController {
         summary.put("totalCard", totalCard);
         summary.put("grandTotal", grandTotal);
 
+        // ✅ Transaction counts for the key metrics; the history itself is paged via /transactions/page
+        Map<PaymentStatus, Long> counts = orderService.getTransactionCountsByPaymentStatus();
+        summary.put("transactionCount", counts.values().stream().mapToLong(Long::longValue).sum());
+        summary.put("confirmedCount", counts.getOrDefault(PaymentStatus.CONFIRMED, 0L));
+
         if (grandTotal > 0) {
             summary.put("cashPercentage", Math.round((totalCash / grandTotal) * 100.0));
             summary.put("upiPercentage", Math.round((totalUpi / grandTotal) * 100.0));
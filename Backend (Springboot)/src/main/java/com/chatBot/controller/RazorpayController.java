@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chatBot.model.Order;
+import com.chatBot.model.PaymentStatus;
 import com.chatBot.service.OrderService;
 import com.chatBot.service.RazorpayService;
 import com.chatBot.service.WhatsAppService;
@@ -92,29 +93,25 @@ public class RazorpayController {
             // ✅ Extract Razorpay Payment ID
             String razorpayPaymentId = (String) entity.get("id");
 
-            // Fetch order details from DB using internal order ID
-            Order order = orderService.getOrderById(orderId);
-
-            // 🛠️ Fix: Prevent duplicate confirmations
-            if ("CONFIRMED".equalsIgnoreCase(order.getStatus()) &&
-                razorpayPaymentId.equalsIgnoreCase(order.getRazorpayPaymentId())) {
-                System.out.println("⚠️ Duplicate webhook ignored for Payment ID: " + razorpayPaymentId);
-                return ResponseEntity.ok(Map.of("message", "Duplicate webhook ignored"));
-            }
-
             // Handle payment success
             if ("paid".equalsIgnoreCase(paymentStatus) || "captured".equalsIgnoreCase(paymentStatus)) {
                 System.out.println(">>> Payment successful for order ID: " + orderId);
 
-                // Update order status to CONFIRMED in DB
-                order.setStatus("CONFIRMED");
-                order.setRazorpayPaymentId(razorpayPaymentId); // ✅ store payment ID
-                orderService.updateOrder(order);
+                // Mark the payment CONFIRMED and store the payment ID in one guarded UPDATE,
+                // so a status change made meanwhile by the kitchen is neither lost nor a conflict
+                Optional<Order> confirmed = orderService.recordPayment(orderId, PaymentStatus.CONFIRMED, razorpayPaymentId);
+
+                // 🛠️ Fix: Prevent duplicate confirmations
+                if (confirmed.isEmpty()) {
+                    System.out.println("⚠️ Duplicate webhook ignored for Payment ID: " + razorpayPaymentId);
+                    return ResponseEntity.ok(Map.of("message", "Duplicate webhook ignored"));
+                }
+                Order order = confirmed.get();
 
                 // Send WhatsApp confirmation message to the customer
                 String confirmationMsg = "✅ Payment received successfully!\n"
                         + "Payment ID: " + razorpayPaymentId + "\n"
-                        + "Payment Mode: " + order.getPaymentMode()
+                        + "Payment Mode: " + order.getPaymentMode().getLabel()
                         + "\nThank you *" + order.getCustomerName() + "😄* \n"
                         + "Your order (ID: " + orderId + ") has been confirmed.\n\n"
                         + "Your order will be ready soon! 🍽️";
@@ -129,10 +126,14 @@ public class RazorpayController {
             else if ("failed".equalsIgnoreCase(paymentStatus)) {
                 System.out.println(">>> Payment failed for order ID: " + orderId);
 
-                // Update order status to PAYMENT_FAILED in DB
-                order.setStatus("PAYMENT_FAILED");
-                order.setRazorpayPaymentId(razorpayPaymentId); // ✅ store failed payment ID as well
-                orderService.updateOrder(order);
+                // Update payment status to PAYMENT_FAILED, storing the failed payment ID as well;
+                // ignored once the order is paid (e.g. a retry through the same link went through)
+                Optional<Order> failed = orderService.recordPayment(orderId, PaymentStatus.PAYMENT_FAILED, razorpayPaymentId);
+                if (failed.isEmpty()) {
+                    System.out.println("⚠️ Failed-payment webhook ignored for order ID: " + orderId);
+                    return ResponseEntity.ok(Map.of("message", "Payment already recorded, webhook ignored"));
+                }
+                Order order = failed.get();
 
                 // Notify customer about failed payment and next steps
                 String failureMsg = "❌ Payment failed for your order (ID: " + orderId + ").\n"
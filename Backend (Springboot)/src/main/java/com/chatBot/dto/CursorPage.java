@@ -0,0 +1,23 @@
+package com.chatBot.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated listing ordered by (orderTime DESC, id DESC).
+ * Pass nextBeforeTime/nextBeforeId back as beforeTime/beforeId to get the next page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private boolean hasMore;
+    private LocalDateTime nextBeforeTime;
+    private Long nextBeforeId;
+}
@@ -0,0 +1,27 @@
+package com.chatBot.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Optional server-side filters for the paginated order listings.
+ * Every field is optional; null means "don't filter on it".
+ */
+@Data
+public class OrderFilter {
+
+    private String orderStatus;     // Pending, Accepted, Preparing, Completed, Delivered, Cancelled
+    private String paymentStatus;   // PENDING, CONFIRMED, PAYMENT_FAILED
+    private String paymentMode;     // Cash / UPI / Card
+    private String phone;
+    private Boolean active;         // true: only orders not yet delivered or cancelled
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;     // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;       // exclusive
+}
@@ -0,0 +1,12 @@
+package com.chatBot.dto;
+
+/**
+ * Flat read-model row for one order line, selected with a constructor expression so
+ * OrderDTOs can be assembled without touching the lazy OrderItem/MenuItem associations.
+ */
+public record OrderItemRow(Long orderId, Long id, String menuItemName, Double price, int quantity) {
+
+    public OrderItemDTO toDTO() {
+        return new OrderItemDTO(id, menuItemName, price, quantity);
+    }
+}
@@ -0,0 +1,14 @@
+package com.chatBot.dto;
+
+import lombok.Data;
+
+/**
+ * One entry of a bulk status update: move {@code orderId} to {@code status}
+ * (Accepted, Preparing, Completed, Delivered, Cancelled).
+ */
+@Data
+public class OrderStatusChange {
+
+    private Long orderId;
+    private String status;
+}
@@ -0,0 +1,8 @@
+package com.chatBot.dto;
+
+/**
+ * The restaurant open flag with the version of the row it was read from, so nodes can
+ * tell a newer status from an older one.
+ */
+public record RestaurantStatus(boolean open, Long version) {
+}
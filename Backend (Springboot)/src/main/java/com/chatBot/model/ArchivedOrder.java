@@ -0,0 +1,76 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Cold copy of a finished order, moved out of "orders" by OrderArchiveService.
+ * Same column names as Order (so OrderSpecifications apply to both); the lines live in
+ * order_item_archive. Rows are written once by the archival job and never updated.
+ */
+@Entity
+@Data
+@Table(name = "orders_archive", indexes = {
+		@Index(name = "idx_orders_archive_time_id", columnList = "order_time, id")
+})
+public class ArchivedOrder {
+
+	@Id
+	private Long id; // id from ORDER_SEQ, kept as-is
+
+	@Column(name = "customer_name", nullable = false)
+	private String customerName;
+
+	@Column(name = "user_phone", nullable = false)
+	private String userPhone;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status")
+	private PaymentStatus status;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "payment_mode")
+	private PaymentMode paymentMode;
+
+	@Column(name = "total_price")
+	private Double totalPrice;
+
+	@Column(name = "order_time")
+	private LocalDateTime orderTime;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "order_status")
+	private OrderStatus orderStatus;
+
+	@Column(name = "razorpay_payment_id")
+	private String razorpayPaymentId;
+
+	@Column(name = "archived_at")
+	private LocalDateTime archivedAt;
+
+	/**
+	 * Read-only view as an Order, so listings and DTO conversion treat hot and archived
+	 * rows alike. The result is detached and has no orderItems; never save it.
+	 */
+	public Order toOrder() {
+		Order order = new Order();
+		order.setId(id);
+		order.setCustomerName(customerName);
+		order.setUserPhone(userPhone);
+		order.setStatus(status);
+		order.setPaymentMode(paymentMode);
+		order.setTotalPrice(totalPrice);
+		order.setOrderTime(orderTime);
+		order.setOrderStatus(orderStatus);
+		order.setRazorpayPaymentId(razorpayPaymentId);
+		return order;
+	}
+}
@@ -0,0 +1,38 @@
+package com.chatBot.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Cold copy of an OrderItem belonging to an ArchivedOrder. Plain id columns instead of
+ * associations: archived lines are only ever read as flat rows.
+ */
+@Entity
+@Data
+@Table(name = "order_item_archive", indexes = {
+		@Index(name = "idx_order_item_archive_order", columnList = "order_id")
+})
+public class ArchivedOrderItem {
+
+	@Id
+	private Long id;
+
+	@Column(name = "order_id", nullable = false)
+	private Long orderId;
+
+	@Column(name = "menu_item_id")
+	private Long menuItemId; // menu item may since have been deleted
+
+	@Column(name = "quantity", nullable = false)
+	private int quantity;
+
+	@Column(name = "item_name")
+	private String itemName;
+
+	@Column(name = "unit_price")
+	private Double unitPrice;
+}
@@ -0,0 +1,55 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * HyperLogLog sketch (CustomerSketch.toBytes()) of the customers who placed an order in
+ * an hour/day bucket, not counting cancelled orders or failed payments, over hot and
+ * archived orders. Maintained by OrderRollupService alongside the other rollups; merged
+ * per range for the distinct customer count.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "customer_rollup",
+		uniqueConstraints = @UniqueConstraint(name = "uq_customer_rollup", columnNames = { "grain", "bucket_start" }),
+		indexes = @Index(name = "idx_customer_rollup_bucket", columnList = "bucket_start, grain"))
+public class CustomerRollup {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_rollup_seq")
+	@SequenceGenerator(name = "customer_rollup_seq", sequenceName = "CUSTOMER_ROLLUP_SEQ", allocationSize = 50)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "grain", nullable = false)
+	private RollupGrain grain;
+
+	@Column(name = "bucket_start", nullable = false)
+	private LocalDateTime bucketStart;
+
+	@Lob
+	@Column(name = "customer_sketch", nullable = false)
+	private byte[] customerSketch;
+
+	public CustomerRollup(RollupGrain grain, LocalDateTime bucketStart, byte[] customerSketch) {
+		this.grain = grain;
+		this.bucketStart = bucketStart;
+		this.customerSketch = customerSketch;
+	}
+}
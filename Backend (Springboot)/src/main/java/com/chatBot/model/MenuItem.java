@@ -1,5 +1,11 @@
 package com.chatBot.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.chatBot.config.HibernateCacheConfig;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 
 import jakarta.persistence.Entity;
@@ -18,6 +24,8 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "menu_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.MENU_ITEMS_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,7 +33,7 @@ public class MenuItem {
 	
 	@Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_seq")
-    @SequenceGenerator(name = "menu_seq", sequenceName = "menu_seq", allocationSize = 1)	
+    @SequenceGenerator(name = "menu_seq", sequenceName = "menu_seq", allocationSize = 50) // pooled, see db/oracle/01-pooled-menu-sequence.sql	
 	private Long id;
 	
 	@Column(nullable = false)
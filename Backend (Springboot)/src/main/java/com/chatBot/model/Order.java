@@ -8,17 +8,27 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Entity
 @Data
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+		@Index(name = "idx_orders_time_id", columnList = "order_time, id"), // keyset pagination (newest first)
+		@Index(name = "idx_orders_phone_time", columnList = "user_phone, order_time"), // customer's latest order
+		@Index(name = "idx_orders_order_status_time", columnList = "order_status, order_time"),
+		@Index(name = "idx_orders_status_time", columnList = "status, order_time")
+		// see db/oracle/04-order-status-enums.sql
+})
 public class Order {
 	
 //	@Id
@@ -26,7 +36,7 @@ public class Order {
 	
 	 @Id
 	 @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
-	 @SequenceGenerator(name = "order_seq", sequenceName = "ORDER_SEQ", allocationSize = 1)
+	 @SequenceGenerator(name = "order_seq", sequenceName = "ORDER_SEQ", allocationSize = 50) // pooled, see db/oracle/02-pooled-order-sequences.sql
 	private Long id;
 	
 	@Column(name = "customer_name", nullable = false)
@@ -35,11 +45,13 @@ public class Order {
 	@Column(name = "user_phone", nullable = false)
 	private String userPhone;
 	
+	@Enumerated(EnumType.STRING)
 	@Column(name = "status") //Payment status
-	private String status="PENDING"; //PENDING, CONFIRMED, PAYMENT_FAILED
+	private PaymentStatus status = PaymentStatus.PENDING;
 	
+	@Enumerated(EnumType.STRING)
 	@Column(name = "payment_mode")
-	private String paymentMode;
+	private PaymentMode paymentMode;
 	
 	 @Column(name = "total_price")
 	private Double totalPrice;
@@ -47,12 +59,19 @@ public class Order {
 	@Column(name = "order_time")
 	private LocalDateTime orderTime;
 	
+	@Enumerated(EnumType.STRING)
 	@Column(name = "order_status")
-	private String orderStatus = "Pending"; //ACCEPTED.PENDING, COMPLETED, CANCELLED, PREPARING, DELIVERED
+	private OrderStatus orderStatus = OrderStatus.PENDING;
 
 	@Column(name = "razorpay_payment_id")
 	private String razorpayPaymentId;
 
+	// Optimistic lock: a stale save (e.g. webhook vs. dashboard click) fails instead of
+	// overwriting the other write. See db/oracle/05-order-version.sql
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	
 	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
 	@JsonManagedReference
@@ -0,0 +1,32 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row (id 1) OrderArchiveService keeps its cluster-wide state in:
+ *  - horizon: no archived order was placed after it (null = archive is empty),
+ *  - the row lock every archival batch takes, so runs on several nodes never move the
+ *    same orders.
+ * See db/oracle/07-order-archive.sql
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_archive_state")
+public class OrderArchiveState {
+
+	@Id
+	private Long id;
+
+	@Column(name = "horizon")
+	private LocalDateTime horizon;
+}
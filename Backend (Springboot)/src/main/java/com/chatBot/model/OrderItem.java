@@ -24,7 +24,7 @@ public class OrderItem {
 	
 	@Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
-    @SequenceGenerator(name = "order_item_seq", sequenceName = "ORDER_ITEM_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "ORDER_ITEM_SEQ", allocationSize = 50) // pooled, see db/oracle/02-pooled-order-sequences.sql
    	private Long id;
 	
 	@ManyToOne(fetch = FetchType.LAZY)
@@ -39,4 +39,12 @@ public class OrderItem {
 	@Column(name = "quantity", nullable = false)
 	private int quantity;
 
+	// Snapshot of the menu item at order time, so later menu edits don't rewrite order history
+	// and order reads don't need to join menu_items (backfilled by db/oracle/03-order-item-snapshot.sql)
+	@Column(name = "item_name", updatable = false)
+	private String itemName;
+
+	@Column(name = "unit_price", updatable = false)
+	private Double unitPrice;
+
 }
@@ -0,0 +1,72 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units sold per hour/day bucket, item name (order-line snapshot) and the order's
+ * (payment mode, payment status, order status). Maintained by OrderRollupService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "order_item_rollup",
+		uniqueConstraints = @UniqueConstraint(name = "uq_order_item_rollup",
+				columnNames = { "grain", "bucket_start", "item_name", "payment_mode", "payment_status", "order_status" }),
+		indexes = @Index(name = "idx_order_item_rollup_bucket", columnList = "bucket_start, grain"))
+public class OrderItemRollup {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_rollup_seq")
+	@SequenceGenerator(name = "order_item_rollup_seq", sequenceName = "ORDER_ITEM_ROLLUP_SEQ", allocationSize = 50)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "grain", nullable = false)
+	private RollupGrain grain;
+
+	@Column(name = "bucket_start", nullable = false)
+	private LocalDateTime bucketStart;
+
+	@Column(name = "item_name", nullable = false)
+	private String itemName;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "payment_mode")
+	private PaymentMode paymentMode;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "payment_status")
+	private PaymentStatus paymentStatus;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "order_status")
+	private OrderStatus orderStatus;
+
+	@Column(name = "quantity", nullable = false)
+	private long quantity;
+
+	public OrderItemRollup(RollupGrain grain, LocalDateTime bucketStart, String itemName, PaymentMode paymentMode,
+			PaymentStatus paymentStatus, OrderStatus orderStatus, long quantity) {
+		this.grain = grain;
+		this.bucketStart = bucketStart;
+		this.itemName = itemName;
+		this.paymentMode = paymentMode;
+		this.paymentStatus = paymentStatus;
+		this.orderStatus = orderStatus;
+		this.quantity = quantity;
+	}
+}
@@ -0,0 +1,73 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order count and revenue per hour/day bucket and (payment mode, payment status, order
+ * status), over hot and archived orders. Maintained by OrderRollupService; the analytics
+ * endpoints read these instead of the orders tables.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "order_rollup",
+		uniqueConstraints = @UniqueConstraint(name = "uq_order_rollup",
+				columnNames = { "grain", "bucket_start", "payment_mode", "payment_status", "order_status" }),
+		indexes = @Index(name = "idx_order_rollup_bucket", columnList = "bucket_start, grain"))
+public class OrderRollup {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_rollup_seq")
+	@SequenceGenerator(name = "order_rollup_seq", sequenceName = "ORDER_ROLLUP_SEQ", allocationSize = 50)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "grain", nullable = false)
+	private RollupGrain grain;
+
+	@Column(name = "bucket_start", nullable = false)
+	private LocalDateTime bucketStart;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "payment_mode")
+	private PaymentMode paymentMode;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "payment_status")
+	private PaymentStatus paymentStatus;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "order_status")
+	private OrderStatus orderStatus;
+
+	@Column(name = "order_count", nullable = false)
+	private long orderCount;
+
+	@Column(name = "revenue", nullable = false)
+	private double revenue;
+
+	public OrderRollup(RollupGrain grain, LocalDateTime bucketStart, PaymentMode paymentMode,
+			PaymentStatus paymentStatus, OrderStatus orderStatus, long orderCount, double revenue) {
+		this.grain = grain;
+		this.bucketStart = bucketStart;
+		this.paymentMode = paymentMode;
+		this.paymentStatus = paymentStatus;
+		this.orderStatus = orderStatus;
+		this.orderCount = orderCount;
+		this.revenue = revenue;
+	}
+}
@@ -0,0 +1,67 @@
+package com.chatBot.model;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Restaurant-side order status. Stored as the constant name (orders.order_status);
+ * the label is what the dashboard and WhatsApp messages show.
+ *
+ * Orders only move forward (Pending -> Accepted -> Preparing -> Completed -> Delivered,
+ * steps may be skipped) or get cancelled before delivery. Delivered and Cancelled are final.
+ */
+public enum OrderStatus {
+
+	PENDING("Pending"),
+	ACCEPTED("Accepted"),
+	PREPARING("Preparing"),
+	COMPLETED("Completed"),
+	DELIVERED("Delivered"),
+	CANCELLED("Cancelled");
+
+	private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED_FROM = new EnumMap<>(OrderStatus.class);
+
+	static {
+		ALLOWED_FROM.put(PENDING, EnumSet.noneOf(OrderStatus.class));
+		ALLOWED_FROM.put(ACCEPTED, EnumSet.of(PENDING));
+		ALLOWED_FROM.put(PREPARING, EnumSet.of(PENDING, ACCEPTED));
+		ALLOWED_FROM.put(COMPLETED, EnumSet.of(PENDING, ACCEPTED, PREPARING));
+		ALLOWED_FROM.put(DELIVERED, EnumSet.of(PENDING, ACCEPTED, PREPARING, COMPLETED));
+		ALLOWED_FROM.put(CANCELLED, EnumSet.of(PENDING, ACCEPTED, PREPARING, COMPLETED));
+	}
+
+	private final String label;
+
+	OrderStatus(String label) {
+		this.label = label;
+	}
+
+	@JsonValue
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Case-insensitive lookup by name/label ("delivered", "Delivered", "DELIVERED").
+	 */
+	public static OrderStatus from(String value) {
+		for (OrderStatus status : values()) {
+			if (status.name().equalsIgnoreCase(value.trim())) {
+				return status;
+			}
+		}
+		throw new IllegalArgumentException("Invalid order status: " + value);
+	}
+
+	/**
+	 * The states an order may be in to move to this one; used as the
+	 * {@code order_status IN (...)} guard of the transition UPDATE.
+	 */
+	public Set<OrderStatus> allowedFrom() {
+		return ALLOWED_FROM.get(this);
+	}
+}
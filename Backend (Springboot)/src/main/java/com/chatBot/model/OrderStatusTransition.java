@@ -0,0 +1,58 @@
+package com.chatBot.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only history of an order's restaurant-side status: one row when it is placed
+ * (no from status, to Pending) and one per status change. Written by OrderService in
+ * the transaction that makes the change; never updated. No foreign key, so the history
+ * outlives the move of the order to the archive.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "order_status_transition",
+		indexes = {
+				@Index(name = "idx_order_status_transition_order", columnList = "order_id"),
+				@Index(name = "idx_order_status_transition_time", columnList = "changed_at") })
+public class OrderStatusTransition {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_transition_seq")
+	@SequenceGenerator(name = "order_status_transition_seq", sequenceName = "ORDER_STATUS_TRANSITION_SEQ", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "order_id", nullable = false)
+	private Long orderId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "from_status")
+	private OrderStatus fromStatus;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "to_status", nullable = false)
+	private OrderStatus toStatus;
+
+	@Column(name = "changed_at", nullable = false)
+	private LocalDateTime changedAt;
+
+	public OrderStatusTransition(Long orderId, OrderStatus fromStatus, OrderStatus toStatus, LocalDateTime changedAt) {
+		this.orderId = orderId;
+		this.fromStatus = fromStatus;
+		this.toStatus = toStatus;
+		this.changedAt = changedAt;
+	}
+}
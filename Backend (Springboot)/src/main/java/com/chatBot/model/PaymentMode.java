@@ -0,0 +1,42 @@
+package com.chatBot.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How the customer pays (orders.payment_mode). Stored as the constant name;
+ * the label is what the dashboard and WhatsApp messages show.
+ */
+public enum PaymentMode {
+
+	CASH("Cash"),
+	UPI("UPI"),
+	CARD("Card");
+
+	private final String label;
+
+	PaymentMode(String label) {
+		this.label = label;
+	}
+
+	@JsonValue
+	public String getLabel() {
+		return label;
+	}
+
+	// Paid through a Razorpay payment link
+	public boolean isOnline() {
+		return this != CASH;
+	}
+
+	/**
+	 * Case-insensitive lookup by name/label ("upi", "Upi", "UPI").
+	 */
+	public static PaymentMode from(String value) {
+		for (PaymentMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(value.trim())) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("Invalid payment mode: " + value);
+	}
+}
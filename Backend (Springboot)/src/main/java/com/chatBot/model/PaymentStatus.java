@@ -0,0 +1,26 @@
+package com.chatBot.model;
+
+/**
+ * Payment status of an order (orders.status). Stored and shown as the constant name.
+ */
+public enum PaymentStatus {
+
+	PENDING,
+	CONFIRMED,
+	PAYMENT_FAILED;
+
+	/**
+	 * Case-insensitive lookup; the legacy value "FAILED" maps to PAYMENT_FAILED.
+	 */
+	public static PaymentStatus from(String value) {
+		String normalized = value.trim().toUpperCase();
+		if ("FAILED".equals(normalized)) {
+			return PAYMENT_FAILED;
+		}
+		try {
+			return valueOf(normalized);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid payment status: " + value);
+		}
+	}
+}
@@ -1,9 +1,17 @@
 package com.chatBot.model;
 
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.chatBot.config.HibernateCacheConfig;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 /*
@@ -13,6 +21,8 @@ import lombok.Data;
 @Table
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.RESTAURANT_INFO_REGION)
 public class RestaurantInfo {
 
     @Id
@@ -20,5 +30,11 @@ public class RestaurantInfo {
 
     private boolean isOpen = true;
 
+    // Bumped by every toggle; a node only takes a status newer than the one it holds.
+    // See db/oracle/06-restaurant-info-version.sql
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // getters and setters
 }
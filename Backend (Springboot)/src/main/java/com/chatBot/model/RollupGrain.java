@@ -0,0 +1,10 @@
+package com.chatBot.model;
+
+/**
+ * Bucket size of an analytics rollup row: one hour or one calendar day (server time).
+ */
+public enum RollupGrain {
+
+	HOUR,
+	DAY
+}
@@ -0,0 +1,48 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.dto.OrderItemRow;
+import com.chatBot.model.ArchivedOrderItem;
+
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+	/**
+	 * Copies the lines of the given orders into the archive in one INSERT ... SELECT.
+	 */
+	@Modifying
+	@Query("""
+	    INSERT INTO ArchivedOrderItem (id, orderId, menuItemId, quantity, itemName, unitPrice)
+	    SELECT oi.id, oi.order.id, oi.menuItem.id, oi.quantity, oi.itemName, oi.unitPrice
+	    FROM OrderItem oi
+	    WHERE oi.order.id IN :orderIds
+	""")
+	int copyFromOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+	// Same shape as OrderItemRepository.findRowsByOrderIds
+	@Query("""
+	    SELECT new com.chatBot.dto.OrderItemRow(oi.orderId, oi.id, oi.itemName, oi.unitPrice, oi.quantity)
+	    FROM ArchivedOrderItem oi
+	    WHERE oi.orderId IN :orderIds
+	    ORDER BY oi.id
+	""")
+	List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+	// Same shape as OrderItemRepository.sumQuantitiesByHourBetween
+	@Query("""
+	    SELECT HOUR(o.orderTime), oi.itemName, o.paymentMode, o.status, o.orderStatus, SUM(oi.quantity)
+	    FROM ArchivedOrderItem oi
+	    JOIN ArchivedOrder o ON o.id = oi.orderId
+	    WHERE o.orderTime >= :from AND o.orderTime < :to
+	      AND oi.itemName IS NOT NULL
+	    GROUP BY HOUR(o.orderTime), oi.itemName, o.paymentMode, o.status, o.orderStatus
+	""")
+	List<Object[]> sumQuantitiesByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,91 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.ArchivedOrder;
+import com.chatBot.model.PaymentMode;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Cold orders. The aggregate queries mirror the ones in OrderRepository with the same
+ * filters, so callers can add the two results up.
+ */
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, JpaSpecificationExecutor<ArchivedOrder> {
+
+	/**
+	 * Copies the given orders into the archive in one INSERT ... SELECT.
+	 */
+	@Modifying
+	@Query("""
+	    INSERT INTO ArchivedOrder (id, customerName, userPhone, status, paymentMode, totalPrice,
+	                               orderTime, orderStatus, razorpayPaymentId, archivedAt)
+	    SELECT o.id, o.customerName, o.userPhone, o.status, o.paymentMode, o.totalPrice,
+	           o.orderTime, o.orderStatus, o.razorpayPaymentId, LOCAL DATETIME
+	    FROM Order o
+	    WHERE o.id IN :ids
+	""")
+	int copyFromOrders(@Param("ids") Collection<Long> ids);
+
+	// Newest archived order time; nothing later than this is in the archive
+	@Query("SELECT MAX(o.orderTime) FROM ArchivedOrder o")
+	LocalDateTime findMaxOrderTime();
+
+	// Same shape as OrderRepository.sumByHourBetween
+	@Query("""
+	    SELECT HOUR(o.orderTime), o.paymentMode, o.status, o.orderStatus, COUNT(o), COALESCE(SUM(o.totalPrice), 0)
+	    FROM ArchivedOrder o
+	    WHERE o.orderTime >= :from AND o.orderTime < :to
+	    GROUP BY HOUR(o.orderTime), o.paymentMode, o.status, o.orderStatus
+	""")
+	List<Object[]> sumByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// Same shape as OrderRepository.findCustomersByHourBetween
+	@Query("""
+	    SELECT DISTINCT HOUR(o.orderTime), o.userPhone
+	    FROM ArchivedOrder o
+	    WHERE o.orderTime >= :from AND o.orderTime < :to
+	      AND o.status <> PAYMENT_FAILED
+	      AND o.orderStatus <> CANCELLED
+	      AND o.userPhone IS NOT NULL
+	""")
+	List<Object[]> findCustomersByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("SELECT MIN(o.orderTime) FROM ArchivedOrder o")
+	LocalDateTime findMinOrderTime();
+
+	// Same shape as OrderRepository.findColumnsAfter; archived rows never change, version 0
+	@Query("""
+	    SELECT o.id, o.orderTime, o.totalPrice, o.paymentMode, o.status, o.orderStatus, 0
+	    FROM ArchivedOrder o WHERE o.id > :afterId ORDER BY o.id
+	""")
+	List<Object[]> findColumnsAfter(@Param("afterId") long afterId, Limit limit);
+
+	// Same rows and order as OrderRepository.streamTransactions
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+	    SELECT o.id, o.customerName, o.userPhone, o.paymentMode, o.status, o.totalPrice,
+	           o.razorpayPaymentId, o.orderTime, o.orderStatus
+	    FROM ArchivedOrder o
+	    WHERE o.orderStatus <> CANCELLED AND o.status <> PAYMENT_FAILED AND o.paymentMode IS NOT NULL
+	      AND o.orderTime IS NOT NULL
+	      AND (:from IS NULL OR o.orderTime >= :from)
+	      AND (:to IS NULL OR o.orderTime < :to)
+	      AND (:mode IS NULL OR o.paymentMode = :mode)
+	    ORDER BY o.orderTime, o.id
+	""")
+	Stream<Object[]> streamTransactions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+	        @Param("mode") PaymentMode mode);
+}
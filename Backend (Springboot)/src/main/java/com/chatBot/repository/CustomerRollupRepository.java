@@ -0,0 +1,28 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.CustomerRollup;
+
+// Same range convention as OrderRollupRepository
+public interface CustomerRollupRepository extends JpaRepository<CustomerRollup, Long> {
+
+	// Serialized CustomerSketch of every bucket in the range: one per whole day, one per hour of the first
+	@Query("""
+	    SELECT r.customerSketch
+	    FROM CustomerRollup r
+	    WHERE (r.grain = com.chatBot.model.RollupGrain.DAY AND (:dayFrom IS NULL OR r.bucketStart >= :dayFrom))
+	       OR (r.grain = com.chatBot.model.RollupGrain.HOUR AND r.bucketStart >= :hourFrom AND r.bucketStart < :dayFrom)
+	""")
+	List<byte[]> findSketchesSince(@Param("dayFrom") LocalDateTime dayFrom, @Param("hourFrom") LocalDateTime hourFrom);
+
+	@Modifying
+	@Query("DELETE FROM CustomerRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+	int deleteBucketsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
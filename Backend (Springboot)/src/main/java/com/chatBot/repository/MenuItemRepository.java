@@ -1,15 +1,43 @@
 package com.chatBot.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.chatBot.model.MenuItem;
 
+import jakarta.persistence.QueryHint;
+
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
 
+	 // Query results are kept in the Hibernate query cache; any write to menu_items invalidates them
+	 @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	 List<MenuItem> findByAvailableTrue();
+
+	 @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	 Optional<MenuItem> findByNameIgnoreCase(String name);
+
+	 /**
+	  * Bulk lookup used by the menu import to decide insert vs update for a whole chunk
+	  * in one query. Names must already be lower-cased by the caller.
+	  */
+	 @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	 @Query("SELECT m FROM MenuItem m WHERE LOWER(m.name) IN :names")
+	 List<MenuItem> findByLowerCaseNameIn(@Param("names") Collection<String> names);
+
+	 /**
+	  * Forward-only cursor over the whole menu for the streaming export.
+	  * Must be consumed inside a transaction and closed by the caller.
+	  */
+	 @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	 @Query("SELECT m FROM MenuItem m ORDER BY m.id")
+	 Stream<MenuItem> streamAllOrderById();
 }
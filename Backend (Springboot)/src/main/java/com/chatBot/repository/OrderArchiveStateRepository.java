@@ -0,0 +1,33 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.OrderArchiveState;
+
+import jakarta.persistence.LockModeType;
+
+public interface OrderArchiveStateRepository extends JpaRepository<OrderArchiveState, Long> {
+
+	@Query("SELECT s.horizon FROM OrderArchiveState s WHERE s.id = :id")
+	LocalDateTime findHorizon(@Param("id") Long id);
+
+	// SELECT ... FOR UPDATE, held until the calling transaction ends
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT s FROM OrderArchiveState s WHERE s.id = :id")
+	Optional<OrderArchiveState> lockById(@Param("id") Long id);
+
+	// Never lowers it
+	@Modifying
+	@Query("""
+	    UPDATE OrderArchiveState s SET s.horizon = :horizon
+	    WHERE s.id = :id AND (s.horizon IS NULL OR s.horizon < :horizon)
+	""")
+	int raiseHorizon(@Param("id") Long id, @Param("horizon") LocalDateTime horizon);
+}
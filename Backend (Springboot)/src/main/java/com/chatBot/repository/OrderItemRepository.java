@@ -1,9 +1,46 @@
 package com.chatBot.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.chatBot.dto.OrderItemRow;
 import com.chatBot.model.OrderItem;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
+	/**
+	 * All lines of the given orders as flat rows, in one query.
+	 * Callers keep orderIds under Oracle's 1000-element IN-list limit.
+	 */
+	@Query("""
+	    SELECT new com.chatBot.dto.OrderItemRow(oi.order.id, oi.id, oi.itemName, oi.unitPrice, oi.quantity)
+	    FROM OrderItem oi
+	    WHERE oi.order.id IN :orderIds
+	    ORDER BY oi.id
+	""")
+	List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+	/**
+	 * Per-hour (hour of day, item name, payment mode, payment status, order status, units)
+	 * for the orders placed in [:from, :to), for OrderRollupService.
+	 */
+	@Query("""
+	    SELECT HOUR(o.orderTime), oi.itemName, o.paymentMode, o.status, o.orderStatus, SUM(oi.quantity)
+	    FROM OrderItem oi
+	    JOIN oi.order o
+	    WHERE o.orderTime >= :from AND o.orderTime < :to
+	      AND oi.itemName IS NOT NULL
+	    GROUP BY HOUR(o.orderTime), oi.itemName, o.paymentMode, o.status, o.orderStatus
+	""")
+	List<Object[]> sumQuantitiesByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Modifying
+	@Query("DELETE FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+	int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,37 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.OrderItemRollup;
+
+// Same range convention as OrderRollupRepository
+public interface OrderItemRollupRepository extends JpaRepository<OrderItemRollup, Long> {
+
+	/**
+	 * (hour, item name, order status, units) from the HOUR rows in [from, to), excluding
+	 * failed payments, oldest first.
+	 */
+	@Query("""
+	    SELECT r.bucketStart, r.itemName, r.orderStatus, SUM(r.quantity)
+	    FROM OrderItemRollup r
+	    WHERE r.grain = com.chatBot.model.RollupGrain.HOUR
+	      AND r.paymentStatus <> PAYMENT_FAILED
+	      AND r.bucketStart >= :from AND r.bucketStart < :to
+	    GROUP BY r.bucketStart, r.itemName, r.orderStatus
+	    ORDER BY r.bucketStart
+	""")
+	List<Object[]> sumHourlyQuantitiesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("SELECT MIN(r.bucketStart) FROM OrderItemRollup r")
+	LocalDateTime findMinBucketStart();
+
+	@Modifying
+	@Query("DELETE FROM OrderItemRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+	int deleteBucketsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,108 +1,186 @@
 package com.chatBot.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
 	Optional<Order> findTopByUserPhoneOrderByOrderTimeDesc(String userPhone);
 
 	
 	
     // ✅ Fetch all orders to display in dashboard: Cash OR confirmed online payments
-    @Query("SELECT o FROM Order o WHERE o.paymentMode = 'Cash' OR (o.paymentMode <> 'Cash' AND o.status = 'CONFIRMED')")
+    @Query("SELECT o FROM Order o WHERE o.paymentMode = CASH OR (o.paymentMode <> CASH AND o.status = CONFIRMED)")
     List<Order> findAllDisplayOrders();
 
     // ✅ Fetch orders with items
     @Query("SELECT DISTINCT o FROM Order o " +
            "LEFT JOIN FETCH o.orderItems oi " +
            "LEFT JOIN FETCH oi.menuItem mi " +
-           "WHERE o.paymentMode = 'Cash' " +
-           "   OR (o.paymentMode <> 'Cash' AND o.status = 'CONFIRMED')")
+           "WHERE o.paymentMode = CASH " +
+           "   OR (o.paymentMode <> CASH AND o.status = CONFIRMED)")
     List<Order> findFilteredOrdersWithItems();
 
-    // ✅ Count Cash orders (excluding cancelled)
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.paymentMode = 'Cash' AND o.orderStatus <> 'Cancelled'")
-    long countCashOrders();
-
-    // ✅ Count confirmed online orders (excluding cancelled)
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.paymentMode <> 'Cash' AND o.status = 'CONFIRMED' AND o.orderStatus <> 'Cancelled'")
-    long countConfirmedOnlineOrders();
-
-    // ✅ Sum totalPrice of Cash orders excluding cancelled
-    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.paymentMode = 'Cash' AND o.orderStatus <> 'Cancelled'")
-    Double sumCashOrders();
-
-    // ✅ Sum totalPrice of confirmed online payments excluding cancelled
-    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.paymentMode <> 'Cash' AND o.status = 'CONFIRMED' AND o.orderStatus <> 'Cancelled'")
-    Double sumConfirmedOnlineOrders();
-
-    // ✅ Monthly summary (already excludes cancelled)
-    @Query("""
-    	    SELECT 
-    	        TO_CHAR(o.orderTime, 'Mon YYYY') AS month,
-    	        COUNT(o.id) AS totalOrders,
-    	        SUM(o.totalPrice) AS totalRevenue,
-    	        ROUND(AVG(o.totalPrice), 2) AS avgOrderValue,
-    	        ROUND(100.0 * SUM(CASE WHEN UPPER(o.paymentMode) = 'CASH' THEN 1 ELSE 0 END) / COUNT(o.id), 1) AS cashPercent,
-    	        ROUND(100.0 * SUM(CASE WHEN UPPER(o.paymentMode) = 'CARD' THEN 1 ELSE 0 END) / COUNT(o.id), 1) AS cardPercent,
-    	        ROUND(100.0 * SUM(CASE WHEN UPPER(o.paymentMode) = 'UPI'  THEN 1 ELSE 0 END) / COUNT(o.id), 1) AS upiPercent
-    	        
+    	/**
+    	 * Per-hour (hour of day, payment mode, payment status, order status, orders, revenue)
+    	 * of the orders placed in [:from, :to), for OrderRollupService. Callers pass one day.
+    	 */
+    	@Query("""
+    	    SELECT HOUR(o.orderTime), o.paymentMode, o.status, o.orderStatus, COUNT(o), COALESCE(SUM(o.totalPrice), 0)
     	    FROM Order o
-    	    WHERE UPPER(o.orderStatus) IN ('DELIVERED', 'PENDING', 'PREPARING', 'ACCEPTED', 'COMPLETED')
-    	      AND UPPER(o.status) <> 'PAYMENT_FAILED'
-    	      AND UPPER(o.orderStatus) <> 'CANCELLED'
-    	    GROUP BY TO_CHAR(o.orderTime, 'Mon YYYY')
-    	    ORDER BY MIN(o.orderTime)
+    	    WHERE o.orderTime >= :from AND o.orderTime < :to
+    	    GROUP BY HOUR(o.orderTime), o.paymentMode, o.status, o.orderStatus
     	""")
-    	List<Object[]> getMonthlySummary();
-    	
-    	
+    	List<Object[]> sumByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     	/**
-    	 * Fetch valid orders for analytics (Revenue, Payment Split, Summary)
-    	 * Excludes PAYMENT_FAILED always.
-    	 * If :start is NULL → returns ALL valid orders.
+    	 * Distinct (hour of day, phone) of the orders placed in [:from, :to) that were not
+    	 * cancelled and whose payment did not fail, for the customer rollups.
     	 */
     	@Query("""
-    	    SELECT o FROM Order o
-    	    WHERE UPPER(o.status) <> 'PAYMENT_FAILED'
-    	      AND (:start IS NULL OR o.orderTime >= :start)
+    	    SELECT DISTINCT HOUR(o.orderTime), o.userPhone
+    	    FROM Order o
+    	    WHERE o.orderTime >= :from AND o.orderTime < :to
+    	      AND o.status <> PAYMENT_FAILED
+    	      AND o.orderStatus <> CANCELLED
+    	      AND o.userPhone IS NOT NULL
     	""")
-    	List<Order> findValidOrdersAfter(@Param("start") LocalDateTime start);
-
+    	List<Object[]> findCustomersByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     	/**
-    	 * Fetch valid orders + ORDER ITEMS + MENU ITEMS for Popular Items chart.
-    	 * Uses JOIN FETCH to prevent N+1 queries.
+    	 * (order status, orders) of the hot orders whose payment did not fail, for the
+    	 * dashboard's status cards.
     	 */
     	@Query("""
-    	    SELECT DISTINCT o FROM Order o
-    	    LEFT JOIN FETCH o.orderItems oi
-    	    LEFT JOIN FETCH oi.menuItem mi
-    	    WHERE UPPER(o.status) <> 'PAYMENT_FAILED'
-    	      AND (:start IS NULL OR o.orderTime >= :start)
+    	    SELECT o.orderStatus, COUNT(o)
+    	    FROM Order o
+    	    WHERE o.status <> PAYMENT_FAILED
+    	    GROUP BY o.orderStatus
     	""")
-    	List<Order> findValidOrdersWithItemsAfter(@Param("start") LocalDateTime start);
+    	List<Object[]> countPerOrderStatus();
 
+    	@Query("SELECT MIN(o.orderTime) FROM Order o")
+    	LocalDateTime findMinOrderTime();
 
     	/**
-    	 * Orders for status distribution (Delivered / Pending / Cancelled)
-    	 * Includes CANCELLED orders, excludes PAYMENT_FAILED.
+    	 * (id, order time, total price, payment mode, payment status, order status, version)
+    	 * for OrderColumnStore: the page of orders after :afterId, or the given ids.
     	 */
     	@Query("""
-    	    SELECT o FROM Order o
-    	    WHERE UPPER(o.status) <> 'PAYMENT_FAILED'
-    	      AND (:start IS NULL OR o.orderTime >= :start)
+    	    SELECT o.id, o.orderTime, o.totalPrice, o.paymentMode, o.status, o.orderStatus, o.version
+    	    FROM Order o WHERE o.id > :afterId ORDER BY o.id
     	""")
-    	List<Order> findOrdersForStatusAfter(@Param("start") LocalDateTime start);
+    	List<Object[]> findColumnsAfter(@Param("afterId") long afterId, Limit limit);
 
+    	@Query("""
+    	    SELECT o.id, o.orderTime, o.totalPrice, o.paymentMode, o.status, o.orderStatus, o.version
+    	    FROM Order o WHERE o.id IN :ids
+    	""")
+    	List<Object[]> findColumnsByIdIn(@Param("ids") Collection<Long> ids);
 
+    	/**
+    	 * Oldest finished orders placed before :cutoff, as (id, orderTime) rows, for the
+    	 * archival job. Finished = delivered, completed, cancelled or payment failed.
+    	 */
+    	@Query("""
+    	    SELECT o.id, o.orderTime FROM Order o
+    	    WHERE o.orderTime < :cutoff
+    	      AND (o.orderStatus IN (DELIVERED, COMPLETED, CANCELLED)
+    	           OR o.status = PAYMENT_FAILED)
+    	    ORDER BY o.orderTime, o.id
+    	""")
+    	List<Object[]> findArchivable(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    	@Modifying
+    	@Query("DELETE FROM Order o WHERE o.id IN :ids")
+    	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    	// SELECT ... FOR UPDATE in id order (so two bulk updates can't deadlock), held until
+    	// the calling transaction ends
+    	@Lock(LockModeType.PESSIMISTIC_WRITE)
+    	@Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    	List<Order> lockAllById(@Param("ids") Collection<Long> ids);
+
+    	// Status transitions: one guarded UPDATE per target status, rows not (or no longer)
+    	// in one of the :from states are left alone (see OrderStatus.allowedFrom). Clears the
+    	// persistence context so orders read afterwards show the new state.
+    	@Modifying(clearAutomatically = true)
+    	@Query("""
+    		UPDATE Order o SET o.orderStatus = :target, o.version = o.version + 1
+    		WHERE o.id IN :ids AND o.orderStatus IN :from
+    		""")
+    	int transitionStatus(@Param("ids") Collection<Long> ids, @Param("target") OrderStatus target,
+    			@Param("from") Collection<OrderStatus> from);
+
+    	// Delivery also confirms a payment that is still pending (cash collected at the door)
+    	@Modifying(clearAutomatically = true)
+    	@Query("""
+    		UPDATE Order o SET o.orderStatus = DELIVERED, o.version = o.version + 1,
+    			o.status = CASE WHEN o.status = PENDING THEN com.chatBot.model.PaymentStatus.CONFIRMED ELSE o.status END
+    		WHERE o.id IN :ids AND o.orderStatus IN :from
+    		""")
+    	int markDelivered(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from);
+
+    	// Payment link of a just placed online order, without touching the columns the
+    	// kitchen may be changing meanwhile. Left alone once a payment id is recorded.
+    	@Modifying(clearAutomatically = true)
+    	@Query("""
+    		UPDATE Order o SET o.razorpayPaymentId = :linkId, o.version = o.version + 1
+    		WHERE o.id = :id AND o.razorpayPaymentId IS NULL
+    		""")
+    	int setPaymentLinkId(@Param("id") Long id, @Param("linkId") String linkId);
+
+    	// Payment outcome from the Razorpay webhook: only from one of the :from payment
+    	// states, and not again for a redelivered webhook (same status and payment id)
+    	@Modifying(clearAutomatically = true)
+    	@Query("""
+    		UPDATE Order o SET o.status = :status, o.razorpayPaymentId = :paymentId, o.version = o.version + 1
+    		WHERE o.id = :id AND o.status IN :from
+    		  AND NOT (o.status = :status AND COALESCE(o.razorpayPaymentId, '') = :paymentId)
+    		""")
+    	int recordPayment(@Param("id") Long id, @Param("status") PaymentStatus status,
+    			@Param("paymentId") String paymentId, @Param("from") Collection<PaymentStatus> from);
 
+    	/**
+    	 * Forward-only cursor over the transactions (not cancelled, payment not failed,
+    	 * payment mode set) placed in [:from, :to), oldest first, as
+    	 * (id, customer name, phone, payment mode, payment status, total, Razorpay payment id,
+    	 * order time, order status) rows for the streaming export. Null filters are ignored.
+    	 * Must be consumed inside a transaction and closed by the caller.
+    	 */
+    	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    	@Query("""
+    	    SELECT o.id, o.customerName, o.userPhone, o.paymentMode, o.status, o.totalPrice,
+    	           o.razorpayPaymentId, o.orderTime, o.orderStatus
+    	    FROM Order o
+    	    WHERE o.orderStatus <> CANCELLED AND o.status <> PAYMENT_FAILED AND o.paymentMode IS NOT NULL
+    	      AND o.orderTime IS NOT NULL
+    	      AND (:from IS NULL OR o.orderTime >= :from)
+    	      AND (:to IS NULL OR o.orderTime < :to)
+    	      AND (:mode IS NULL OR o.paymentMode = :mode)
+    	    ORDER BY o.orderTime, o.id
+    	""")
+    	Stream<Object[]> streamTransactions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+    	        @Param("mode") PaymentMode mode);
 }
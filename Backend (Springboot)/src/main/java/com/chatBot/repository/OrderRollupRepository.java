@@ -0,0 +1,50 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.OrderRollup;
+
+/**
+ * Range reads over the rollups take whole days from the DAY rows and the partial first
+ * day from its HOUR rows: :dayFrom is the first whole day, :hourFrom the first hour of the
+ * range. Both null = all time.
+ */
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+
+	// (payment mode, payment status, order status, orders, revenue) over the range
+	@Query("""
+	    SELECT r.paymentMode, r.paymentStatus, r.orderStatus, SUM(r.orderCount), SUM(r.revenue)
+	    FROM OrderRollup r
+	    WHERE (r.grain = com.chatBot.model.RollupGrain.DAY AND (:dayFrom IS NULL OR r.bucketStart >= :dayFrom))
+	       OR (r.grain = com.chatBot.model.RollupGrain.HOUR AND r.bucketStart >= :hourFrom AND r.bucketStart < :dayFrom)
+	    GROUP BY r.paymentMode, r.paymentStatus, r.orderStatus
+	""")
+	List<Object[]> sumSince(@Param("dayFrom") LocalDateTime dayFrom, @Param("hourFrom") LocalDateTime hourFrom);
+
+	/**
+	 * (day, payment mode, orders, revenue) from :from (null = first day with revenue) on,
+	 * oldest day first. Excludes cancelled orders and failed payments.
+	 */
+	@Query("""
+	    SELECT r.bucketStart, r.paymentMode, SUM(r.orderCount), SUM(r.revenue)
+	    FROM OrderRollup r
+	    WHERE r.grain = com.chatBot.model.RollupGrain.DAY
+	      AND (:from IS NULL OR r.bucketStart >= :from)
+	      AND r.paymentStatus <> PAYMENT_FAILED
+	      AND r.orderStatus <> CANCELLED
+	    GROUP BY r.bucketStart, r.paymentMode
+	    ORDER BY r.bucketStart
+	""")
+	List<Object[]> sumRevenueByDayAndMode(@Param("from") LocalDateTime from);
+
+	// Both grains of the buckets starting in [:from, :to)
+	@Modifying
+	@Query("DELETE FROM OrderRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+	int deleteBucketsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,101 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.chatBot.dto.OrderFilter;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+
+/**
+ * Composable WHERE clauses for the order listings, so filters run in SQL
+ * instead of on a findAll() result. Only the filters actually supplied end up
+ * in the statement.
+ *
+ * Generic over the entity so the same clauses run against Order and ArchivedOrder,
+ * which share column/attribute names.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    // Same rule as the dashboard: everything except failed online payments
+    public static <T> Specification<T> notPaymentFailed() {
+        return (root, query, cb) -> cb.notEqual(root.get("status"), PaymentStatus.PAYMENT_FAILED);
+    }
+
+    public static <T> Specification<T> notCancelled() {
+        return (root, query, cb) -> cb.notEqual(root.get("orderStatus"), OrderStatus.CANCELLED);
+    }
+
+    // Still in the kitchen's hands: neither delivered nor cancelled
+    public static <T> Specification<T> active() {
+        return (root, query, cb) -> cb.not(root.get("orderStatus").in(OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+    }
+
+    public static <T> Specification<T> hasPaymentMode() {
+        return (root, query, cb) -> cb.isNotNull(root.get("paymentMode"));
+    }
+
+    // Keyset pagination needs a non-null sort key
+    public static <T> Specification<T> hasOrderTime() {
+        return (root, query, cb) -> cb.isNotNull(root.get("orderTime"));
+    }
+
+    /**
+     * Keyset predicate for "rows after the cursor" in (orderTime DESC, id DESC) order.
+     */
+    public static <T> Specification<T> before(LocalDateTime beforeTime, Long beforeId) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderTime"), beforeTime),
+                cb.and(cb.equal(root.get("orderTime"), beforeTime), cb.lessThan(root.get("id"), beforeId)));
+    }
+
+    public static <T> Specification<T> matching(OrderFilter filter) {
+        Specification<T> spec = (root, query, cb) -> cb.conjunction();
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.getOrderStatus() != null && !filter.getOrderStatus().isBlank()) {
+            spec = spec.and(equalTo("orderStatus", filter.getOrderStatus(), OrderStatus::from));
+        }
+        if (filter.getPaymentStatus() != null && !filter.getPaymentStatus().isBlank()) {
+            spec = spec.and(equalTo("status", filter.getPaymentStatus(), PaymentStatus::from));
+        }
+        if (filter.getPaymentMode() != null && !filter.getPaymentMode().isBlank()) {
+            spec = spec.and(equalTo("paymentMode", filter.getPaymentMode(), PaymentMode::from));
+        }
+        if (Boolean.TRUE.equals(filter.getActive())) {
+            spec = spec.and(active());
+        }
+        if (filter.getPhone() != null && !filter.getPhone().isBlank()) {
+            String value = filter.getPhone().trim();
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("userPhone"), value));
+        }
+        if (filter.getFrom() != null) {
+            LocalDateTime from = filter.getFrom();
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("orderTime"), from));
+        }
+        if (filter.getTo() != null) {
+            LocalDateTime to = filter.getTo();
+            spec = spec.and((root, query, cb) -> cb.lessThan(root.get("orderTime"), to));
+        }
+        return spec;
+    }
+
+    // Plain equality on an enum column (index-friendly); an unknown value matches nothing
+    private static <T, E extends Enum<E>> Specification<T> equalTo(String attribute, String value,
+            Function<String, E> parser) {
+        E parsed;
+        try {
+            parsed = parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            return (root, query, cb) -> cb.disjunction();
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), parsed);
+    }
+}
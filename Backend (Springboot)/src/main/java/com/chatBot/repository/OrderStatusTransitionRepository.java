@@ -0,0 +1,38 @@
+package com.chatBot.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatBot.model.OrderStatusTransition;
+
+public interface OrderStatusTransitionRepository extends JpaRepository<OrderStatusTransition, Long> {
+
+	/**
+	 * (order id, to status, changed at) of the latest transition of each of the given
+	 * orders; orders without history are missing.
+	 */
+	@Query("""
+	    SELECT t.orderId, t.toStatus, t.changedAt
+	    FROM OrderStatusTransition t
+	    WHERE t.orderId IN :orderIds
+	      AND t.changedAt = (SELECT MAX(t2.changedAt) FROM OrderStatusTransition t2 WHERE t2.orderId = t.orderId)
+	""")
+	List<Object[]> findLatestByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+	/**
+	 * (order id, from status, to status, changed at) of the full history of every order
+	 * that changed status since :since, per order oldest first.
+	 */
+	@Query("""
+	    SELECT t.orderId, t.fromStatus, t.toStatus, t.changedAt
+	    FROM OrderStatusTransition t
+	    WHERE t.orderId IN (SELECT t2.orderId FROM OrderStatusTransition t2 WHERE t2.changedAt >= :since)
+	    ORDER BY t.orderId, t.changedAt, t.id
+	""")
+	List<Object[]> findHistoriesChangedSince(@Param("since") LocalDateTime since);
+}
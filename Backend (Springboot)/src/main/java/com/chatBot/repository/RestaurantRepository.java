@@ -1,12 +1,34 @@
 package com.chatBot.repository;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.chatBot.dto.RestaurantStatus;
 import com.chatBot.model.RestaurantInfo;
 
 
 @Repository
 public interface RestaurantRepository extends JpaRepository<RestaurantInfo, Long> {
-	
+
+	/**
+	 * Open flag and version straight from the row. A scalar query never goes through the
+	 * second-level cache, which may hold a copy older than another node's toggle.
+	 */
+	@Query("SELECT new com.chatBot.dto.RestaurantStatus(r.isOpen, r.version) FROM RestaurantInfo r WHERE r.id = :id")
+	Optional<RestaurantStatus> findStatusById(@Param("id") Long id);
+
+	/**
+	 * Sets the open flag and bumps the version in one statement; 0 if the row does not
+	 * exist yet. Evicts the cached row.
+	 */
+	@Transactional
+	@Modifying
+	@Query("UPDATE RestaurantInfo r SET r.isOpen = :open, r.version = r.version + 1 WHERE r.id = :id")
+	int updateOpen(@Param("id") Long id, @Param("open") boolean open);
 }
@@ -0,0 +1,116 @@
+package com.chatBot.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+
+/**
+ * Change to the /analytics headline counters caused by a set of order writes, per order
+ * minute so a dashboard can tell whether it falls in its date range. Same rules as the
+ * endpoint: failed payments never count, cancelled orders only count as cancelled.
+ *
+ * Sent as {"type": "delta", "epoch": "...", "seq": 42, "changes": [{"at": "2025-01-31T19:42",
+ * "orders": 1, "revenue": 240.0, "cash": 1, "pending": 1}, ...]}, zero counters left out; a
+ * {"type": "reset", "epoch", "seq"} event asks dashboards to refetch. "epoch" names the
+ * sending node's column store and "seq" numbers its events 1, 2, 3, ...; /analytics returns
+ * the pair its counters were read at, so a dashboard applies exactly the events after it.
+ */
+final class AnalyticsDelta {
+
+    static final String TOPIC = "/topic/analytics";
+
+    static final String[] COUNTERS = { "orders", "revenue", "cash", "card", "upi", "delivered", "pending", "cancelled" };
+
+    private static final int ORDERS = 0, REVENUE = 1, CASH = 2, CARD = 3, UPI = 4, DELIVERED = 5, PENDING = 6, CANCELLED = 7;
+
+    private final Map<Integer, long[]> byMinute = new TreeMap<>(); // revenue in paise
+    private String epoch;
+    private long seq;
+
+    /**
+     * Adds ({@code sign} 1) or takes away ({@code sign} -1) what {@code row} counts for.
+     */
+    void add(OrderColumnStore.Row row, int sign) {
+        if (row.paymentStatus() == code(PaymentStatus.PAYMENT_FAILED)) {
+            return;
+        }
+        long[] counters = byMinute.computeIfAbsent(row.minute(), m -> new long[COUNTERS.length]);
+        if (row.orderStatus() == code(OrderStatus.CANCELLED)) {
+            counters[CANCELLED] += sign;
+            return;
+        }
+        counters[row.orderStatus() == code(OrderStatus.DELIVERED) ? DELIVERED : PENDING] += sign;
+        counters[ORDERS] += sign;
+        counters[REVENUE] += sign * row.paise();
+        if (row.mode() == code(PaymentMode.CASH)) {
+            counters[CASH] += sign;
+        } else if (row.mode() == code(PaymentMode.CARD)) {
+            counters[CARD] += sign;
+        } else if (row.mode() == code(PaymentMode.UPI)) {
+            counters[UPI] += sign;
+        }
+    }
+
+    // Numbers the delta; done under the column store's write lock, with the change itself
+    void stamp(String epoch, long seq) {
+        this.epoch = epoch;
+        this.seq = seq;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    boolean isEmpty() {
+        return changes().isEmpty();
+    }
+
+    Map<String, Object> toEvent() {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "delta");
+        event.put("epoch", epoch);
+        event.put("seq", seq);
+        event.put("changes", changes());
+        return event;
+    }
+
+    static Map<String, Object> reset(String epoch, long seq) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "reset");
+        event.put("epoch", epoch);
+        event.put("seq", seq);
+        return event;
+    }
+
+    private List<Map<String, Object>> changes() {
+        List<Map<String, Object>> changes = new ArrayList<>();
+        byMinute.forEach((minute, counters) -> {
+            Map<String, Object> change = new LinkedHashMap<>();
+            for (int i = 0; i < COUNTERS.length; i++) {
+                if (counters[i] != 0) {
+                    change.put(COUNTERS[i], i == REVENUE ? counters[i] / 100.0 : (Object) counters[i]);
+                }
+            }
+            if (!change.isEmpty()) { // e.g. Pending -> Accepted moves no counter
+                Map<String, Object> at = new LinkedHashMap<>();
+                at.put("at", minute != Integer.MIN_VALUE ? LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC).toString() : null);
+                at.putAll(change);
+                changes.add(at);
+            }
+        });
+        return changes;
+    }
+
+    // Same encoding as the column store: ordinal + 1
+    private static byte code(Enum<?> value) {
+        return (byte) (value.ordinal() + 1);
+    }
+}
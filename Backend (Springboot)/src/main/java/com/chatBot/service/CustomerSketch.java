@@ -0,0 +1,130 @@
+package com.chatBot.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * HyperLogLog count of distinct customers (phone numbers): REGISTERS one-byte registers,
+ * so a fixed 4 KB whatever the number of customers, with a standard error of
+ * STANDARD_ERROR (about 1.6%; within 3.3% for 95% of counts). Small counts, up to a few
+ * hundred customers, fall back to linear counting and are near exact.
+ *
+ * Sketches of adjacent windows merge into the sketch of the combined window by taking the
+ * larger register; a customer seen in several windows still counts once. Serialized with
+ * toBytes() for the customer_rollup rows: sparse (index, value) triples while few registers
+ * are set, the plain register array otherwise. Not thread-safe.
+ */
+public final class CustomerSketch {
+
+    static final int PRECISION = 12;
+    static final int REGISTERS = 1 << PRECISION;
+    static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public CustomerSketch() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private CustomerSketch(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public void add(String phone) {
+        long hash = hash(phone);
+        int register = (int) (hash >>> (64 - PRECISION));
+        // Position of the first 1 bit after the register index; the guard bit caps it at 64 - PRECISION + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Sketch of the customers seen in any of {@code sketches}.
+     */
+    public static CustomerSketch merge(Collection<CustomerSketch> sketches) {
+        CustomerSketch merged = new CustomerSketch();
+        for (CustomerSketch sketch : sketches) {
+            for (int i = 0; i < REGISTERS; i++) {
+                if (sketch.registers[i] > merged.registers[i]) {
+                    merged.registers[i] = sketch.registers[i];
+                }
+            }
+        }
+        return merged;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros); // linear counting
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        if (3 * set >= REGISTERS) {
+            byte[] dense = new byte[1 + REGISTERS];
+            dense[0] = DENSE;
+            System.arraycopy(registers, 0, dense, 1, REGISTERS);
+            return dense;
+        }
+
+        ByteArrayOutputStream sparse = new ByteArrayOutputStream(1 + 3 * set);
+        sparse.write(SPARSE);
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                sparse.write(i >>> 8);
+                sparse.write(i);
+                sparse.write(registers[i]);
+            }
+        }
+        return sparse.toByteArray();
+    }
+
+    public static CustomerSketch fromBytes(byte[] bytes) {
+        if (bytes[0] == DENSE) {
+            return new CustomerSketch(Arrays.copyOfRange(bytes, 1, 1 + REGISTERS));
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 1; i + 2 < bytes.length; i += 3) {
+            registers[((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF)] = bytes[i + 2];
+        }
+        return new CustomerSketch(registers);
+    }
+
+    // 64-bit FNV-1a over the characters, then the MurmurHash3 finalizer to spread the bits
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,81 @@
+package com.chatBot.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.stereotype.Service;
+
+import com.chatBot.dto.CursorPage;
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
+
+/*
+ * The owner dashboard in one call, from three parts that don't depend on each other:
+ *
+ *  - headline totals (cash orders, confirmed online orders, revenue), one grouped read of
+ *    the rollups on the analytics pool,
+ *  - hot orders per status for the summary cards, one GROUP BY,
+ *  - the first page of active orders, keyset-paginated; later pages come from /page.
+ *
+ * Each part runs on its own virtual thread, scoped to the call: the call takes as long as
+ * the slowest part, and the first part to fail cancels the others and fails the call.
+ */
+@Service
+public class DashboardService {
+
+    private final OrderService orderService;
+
+    public DashboardService(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * Totals, "statusCounts" and the first {@code size} active orders ("orders",
+     * "hasMore", "nextBeforeTime", "nextBeforeId").
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getDashboard(int size) {
+        OrderFilter active = new OrderFilter();
+        active.setActive(true);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Object> scope = new ExecutorCompletionService<>(executor);
+            Future<Object> totals = scope.submit(orderService::getDashboardTotals);
+            Future<Object> statusCounts = scope.submit(orderService::getStatusCounts);
+            Future<Object> orders = scope.submit(() -> orderService.getOrdersPage(active, null, null, size));
+            awaitAll(scope, List.of(totals, statusCounts, orders));
+
+            Map<String, Object> dashboard = new LinkedHashMap<>((Map<String, Object>) totals.resultNow());
+            dashboard.put("statusCounts", statusCounts.resultNow());
+            CursorPage<OrderDTO> page = (CursorPage<OrderDTO>) orders.resultNow();
+            dashboard.put("orders", page.getItems());
+            dashboard.put("hasMore", page.isHasMore());
+            dashboard.put("nextBeforeTime", page.getNextBeforeTime());
+            dashboard.put("nextBeforeId", page.getNextBeforeId());
+            return dashboard;
+        }
+    }
+
+    // Waits for the parts in completion order; the first failure cancels the rest and is rethrown
+    private static void awaitAll(CompletionService<Object> scope, List<Future<Object>> parts) {
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                scope.take().get();
+            }
+        } catch (ExecutionException e) {
+            parts.forEach(part -> part.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            parts.forEach(part -> part.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the dashboard", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.chatBot.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HdrHistogram-style latency histogram of whole units (seconds for the kitchen stages,
+ * milliseconds for the broadcast lag), up to MAX_VALUE (a week in seconds): exact below
+ * 128, then 64 linear sub-buckets per power of two, so any recorded value and any
+ * percentile is within 1/64 (about 1.6%) of the true value. A fixed 906 counters (about
+ * 7 KB) whatever the number of samples.
+ *
+ * Recording is lock-free and safe from any thread; histograms of adjacent windows add up
+ * with addAll(). Percentiles report the highest value of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+
+    static final long MAX_VALUE = 7 * 24 * 3600;
+
+    private static final int SUB_BUCKETS = 128;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(index(Math.max(0, Math.min(value, MAX_VALUE))));
+    }
+
+    public void addAll(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Smallest recorded value (bucket upper bound) that at least {@code percentile}% of the
+     * samples are at or under; 0 for an empty histogram.
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(BUCKETS - 1);
+    }
+
+    /**
+     * "count", "p50", "p90", "p99" and "max", in the recorded unit.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count());
+        summary.put("p50", percentile(50));
+        summary.put("p90", percentile(90));
+        summary.put("p99", percentile(99));
+        summary.put("max", percentile(100));
+        return summary;
+    }
+
+    // 0..127 as is; above, bucket = power of two (shift) and the top 7 bits of the value
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >> shift) - HALF);
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        return Math.min(((sub + 1) << shift) - 1, MAX_VALUE); // the last bucket ends at the cap
+    }
+}
@@ -0,0 +1,367 @@
+package com.chatBot.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+
+import com.chatBot.model.MenuItem;
+import com.chatBot.repository.MenuItemRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Bulk menu import/export.
+ *
+ * Uploads are read row by row (CSV or a JSON array of objects), validated, and upserted
+ * by name in chunks: one lookup query per chunk, then saveAll so Hibernate can send the
+ * inserts/updates as JDBC batches (see hibernate.jdbc.batch_size). The persistence context
+ * is cleared after every chunk so memory stays flat regardless of file size.
+ */
+@Service
+public class MenuImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_JSON = "json";
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String[] CSV_COLUMNS = { "name", "description", "price", "available" };
+
+    private final MenuItemRepository menuItemRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public MenuImportService(MenuItemRepository menuItemRepository, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.menuItemRepository = menuItemRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports menu items from the given stream and returns a report with counts,
+     * rejected rows and throughput.
+     */
+    @Transactional
+    public Map<String, Object> importItems(InputStream in, String format) throws IOException {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun();
+
+        if (FORMAT_JSON.equalsIgnoreCase(format)) {
+            readJson(in, run);
+        } else if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            readCsv(in, run);
+        } else {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        run.flush();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rowsRead", run.rowsRead);
+        report.put("inserted", run.inserted);
+        report.put("updated", run.updated);
+        report.put("rejected", run.rejected);
+        report.put("errors", run.errors);
+        report.put("elapsedMs", elapsedMs);
+        report.put("itemsPerSecond", Math.round((run.inserted + run.updated) * 1000.0 / elapsedMs));
+        return report;
+    }
+
+    /**
+     * Writes the whole menu to the stream, one row at a time, without loading it into memory.
+     */
+    @Transactional
+    public void exportItems(OutputStream out, String format) throws IOException {
+        boolean json = FORMAT_JSON.equalsIgnoreCase(format);
+
+        try (Stream<MenuItem> items = menuItemRepository.streamAllOrderById()) {
+            if (json) {
+                try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                    gen.writeStartArray();
+                    items.forEach(item -> {
+                        try {
+                            gen.writeStartObject();
+                            gen.writeNumberField("id", item.getId());
+                            gen.writeStringField("name", item.getName());
+                            gen.writeStringField("description", item.getDescription());
+                            gen.writeNumberField("price", item.getPrice());
+                            gen.writeBooleanField("available", item.isAvailable());
+                            gen.writeEndObject();
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Menu export failed", e);
+                        }
+                        entityManager.detach(item);
+                    });
+                    gen.writeEndArray();
+                }
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write("id," + String.join(",", CSV_COLUMNS) + "\n");
+                items.forEach(item -> {
+                    try {
+                        writer.write(item.getId() + ","
+                                + csvEscape(item.getName()) + ","
+                                + csvEscape(item.getDescription()) + ","
+                                + item.getPrice() + ","
+                                + item.isAvailable() + "\n");
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Menu export failed", e);
+                    }
+                    entityManager.detach(item);
+                });
+                writer.flush();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Readers
+    // ---------------------------------------------------------------------
+
+    private void readCsv(InputStream in, ImportRun run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain at least 'name' and 'price' columns");
+        }
+
+        int rowNumber = 1;
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            rowNumber++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; // skip empty lines
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (String column : CSV_COLUMNS) {
+                Integer idx = columns.get(column);
+                if (idx != null && idx < record.size()) {
+                    fields.put(column, record.get(idx));
+                }
+            }
+            run.accept(rowNumber, fields);
+        }
+    }
+
+    private void readJson(InputStream in, ImportRun run) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import must be an array of menu items");
+            }
+            int rowNumber = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                rowNumber++;
+                JsonNode node = objectMapper.readTree(parser);
+                Map<String, String> fields = new HashMap<>();
+                for (String column : CSV_COLUMNS) {
+                    JsonNode value = node.get(column);
+                    if (value != null && !value.isNull()) {
+                        fields.put(column, value.asText());
+                    }
+                }
+                run.accept(rowNumber, fields);
+            }
+        }
+    }
+
+    /**
+     * Reads one RFC 4180 style record: quoted fields may contain commas, doubled quotes
+     * and line breaks. Returns null at end of stream.
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                break; // unterminated quote, take what we have
+            }
+            current.append('\n');
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // Also used by TransactionExportService
+    static String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    // ---------------------------------------------------------------------
+    // Validation + chunked upsert
+    // ---------------------------------------------------------------------
+
+    private record MenuRow(String name, String description, double price, boolean available) {
+    }
+
+    /**
+     * State of a single import: validates incoming rows and buffers them by
+     * lower-cased name until a chunk is full (a later row with the same name wins).
+     */
+    private class ImportRun {
+        private final Map<String, MenuRow> chunk = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private int rowsRead;
+        private int inserted;
+        private int updated;
+        private int rejected;
+
+        void accept(int rowNumber, Map<String, String> fields) {
+            rowsRead++;
+            String error = null;
+            MenuRow row = null;
+
+            String name = trimToNull(fields.get("name"));
+            String priceText = trimToNull(fields.get("price"));
+            String availableText = trimToNull(fields.get("available"));
+
+            if (name == null) {
+                error = "name is required";
+            } else if (name.length() > 255) {
+                error = "name is longer than 255 characters";
+            } else if (priceText == null) {
+                error = "price is required";
+            } else {
+                try {
+                    double price = Double.parseDouble(priceText);
+                    if (price < 0 || Double.isNaN(price) || Double.isInfinite(price)) {
+                        error = "price must be a non-negative number";
+                    } else if (availableText != null && !"true".equalsIgnoreCase(availableText)
+                            && !"false".equalsIgnoreCase(availableText)) {
+                        error = "available must be true or false";
+                    } else {
+                        String description = trimToNull(fields.get("description"));
+                        if (description != null && description.length() > 1000) {
+                            error = "description is longer than 1000 characters";
+                        } else {
+                            row = new MenuRow(name, description, price,
+                                    availableText == null || Boolean.parseBoolean(availableText));
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    error = "price is not a number: " + priceText;
+                }
+            }
+
+            if (row == null) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("row " + rowNumber + ": " + error);
+                }
+                return;
+            }
+
+            chunk.put(name.toLowerCase(Locale.ROOT), row);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Map<String, MenuItem> existing = new HashMap<>();
+            for (MenuItem item : menuItemRepository.findByLowerCaseNameIn(chunk.keySet())) {
+                existing.putIfAbsent(item.getName().toLowerCase(Locale.ROOT), item);
+            }
+
+            List<MenuItem> toSave = new ArrayList<>(chunk.size());
+            for (Map.Entry<String, MenuRow> entry : chunk.entrySet()) {
+                MenuRow row = entry.getValue();
+                MenuItem item = existing.get(entry.getKey());
+                if (item == null) {
+                    item = new MenuItem();
+                    inserted++;
+                } else {
+                    updated++;
+                }
+                item.setName(row.name());
+                item.setDescription(row.description());
+                item.setPrice(row.price());
+                item.setAvailable(row.available());
+                toSave.add(item);
+            }
+
+            menuItemRepository.saveAll(toSave);
+            entityManager.flush();
+            entityManager.clear();
+            chunk.clear();
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
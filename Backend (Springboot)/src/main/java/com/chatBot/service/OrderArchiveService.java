@@ -0,0 +1,158 @@
+package com.chatBot.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatBot.model.OrderArchiveState;
+import com.chatBot.repository.ArchivedOrderItemRepository;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderArchiveStateRepository;
+import com.chatBot.repository.OrderItemRepository;
+import com.chatBot.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Hot/cold split for orders. A nightly job moves finished orders older than
+ * orders.archive.after-days from orders/order_item into orders_archive/order_item_archive,
+ * one batch per transaction, so the tables the chatbot and dashboard hit every few
+ * seconds only hold the recent working set.
+ *
+ * The "horizon" is kept in the order_archive_state row: no archived order was placed
+ * after it. Readers only touch the archive when the range they ask for starts at or
+ * before it:
+ *  - read from the DB by every reader (a primary-key lookup), so every node sees it as
+ *    soon as it is committed,
+ *  - raised to the run's cutoff and committed before the first batch moves, so a reader
+ *    may look at the archive needlessly but never misses a row.
+ *
+ * Every batch transaction first locks the state row, so runs on several nodes take turns
+ * and a later one finds the rows already gone instead of copying them twice.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Long STATE_ID = 1L;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final OrderArchiveStateRepository stateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int afterDays;
+    private final int batchSize;
+
+    public OrderArchiveService(
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            ArchivedOrderRepository archivedOrderRepository,
+            ArchivedOrderItemRepository archivedOrderItemRepository,
+            OrderArchiveStateRepository stateRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.archive.enabled:false}") boolean enabled,
+            @Value("${orders.archive.after-days:90}") int afterDays,
+            @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.stateRepository = stateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = Math.max(1, Math.min(batchSize, 1000)); // Oracle IN-list limit
+    }
+
+    // The migration script creates the row on Oracle; this covers schemas made by ddl-auto
+    @PostConstruct
+    public void createStateRow() {
+        if (stateRepository.existsById(STATE_ID)) {
+            return;
+        }
+        try {
+            stateRepository.save(new OrderArchiveState(STATE_ID, archivedOrderRepository.findMaxOrderTime()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node starting at the same time created it
+        }
+    }
+
+    /**
+     * True if the archive may hold orders placed at or after {@code from}
+     * (null = no lower bound).
+     */
+    public boolean mayHoldOrdersFrom(LocalDateTime from) {
+        return reaches(getHorizon(), from);
+    }
+
+    // For callers that already read the horizon
+    static boolean reaches(LocalDateTime horizon, LocalDateTime from) {
+        return horizon != null && (from == null || !from.isAfter(horizon));
+    }
+
+    public LocalDateTime getHorizon() {
+        return stateRepository.findHorizon(STATE_ID);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void runArchival() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int moved = archiveOrdersBefore(LocalDateTime.now().minusDays(afterDays));
+            System.out.println("Order archival: moved " + moved + " orders, horizon now " + getHorizon());
+        } catch (Exception e) {
+            System.err.println("Order archival failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves every finished order placed before {@code cutoff} into the archive tables,
+     * {@code batchSize} orders per transaction, oldest first.
+     *
+     * @return number of orders moved
+     */
+    public int archiveOrdersBefore(LocalDateTime cutoff) {
+        if (orderRepository.findArchivable(cutoff, Limit.of(1)).isEmpty()) {
+            return 0;
+        }
+        // Before any row moves, so no reader can skip the archive while they are in it
+        transactionTemplate.executeWithoutResult(status -> stateRepository.raiseHorizon(STATE_ID, cutoff));
+
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        // A run on another node waits here until this batch commits, then no longer finds its rows
+        stateRepository.lockById(STATE_ID);
+
+        List<Object[]> batch = orderRepository.findArchivable(cutoff, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+        archivedOrderRepository.copyFromOrders(ids);
+        archivedOrderItemRepository.copyFromOrderItems(ids);
+        orderItemRepository.deleteByOrderIdIn(ids);
+        orderRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,212 @@
+package com.chatBot.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.dto.OrderDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Sends placed and changed orders to the dashboards (/topic/orders, one DTO, or
+ * /topic/orders/batch, an array) off the request thread and only once they committed:
+ *
+ *  - OrderChangedEvents are picked up after commit and queued; rolled back orders never
+ *    reach the queue,
+ *  - one dispatcher thread takes everything committed within orders.broadcast.batch-ms of
+ *    the first queued event, reads the DTOs of the distinct orders in one go (an order
+ *    changed twice goes out once, as it is now) and sends them as one message,
+ *  - every message carries "epoch" and "seq" STOMP headers (and "orderIds", which lets
+ *    SlowSessionGuard conflate updates for lagging sessions) and is kept in an OrderEventLog
+ *    of the last orders.events.capacity messages, so a reconnecting dashboard can fetch
+ *    what it missed from eventsSince() instead of reloading everything,
+ *  - with the in-JVM broker (websocket.broker=simple) the committed ids also go to the other
+ *    nodes over the cluster bus, and each node sends them to its own dashboards, through its
+ *    own log; with an external broker (relay) the broker does that fan-out instead, so a
+ *    dashboard gets every node's messages, each numbered in its node's epoch, and can only
+ *    replay the ones of the node serving eventsSince(); it reloads when it missed another's,
+ *  - the lag from commit to send is kept in a histogram, with counters, for stats().
+ */
+@Service
+public class OrderBroadcaster {
+
+    static final String TOPIC = "/topic/orders";
+    static final String BATCH_TOPIC = "/topic/orders/batch";
+    static final String FANOUT_CHANNEL = "orders.broadcast";
+
+    private static final int MAX_BATCH = 500;
+
+    private final OrderService orderService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessageBus messageBus;
+    private final boolean fanOut;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long windowNanos;
+    private final OrderEventLog eventLog;
+
+    private final BlockingQueue<Committed> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "orders-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LatencyHistogram lagMillis = new LatencyHistogram();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong ordersSent = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong fromOtherNodes = new AtomicLong();
+
+    public OrderBroadcaster(
+            OrderService orderService,
+            SimpMessagingTemplate messagingTemplate,
+            ClusterMessageBus messageBus,
+            @Value("${websocket.broker:simple}") String broker,
+            @Value("${orders.broadcast.batch-ms:5}") long batchMillis,
+            @Value("${orders.events.capacity:1000}") int eventCapacity) {
+        this.orderService = orderService;
+        this.messagingTemplate = messagingTemplate;
+        this.messageBus = messageBus;
+        this.fanOut = !"relay".equals(broker);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchMillis));
+        this.eventLog = new OrderEventLog(eventCapacity);
+        if (fanOut) {
+            messageBus.subscribe(FANOUT_CHANNEL, this::onOtherNodeChanged);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.execute(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.orderIds().isEmpty()) {
+            return;
+        }
+        queue.add(new Committed(event.orderIds(), System.nanoTime()));
+        if (fanOut) {
+            messageBus.publish(FANOUT_CHANNEL, nodeId + ":"
+                    + event.orderIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    // Orders another node committed, for this node's dashboards; lag counts from arrival
+    private void onOtherNodeChanged(String payload) {
+        int colon = payload.indexOf(':');
+        if (payload.substring(0, colon).equals(nodeId)) {
+            return; // queued before publishing
+        }
+        queue.add(new Committed(Arrays.stream(payload.substring(colon + 1).split(",")).map(Long::valueOf).toList(), System.nanoTime()));
+        fromOtherNodes.incrementAndGet();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Committed> batch = new ArrayList<>();
+                batch.add(queue.take());
+                long deadline = batch.get(0).nanos() + windowNanos;
+                Committed next;
+                while (batch.size() < MAX_BATCH
+                        && (next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) != null) {
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                System.err.println("Order broadcast failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(List<Committed> batch) {
+        Set<Long> ids = new LinkedHashSet<>();
+        batch.forEach(committed -> ids.addAll(committed.orderIds()));
+
+        List<OrderDTO> orders;
+        try {
+            orders = orderService.getOrderDTOs(ids);
+        } catch (RuntimeException e) {
+            // Dropped, but numbered: dashboards see the gap on the next message and reload
+            // (a send that fails after append() is replayed from the log instead)
+            eventLog.skip();
+            throw e;
+        }
+        if (!orders.isEmpty()) {
+            // Logged before sending, so a client that sees this seq can already replay up to it
+            long seq = eventLog.append(orders);
+            Map<String, Object> headers = Map.of("epoch", eventLog.epoch(), "seq", seq,
+                    "orderIds", orders.stream().map(order -> order.getId().toString()).collect(Collectors.joining(",")));
+            if (orders.size() == 1) {
+                messagingTemplate.convertAndSend(TOPIC, orders.get(0), headers);
+            } else {
+                messagingTemplate.convertAndSend(BATCH_TOPIC, orders, headers);
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Committed committed : batch) {
+            lagMillis.record(TimeUnit.NANOSECONDS.toMillis(now - committed.nanos()));
+        }
+        messages.incrementAndGet();
+        ordersSent.addAndGet(orders.size());
+    }
+
+    /**
+     * Messages sent after {@code since} in the given epoch, or a "snapshot": true answer
+     * when they are no longer kept (see OrderEventLog.since).
+     */
+    public Map<String, Object> eventsSince(String epoch, Long since) {
+        return eventLog.since(epoch, since);
+    }
+
+    /**
+     * Messages and orders sent, failed dispatches, changes received from other nodes,
+     * events still queued, and the lag from commit (or arrival) to send in milliseconds
+     * (count, p50, p90, p99, max).
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("messages", messages.get());
+        stats.put("orders", ordersSent.get());
+        stats.put("failures", failures.get());
+        stats.put("fromOtherNodes", fromOtherNodes.get());
+        stats.put("queued", queue.size());
+        stats.put("lagMs", lagMillis.summary());
+        return stats;
+    }
+
+    // Orders of one committed transaction and when it committed
+    private record Committed(List<Long> orderIds, long nanos) {
+    }
+}
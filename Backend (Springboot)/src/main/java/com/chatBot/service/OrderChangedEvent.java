@@ -0,0 +1,10 @@
+package com.chatBot.service;
+
+import java.util.List;
+
+/**
+ * Published by OrderService when orders are placed or change status; OrderBroadcaster
+ * sends them to the dashboards once the transaction has committed.
+ */
+public record OrderChangedEvent(List<Long> orderIds) {
+}
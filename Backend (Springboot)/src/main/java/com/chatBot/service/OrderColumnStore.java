@@ -0,0 +1,438 @@
+package com.chatBot.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * In-memory copy of the few order fields the dashboard totals need, every order (hot and
+ * archived) in one slot of a set of primitive arrays, one array per field, sorted by id.
+ *
+ *  - loaded page by page at startup and rebuilt nightly, and whenever the cluster bus
+ *    reconnects, from the orders tables,
+ *  - OrderService records its writes here: after commit this node re-reads those rows
+ *    from the database and announces the ids on the cluster bus, so the other nodes do
+ *    the same,
+ *  - a slot only takes a row whose @Version is at least the one it holds, so re-reads
+ *    that finish out of order (two quick changes to one order) never go backwards,
+ *  - range totals are plain loops over the arrays, with no entities and no database
+ *    round-trip,
+ *  - every node pushes what its writes and the ones it re-reads changed in the /analytics
+ *    counters to its dashboards (AnalyticsDelta on /topic/analytics), and a reset after
+ *    a rebuild, so dashboards refetch only when they (re)connect. Each event is numbered
+ *    in the same write lock as the change it carries, and totals() returns the number the
+ *    totals were read at, so a dashboard knows which events its snapshot already holds.
+ *    Behind an external broker (websocket.broker=relay) every node has its own topic,
+ *    /topic/analytics.<node id>, so a dashboard follows the node it fetched from.
+ *
+ * BYTES_PER_ORDER bytes per order, about 27 MB per million, plus up to 50% growth slack.
+ */
+@Service
+public class OrderColumnStore {
+
+    static final String CHANGED_CHANNEL = "orders.changed";
+
+    // id 8 + minute 4 + paise 8 + three enum codes + version 4
+    static final int BYTES_PER_ORDER = 8 + 4 + 8 + 1 + 1 + 1 + 4;
+
+    private static final int LOAD_PAGE = 10_000;
+    private static final int REFRESH_CHUNK = 1000; // Oracle IN-list limit
+
+    private static final PaymentMode[] MODES = PaymentMode.values();
+    private static final PaymentStatus[] PAYMENT_STATUSES = PaymentStatus.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate snapshot;
+    private final ClusterMessageBus messageBus;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String topic;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns(1024);  // guarded by lock
+    private long seq;                             // last AnalyticsDelta event number, guarded by lock
+    private Set<Long> changedDuringReload;        // non-null while reload() runs, guarded by lock
+
+    public OrderColumnStore(
+            OrderRepository orderRepository,
+            ArchivedOrderRepository archivedOrderRepository,
+            PlatformTransactionManager transactionManager,
+            ClusterMessageBus messageBus,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${websocket.broker:simple}") String broker) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        // Both tables in one read-only snapshot: an archival batch committed between the two
+        // reads would otherwise drop its orders from both (Oracle has no REPEATABLE_READ)
+        this.snapshot = new TransactionTemplate(transactionManager);
+        this.snapshot.setReadOnly(true);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.snapshot.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.messageBus = messageBus;
+        this.messagingTemplate = messagingTemplate;
+        this.topic = "relay".equals(broker) ? AnalyticsDelta.TOPIC + "." + nodeId : AnalyticsDelta.TOPIC;
+        messageBus.subscribe(CHANGED_CHANNEL, this::onChanged);
+        messageBus.onReconnect(this::reloadScheduled); // changes announced meanwhile were missed
+    }
+
+    // ====================================================
+    // Maintenance
+    // ====================================================
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(cron = "${analytics.columns.reload-cron:0 15 4 * * *}")
+    public void reloadScheduled() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("Order column store reload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the store from the orders tables (archive first, then hot orders, both in
+     * id order, from one snapshot). Orders recorded while it runs are re-read once the new
+     * columns are in.
+     */
+    public synchronized void reload() {
+        setChangedDuringReload(new HashSet<>());
+        Columns fresh = new Columns(1024);
+        try {
+            snapshot.executeWithoutResult(status -> {
+                loadPages(fresh, archivedOrderRepository::findColumnsAfter);
+                loadPages(fresh, orderRepository::findColumnsAfter);
+            });
+        } catch (RuntimeException e) {
+            setChangedDuringReload(null);
+            throw e;
+        }
+
+        Set<Long> changed;
+        long resetSeq;
+        lock.writeLock().lock();
+        try {
+            columns = fresh;
+            changed = changedDuringReload;
+            changedDuringReload = null;
+            resetSeq = ++seq;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        messagingTemplate.convertAndSend(topic, AnalyticsDelta.reset(nodeId, resetSeq));
+        broadcast(refresh(changed));
+
+        System.out.printf("Order column store: %d orders, %.1f MB (%d bytes/order)%n",
+                size(), memoryBytes() / 1e6, BYTES_PER_ORDER);
+    }
+
+    private void setChangedDuringReload(Set<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            changedDuringReload = ids;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void loadPages(Columns into, BiFunction<Long, Limit, List<Object[]>> page) {
+        long afterId = Long.MIN_VALUE;
+        List<Object[]> rows;
+        do {
+            rows = page.apply(afterId, Limit.of(LOAD_PAGE));
+            for (Object[] row : rows) {
+                into.upsert(Row.of(row));
+            }
+            if (!rows.isEmpty()) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == LOAD_PAGE);
+    }
+
+    /**
+     * Once the surrounding transaction commits, re-reads {@code orders} as committed and
+     * tells the other nodes to do the same.
+     */
+    public void record(Collection<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                broadcast(refresh(ids));
+            } catch (RuntimeException e) {
+                // Committed anyway; the nightly reload catches up
+                System.err.println("Order column store: failed to re-read orders " + ids + ": " + e.getMessage());
+            }
+            messageBus.publish(CHANGED_CHANNEL, nodeId + ":"
+                    + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        });
+    }
+
+    // "<node id>:<order id>,<order id>,..." from OrderColumnStore.record on some node
+    private void onChanged(String payload) {
+        int colon = payload.indexOf(':');
+        if (payload.substring(0, colon).equals(nodeId)) {
+            return; // re-read before publishing
+        }
+        broadcast(refresh(Arrays.stream(payload.substring(colon + 1).split(",")).map(Long::valueOf).toList()));
+    }
+
+    // Re-reads the given orders from the (hot) orders table
+    AnalyticsDelta refresh(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<Row> rows = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += REFRESH_CHUNK) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + REFRESH_CHUNK));
+            orderRepository.findColumnsByIdIn(chunk).forEach(row -> rows.add(Row.of(row)));
+        }
+        return apply(rows);
+    }
+
+    // Applies rows and returns the counter change, numbered if there is one
+    AnalyticsDelta apply(List<Row> rows) {
+        AnalyticsDelta delta = new AnalyticsDelta();
+        lock.writeLock().lock();
+        try {
+            for (Row row : rows) {
+                Row previous = columns.upsert(row);
+                if (previous == row) {
+                    continue; // older than what the slot holds
+                }
+                if (previous != null) {
+                    delta.add(previous, -1);
+                }
+                delta.add(row, 1);
+                if (changedDuringReload != null) {
+                    changedDuringReload.add(row.id());
+                }
+            }
+            if (!delta.isEmpty()) {
+                delta.stamp(nodeId, ++seq);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return delta;
+    }
+
+    // A failed send leaves a gap in the numbers, which makes dashboards refetch
+    private void broadcast(AnalyticsDelta delta) {
+        if (!delta.isEmpty()) {
+            messagingTemplate.convertAndSend(topic, delta.toEvent());
+        }
+    }
+
+    // ====================================================
+    // Reads (minute precision)
+    // ====================================================
+
+    /**
+     * (payment mode, payment status, order status, orders, revenue) for orders placed
+     * since {@code start} (null = all time); same shape as OrderRollupService.getTotalsSince.
+     */
+    public List<Object[]> totalsSince(LocalDateTime start) {
+        return totals(start).rows();
+    }
+
+    /**
+     * totalsSince with the AnalyticsDelta events they hold: every event up to {@code seq}
+     * of {@code epoch}, none after it. Later events go to {@code topic}.
+     */
+    public Totals totals(LocalDateTime start) {
+        int from = start != null ? epochMinute(start) : Integer.MIN_VALUE;
+        int paymentStatuses = PAYMENT_STATUSES.length + 1;
+        int orderStatuses = ORDER_STATUSES.length + 1;
+        long[] orders = new long[(MODES.length + 1) * paymentStatuses * orderStatuses];
+        long[] paise = new long[orders.length];
+        long readAt;
+
+        lock.readLock().lock();
+        try {
+            readAt = seq;
+            Columns c = columns;
+            for (int i = 0; i < c.size; i++) {
+                if (c.minutes[i] >= from) {
+                    int group = (c.modes[i] * paymentStatuses + c.paymentStatuses[i]) * orderStatuses + c.orderStatuses[i];
+                    orders[group]++;
+                    paise[group] += c.paise[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int group = 0; group < orders.length; group++) {
+            if (orders[group] > 0) {
+                int orderStatus = group % orderStatuses;
+                int paymentStatus = group / orderStatuses % paymentStatuses;
+                int mode = group / orderStatuses / paymentStatuses;
+                rows.add(new Object[] { decode(MODES, mode), decode(PAYMENT_STATUSES, paymentStatus),
+                        decode(ORDER_STATUSES, orderStatus), orders[group], paise[group] / 100.0 });
+            }
+        }
+        return new Totals(rows, nodeId, readAt, topic);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Heap taken by the arrays, allocated capacity included
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) columns.ids.length * BYTES_PER_ORDER;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int epochMinute(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    // Enum columns hold ordinal + 1, 0 = null
+    private static byte encode(Enum<?> value) {
+        return (byte) (value != null ? value.ordinal() + 1 : 0);
+    }
+
+    private static <E> E decode(E[] values, int code) {
+        return code == 0 ? null : values[code - 1];
+    }
+
+    public record Totals(List<Object[]> rows, String epoch, long seq, String topic) {
+    }
+
+    // One order's values, as stored in the columns
+    record Row(long id, int minute, long paise, byte mode, byte paymentStatus, byte orderStatus, int version) {
+
+        // (id, order time, total price, payment mode, payment status, order status, version)
+        static Row of(Object[] row) {
+            return of((Long) row[0], (LocalDateTime) row[1], (Double) row[2], (PaymentMode) row[3],
+                    (PaymentStatus) row[4], (OrderStatus) row[5], row[6] != null ? ((Number) row[6]).intValue() : 0);
+        }
+
+        static Row of(Long id, LocalDateTime orderTime, Double totalPrice, PaymentMode mode,
+                PaymentStatus paymentStatus, OrderStatus orderStatus, int version) {
+            return new Row(id,
+                    orderTime != null ? epochMinute(orderTime) : Integer.MIN_VALUE,
+                    totalPrice != null ? Math.round(totalPrice * 100) : 0,
+                    encode(mode), encode(paymentStatus), encode(orderStatus), version);
+        }
+    }
+
+    // Slots [0, size) sorted by id; writes are almost always appends (ids come from a sequence)
+    private static final class Columns {
+
+        int size;
+        long[] ids;
+        int[] minutes;          // order time, minutes since 1970-01-01T00:00 (local time)
+        long[] paise;           // total price
+        byte[] modes;
+        byte[] paymentStatuses;
+        byte[] orderStatuses;
+        int[] versions;         // Order.version, 0 for archived orders
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            minutes = new int[capacity];
+            paise = new long[capacity];
+            modes = new byte[capacity];
+            paymentStatuses = new byte[capacity];
+            orderStatuses = new byte[capacity];
+            versions = new int[capacity];
+        }
+
+        // Returns the values it replaced, null for a new order, or row itself if it is older than the slot
+        Row upsert(Row row) {
+            int slot = size > 0 && row.id() > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, row.id());
+            Row previous = null;
+            if (slot < 0) {
+                slot = -slot - 1;
+                if (size == ids.length) {
+                    grow(size + (size >> 1));
+                }
+                if (slot < size) {
+                    shiftRight(slot);
+                }
+                size++;
+            } else if (row.version() < versions[slot]) {
+                return row;
+            } else {
+                previous = new Row(ids[slot], minutes[slot], paise[slot], modes[slot], paymentStatuses[slot],
+                        orderStatuses[slot], versions[slot]);
+            }
+            ids[slot] = row.id();
+            minutes[slot] = row.minute();
+            paise[slot] = row.paise();
+            modes[slot] = row.mode();
+            paymentStatuses[slot] = row.paymentStatus();
+            orderStatuses[slot] = row.orderStatus();
+            versions[slot] = row.version();
+            return previous;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            minutes = Arrays.copyOf(minutes, capacity);
+            paise = Arrays.copyOf(paise, capacity);
+            modes = Arrays.copyOf(modes, capacity);
+            paymentStatuses = Arrays.copyOf(paymentStatuses, capacity);
+            orderStatuses = Arrays.copyOf(orderStatuses, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+
+        private void shiftRight(int slot) {
+            int length = size - slot;
+            System.arraycopy(ids, slot, ids, slot + 1, length);
+            System.arraycopy(minutes, slot, minutes, slot + 1, length);
+            System.arraycopy(paise, slot, paise, slot + 1, length);
+            System.arraycopy(modes, slot, modes, slot + 1, length);
+            System.arraycopy(paymentStatuses, slot, paymentStatuses, slot + 1, length);
+            System.arraycopy(orderStatuses, slot, orderStatuses, slot + 1, length);
+            System.arraycopy(versions, slot, versions, slot + 1, length);
+        }
+    }
+}
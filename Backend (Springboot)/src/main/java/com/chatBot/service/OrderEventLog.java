@@ -0,0 +1,80 @@
+package com.chatBot.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.chatBot.dto.OrderDTO;
+
+/**
+ * The last {@code capacity} order messages this node broadcast, numbered 1, 2, 3, ... in
+ * send order, so a dashboard that reconnects can fetch just the ones it missed.
+ *
+ * Numbers restart with the node; the epoch (random per log, so no two nodes share one) tells
+ * a client whether its last number still means anything here. A client whose number is
+ * from another epoch, older than the oldest message kept, or before a skipped one, is told
+ * to reload its snapshot instead.
+ */
+final class OrderEventLog {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final List<OrderDTO>[] ring;
+    private long lastSeq;
+
+    @SuppressWarnings("unchecked")
+    OrderEventLog(int capacity) {
+        this.ring = new List[Math.max(1, capacity)];
+    }
+
+    String epoch() {
+        return epoch;
+    }
+
+    /**
+     * Keeps one message's orders and returns its sequence number; the oldest message
+     * drops out once the log is full.
+     */
+    synchronized long append(List<OrderDTO> orders) {
+        lastSeq++;
+        ring[(int) (lastSeq % ring.length)] = orders;
+        return lastSeq;
+    }
+
+    /**
+     * Uses up a number for a message that could not be built (its orders were not read),
+     * so clients see a gap on the next message; a gap spanning it can't be replayed.
+     */
+    synchronized long skip() {
+        lastSeq++;
+        ring[(int) (lastSeq % ring.length)] = null;
+        return lastSeq;
+    }
+
+    /**
+     * The messages after {@code since}: {"epoch", "seq" (the last number sent),
+     * "snapshot": false, "events": [{"seq", "orders"}, ...]}, or just "epoch", "seq" and
+     * "snapshot": true when the gap can't be replayed from here.
+     */
+    synchronized Map<String, Object> since(String clientEpoch, Long since) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("epoch", epoch);
+        result.put("seq", lastSeq);
+
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        boolean replayable = epoch.equals(clientEpoch) && since != null && since >= oldest - 1 && since <= lastSeq;
+        for (long seq = replayable ? since + 1 : lastSeq + 1; seq <= lastSeq && replayable; seq++) {
+            replayable = ring[(int) (seq % ring.length)] != null; // not a skipped one
+        }
+        result.put("snapshot", !replayable);
+        if (replayable) {
+            List<Map<String, Object>> events = new ArrayList<>();
+            for (long seq = since + 1; seq <= lastSeq; seq++) {
+                events.add(Map.of("seq", seq, "orders", ring[(int) (seq % ring.length)]));
+            }
+            result.put("events", events);
+        }
+        return result;
+    }
+}
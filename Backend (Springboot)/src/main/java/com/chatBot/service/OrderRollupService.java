@@ -0,0 +1,373 @@
+package com.chatBot.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatBot.config.AnalyticsTransactional;
+import com.chatBot.model.CustomerRollup;
+import com.chatBot.model.OrderItemRollup;
+import com.chatBot.model.OrderRollup;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.model.RollupGrain;
+import com.chatBot.repository.ArchivedOrderItemRepository;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.CustomerRollupRepository;
+import com.chatBot.repository.OrderItemRepository;
+import com.chatBot.repository.OrderItemRollupRepository;
+import com.chatBot.repository.OrderRepository;
+import com.chatBot.repository.OrderRollupRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Hourly and daily rollups of orders, units sold and customers (order_rollup /
+ * order_item_rollup / customer_rollup, the last one a HyperLogLog sketch per bucket), so
+ * the analytics endpoints read a few rows per day of range instead of scanning orders.
+ *
+ * Maintenance is per calendar day:
+ *  - OrderService marks the day of every order it creates or changes as dirty (after commit),
+ *  - dirty days are recomputed from the orders tables (hot + archive) every few seconds,
+ *    and before analytics reads on this node so the dashboard sees its own writes,
+ *  - a nightly job recomputes the last few days to repair anything a node lost (crash
+ *    between commit and flush, writes from outside the app); the first run after deploy
+ *    rebuilds the full history.
+ *
+ * A day is rebuilt by delete + insert in one transaction. Unique keys on the rollup tables
+ * make a concurrent rebuild of the same day on another node fail instead of doubling rows;
+ * the day stays dirty and is retried on the next flush.
+ */
+@Service
+public class OrderRollupService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final OrderRollupRepository orderRollupRepository;
+    private final OrderItemRollupRepository orderItemRollupRepository;
+    private final CustomerRollupRepository customerRollupRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final PopularItemsIndex popularItemsIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean reconcileEnabled;
+    private final int reconcileDays;
+
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean backfillPending;
+
+    public OrderRollupService(
+            OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
+            ArchivedOrderRepository archivedOrderRepository,
+            ArchivedOrderItemRepository archivedOrderItemRepository,
+            OrderRollupRepository orderRollupRepository,
+            OrderItemRollupRepository orderItemRollupRepository,
+            CustomerRollupRepository customerRollupRepository,
+            OrderArchiveService orderArchiveService,
+            PopularItemsIndex popularItemsIndex,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.rollup.reconcile-enabled:true}") boolean reconcileEnabled,
+            @Value("${analytics.rollup.reconcile-days:2}") int reconcileDays) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.orderRollupRepository = orderRollupRepository;
+        this.orderItemRollupRepository = orderItemRollupRepository;
+        this.customerRollupRepository = customerRollupRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.popularItemsIndex = popularItemsIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction on the OLTP pool, also when called from inside an analytics read
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileEnabled = reconcileEnabled;
+        this.reconcileDays = Math.max(1, reconcileDays);
+    }
+
+    @PostConstruct
+    public void checkBackfill() {
+        // Decided before any order is flushed, so new rows don't hide a missing history
+        backfillPending = orderRollupRepository.count() == 0;
+    }
+
+    // ====================================================
+    // Maintenance
+    // ====================================================
+
+    /**
+     * Marks the day of an order placed at {@code orderTime} for recomputation once the
+     * current transaction commits.
+     */
+    public void markDirty(LocalDateTime orderTime) {
+        if (orderTime != null) {
+            LocalDate day = orderTime.toLocalDate();
+            TransactionCallbacks.afterCommit(() -> dirtyDays.add(day));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-ms:5000}")
+    public void flushScheduled() {
+        flushPending();
+    }
+
+    /**
+     * Recomputes the days marked dirty on this node. Days that fail stay dirty.
+     *
+     * @return number of days recomputed
+     */
+    public int flushPending() {
+        if (dirtyDays.isEmpty()) {
+            return 0;
+        }
+        // A lock rather than a monitor: dashboard reads flush from virtual threads, which
+        // would stay pinned to their carrier for the JDBC calls inside synchronized
+        flushLock.lock();
+        try {
+            int flushed = 0;
+            for (LocalDate day : List.copyOf(dirtyDays)) {
+                dirtyDays.remove(day); // before the rebuild, so a change committed meanwhile marks it again
+                try {
+                    rebuildDay(day);
+                    flushed++;
+                } catch (RuntimeException e) {
+                    dirtyDays.add(day);
+                    System.err.println("Rollup flush for " + day + " failed, will retry: " + e.getMessage());
+                }
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            int days = rebuildDays(today.minusDays(reconcileDays - 1), today);
+            System.out.println("Rollup reconcile: recomputed " + days + " days");
+        } catch (Exception e) {
+            System.err.println("Rollup reconcile failed: " + e.getMessage());
+        }
+    }
+
+    // One-off, shortly after startup: fills the rollups from the existing history on first deploy
+    @Scheduled(initialDelayString = "${analytics.rollup.backfill-delay-ms:10000}")
+    public void backfill() {
+        if (!reconcileEnabled || !backfillPending) {
+            return;
+        }
+        try {
+            LocalDateTime first = earliest(orderRepository.findMinOrderTime(), archivedOrderRepository.findMinOrderTime());
+            if (first != null) {
+                int days = rebuildDays(first.toLocalDate(), LocalDate.now());
+                System.out.println("Rollup backfill: built " + days + " days since " + first.toLocalDate());
+            }
+            backfillPending = false;
+        } catch (Exception e) {
+            System.err.println("Rollup backfill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every day in [from, to], one transaction per day.
+     *
+     * @return number of days recomputed
+     */
+    public int rebuildDays(LocalDate from, LocalDate to) {
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rebuildDay(day);
+            days++;
+        }
+        return days;
+    }
+
+    // Replaces the HOUR and DAY rows of one calendar day with fresh sums from the orders
+    // tables, then hands the new item rows to the popular items index
+    private void rebuildDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+
+        List<OrderItemRollup> itemRollups = transactionTemplate.execute(status -> {
+            List<Object[]> orders = new ArrayList<>(orderRepository.sumByHourBetween(from, to));
+            List<Object[]> items = new ArrayList<>(orderItemRepository.sumQuantitiesByHourBetween(from, to));
+            List<Object[]> customers = new ArrayList<>(orderRepository.findCustomersByHourBetween(from, to));
+            if (orderArchiveService.mayHoldOrdersFrom(from)) {
+                orders.addAll(archivedOrderRepository.sumByHourBetween(from, to));
+                items.addAll(archivedOrderItemRepository.sumQuantitiesByHourBetween(from, to));
+                customers.addAll(archivedOrderRepository.findCustomersByHourBetween(from, to));
+            }
+
+            orderRollupRepository.deleteBucketsBetween(from, to);
+            orderItemRollupRepository.deleteBucketsBetween(from, to);
+            customerRollupRepository.deleteBucketsBetween(from, to);
+            orderRollupRepository.saveAll(orderRollups(from, orders));
+            customerRollupRepository.saveAll(customerRollups(from, customers));
+            return orderItemRollupRepository.saveAll(itemRollups(from, items));
+        });
+        popularItemsIndex.dayRebuilt(day, itemRollups);
+    }
+
+    // Rows: (hour, mode, payment status, order status, orders, revenue); hot and archive
+    // rows for the same key are added up
+    private static List<OrderRollup> orderRollups(LocalDateTime day, List<Object[]> rows) {
+        Map<List<Object>, OrderRollup> rollups = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            LocalDateTime hour = day.plusHours(((Number) row[0]).intValue());
+            PaymentMode mode = (PaymentMode) row[1];
+            PaymentStatus paymentStatus = (PaymentStatus) row[2];
+            OrderStatus orderStatus = (OrderStatus) row[3];
+            long count = ((Number) row[4]).longValue();
+            double revenue = ((Number) row[5]).doubleValue();
+
+            for (OrderRollup rollup : List.of(
+                    rollups.computeIfAbsent(Arrays.asList(RollupGrain.HOUR, hour, mode, paymentStatus, orderStatus),
+                            k -> new OrderRollup(RollupGrain.HOUR, hour, mode, paymentStatus, orderStatus, 0, 0)),
+                    rollups.computeIfAbsent(Arrays.asList(RollupGrain.DAY, day, mode, paymentStatus, orderStatus),
+                            k -> new OrderRollup(RollupGrain.DAY, day, mode, paymentStatus, orderStatus, 0, 0)))) {
+                rollup.setOrderCount(rollup.getOrderCount() + count);
+                rollup.setRevenue(rollup.getRevenue() + revenue);
+            }
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    // Rows: (hour, item name, mode, payment status, order status, units)
+    private static List<OrderItemRollup> itemRollups(LocalDateTime day, List<Object[]> rows) {
+        Map<List<Object>, OrderItemRollup> rollups = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            LocalDateTime hour = day.plusHours(((Number) row[0]).intValue());
+            String item = (String) row[1];
+            PaymentMode mode = (PaymentMode) row[2];
+            PaymentStatus paymentStatus = (PaymentStatus) row[3];
+            OrderStatus orderStatus = (OrderStatus) row[4];
+            long quantity = ((Number) row[5]).longValue();
+
+            for (OrderItemRollup rollup : List.of(
+                    rollups.computeIfAbsent(Arrays.asList(RollupGrain.HOUR, hour, item, mode, paymentStatus, orderStatus),
+                            k -> new OrderItemRollup(RollupGrain.HOUR, hour, item, mode, paymentStatus, orderStatus, 0)),
+                    rollups.computeIfAbsent(Arrays.asList(RollupGrain.DAY, day, item, mode, paymentStatus, orderStatus),
+                            k -> new OrderItemRollup(RollupGrain.DAY, day, item, mode, paymentStatus, orderStatus, 0)))) {
+                rollup.setQuantity(rollup.getQuantity() + quantity);
+            }
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    // Rows: (hour, phone); a day's sketch holds every phone of its hours
+    private static List<CustomerRollup> customerRollups(LocalDateTime day, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, CustomerSketch> hours = new LinkedHashMap<>();
+        CustomerSketch daySketch = new CustomerSketch();
+        for (Object[] row : rows) {
+            String phone = (String) row[1];
+            hours.computeIfAbsent(((Number) row[0]).intValue(), h -> new CustomerSketch()).add(phone);
+            daySketch.add(phone);
+        }
+
+        List<CustomerRollup> rollups = new ArrayList<>();
+        hours.forEach((hour, sketch) -> rollups.add(new CustomerRollup(RollupGrain.HOUR, day.plusHours(hour), sketch.toBytes())));
+        rollups.add(new CustomerRollup(RollupGrain.DAY, day, daySketch.toBytes()));
+        return rollups;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+    // ====================================================
+    // Reads (callers flushPending() first if they need this node's latest writes)
+    // ====================================================
+
+    /**
+     * (payment mode, payment status, order status, orders, revenue) for orders placed since
+     * {@code start} (null = all time). The first, partial day is counted from the start of
+     * {@code start}'s hour.
+     */
+    @AnalyticsTransactional
+    public List<Object[]> getTotalsSince(LocalDateTime start) {
+        return orderRollupRepository.sumSince(dayFrom(start), hourFrom(start));
+    }
+
+    /**
+     * Distinct customers with a non-cancelled, non-failed order since {@code start}
+     * (null = all time), estimated from the customer sketches of the range's days and
+     * first partial day's hours: CustomerSketch.STANDARD_ERROR relative error, near exact
+     * below a few hundred customers.
+     */
+    @AnalyticsTransactional
+    public long countCustomersSince(LocalDateTime start) {
+        return CustomerSketch.merge(customerRollupRepository.findSketchesSince(dayFrom(start), hourFrom(start)).stream()
+                .map(CustomerSketch::fromBytes)
+                .toList())
+                .estimate();
+    }
+
+    /**
+     * Revenue, orders and payment mode split per day/week/month from {@code from} to
+     * {@code to}, filled from the daily rollups in one pass. A null {@code from} starts at
+     * the first day with revenue (the week ending {@code to} if there is none), no earlier
+     * than the granularity's bucket limit allows. Excludes cancelled orders and failed
+     * payments.
+     *
+     * @throws IllegalArgumentException for an explicit range over the bucket limit
+     */
+    @AnalyticsTransactional
+    public RevenueBuckets getRevenueBuckets(RevenueBuckets.Granularity granularity, LocalDate from, LocalDate to) {
+        // No start: from the first order, but no further back than the granularity allows
+        LocalDate earliest = granularity.earliestFrom(to);
+        List<Object[]> rows = orderRollupRepository.sumRevenueByDayAndMode((from != null ? from : earliest).atStartOfDay());
+        if (from == null) {
+            from = rows.isEmpty() ? to.minusDays(6) : ((LocalDateTime) rows.get(0)[0]).toLocalDate();
+        }
+
+        RevenueBuckets buckets = new RevenueBuckets(granularity, from, to);
+        for (Object[] row : rows) {
+            buckets.add(((LocalDateTime) row[0]).toLocalDate(), (PaymentMode) row[1],
+                    ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue());
+        }
+        return buckets;
+    }
+
+    // First whole day of a range starting at start
+    private static LocalDateTime dayFrom(LocalDateTime start) {
+        if (start == null) {
+            return null;
+        }
+        LocalDateTime midnight = start.toLocalDate().atStartOfDay();
+        return midnight.equals(start) ? midnight : midnight.plusDays(1);
+    }
+
+    private static LocalDateTime hourFrom(LocalDateTime start) {
+        return start != null ? start.truncatedTo(ChronoUnit.HOURS) : null;
+    }
+}
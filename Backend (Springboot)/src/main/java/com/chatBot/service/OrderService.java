@@ -1,42 +1,74 @@
 package com.chatBot.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import com.chatBot.config.GoogleApiConfig;
+import com.chatBot.dto.CursorPage;
 import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
 import com.chatBot.dto.OrderItemDTO;
+import com.chatBot.dto.OrderItemRow;
+import com.chatBot.dto.OrderStatusChange;
+import com.chatBot.model.ArchivedOrder;
 import com.chatBot.model.MenuItem;
 import com.chatBot.model.Order;
 import com.chatBot.model.OrderItem;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.ArchivedOrderItemRepository;
+import com.chatBot.repository.ArchivedOrderRepository;
 import com.chatBot.repository.MenuItemRepository;
 import com.chatBot.repository.OrderItemRepository;
 import com.chatBot.repository.OrderRepository;
+import com.chatBot.repository.OrderSpecifications;
 
 import jakarta.transaction.Transactional;
 
 @Service
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BULK_CHANGES = 200;
+    private static final int IN_LIST_CHUNK = 1000; // Oracle IN-list limit
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "orderTime", "id");
+
     private final GoogleApiConfig googleApiConfig;
     private final OrderRepository orderRepository;
     private final MenuItemRepository menuItemRepository;
     private final OrderItemRepository orderItemRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderRollupService orderRollupService;
+    private final OrderColumnStore orderColumnStore;
+    private final PopularItemsIndex popularItemsIndex;
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
     private final WhatsAppNotificationService notificationService; // Avoids circular dependency
 
     // ⭐ REFACTORED: Constructor Injection for all dependencies
@@ -45,13 +77,27 @@ public class OrderService {
             OrderRepository orderRepository,
             MenuItemRepository menuItemRepository,
             OrderItemRepository orderItemRepository,
-            SimpMessagingTemplate messagingTemplate,
+            ArchivedOrderRepository archivedOrderRepository,
+            ArchivedOrderItemRepository archivedOrderItemRepository,
+            OrderArchiveService orderArchiveService,
+            OrderRollupService orderRollupService,
+            OrderColumnStore orderColumnStore,
+            PopularItemsIndex popularItemsIndex,
+            OrderStatusHistoryService orderStatusHistoryService,
+            ApplicationEventPublisher eventPublisher,
             WhatsAppNotificationService notificationService) {
         this.googleApiConfig = googleApiConfig;
         this.orderRepository = orderRepository;
         this.menuItemRepository = menuItemRepository;
         this.orderItemRepository = orderItemRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.orderRollupService = orderRollupService;
+        this.orderColumnStore = orderColumnStore;
+        this.popularItemsIndex = popularItemsIndex;
+        this.orderStatusHistoryService = orderStatusHistoryService;
+        this.eventPublisher = eventPublisher;
         this.notificationService = notificationService;
     }
 
@@ -63,24 +109,37 @@ public class OrderService {
         Order order = new Order();
         order.setCustomerName(customerName);
         order.setUserPhone(userPhone);
-        order.setPaymentMode(paymentMode);
+        order.setPaymentMode(PaymentMode.from(paymentMode));
         order.setOrderTime(LocalDateTime.now());
-        order.setStatus("PENDING"); // Payment status
-        order.setOrderStatus("Pending"); // Restaurant order status
+        order.setStatus(PaymentStatus.PENDING); // Payment status
+        order.setOrderStatus(OrderStatus.PENDING); // Restaurant order status
 
         order.setOrderItems(new ArrayList<>());
 
         double total = 0.0;
 
+        // Resolve every cart line in one query instead of one lookup per item
+        Map<String, MenuItem> menuByName = new HashMap<>();
+        List<String> lowerCaseNames = sessionItems.keySet().stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .toList();
+        for (MenuItem menuItem : menuItemRepository.findByLowerCaseNameIn(lowerCaseNames)) {
+            menuByName.putIfAbsent(menuItem.getName().toLowerCase(Locale.ROOT), menuItem);
+        }
+
         for (Map.Entry<String, Integer> entry : sessionItems.entrySet()) {
             String itemName = entry.getKey();
             int quantity = entry.getValue();
 
-            MenuItem menuItem = menuItemRepository.findByNameIgnoreCase(itemName)
-                    .orElseThrow(() -> new RuntimeException("Menu item not found: " + itemName));
+            MenuItem menuItem = menuByName.get(itemName.toLowerCase(Locale.ROOT));
+            if (menuItem == null) {
+                throw new RuntimeException("Menu item not found: " + itemName);
+            }
 
             OrderItem orderItem = new OrderItem();
             orderItem.setMenuItem(menuItem);
+            orderItem.setItemName(menuItem.getName());
+            orderItem.setUnitPrice(menuItem.getPrice());
             orderItem.setQuantity(quantity);
             orderItem.setOrder(order);
 
@@ -91,9 +150,11 @@ public class OrderService {
 
         order.setTotalPrice(total);
         Order savedOrder = orderRepository.save(order);
+        orderStatusHistoryService.placed(savedOrder);
+        orderChanged(List.of(savedOrder));
 
-        // Broadcast new order to all connected clients with full DTO
-        messagingTemplate.convertAndSend("/topic/orders", convertToDTO(savedOrder));
+        // Broadcast new order to all connected clients once it is committed
+        eventPublisher.publishEvent(new OrderChangedEvent(List.of(savedOrder.getId())));
 
         return savedOrder;
     }
@@ -109,10 +170,36 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
     }
 
+    /**
+     * Stores the Razorpay payment link id of a just placed online order with a single-column
+     * UPDATE, so it does not fail on (or overwrite) a status change made since the order was
+     * read.
+     *
+     * @return false if the order is gone or already has a payment id
+     */
+    @Transactional
+    public boolean setPaymentLinkId(Long orderId, String paymentLinkId) {
+        return orderRepository.setPaymentLinkId(orderId, paymentLinkId) > 0;
+    }
+
+    /**
+     * Records the outcome of an online payment (Razorpay webhook) with a guarded UPDATE of
+     * the payment columns: a confirmed payment is final, and a redelivered webhook changes
+     * nothing. The order status is left to the kitchen.
+     *
+     * @return the order as updated, or empty if the webhook was ignored
+     * @throws RuntimeException if there is no such order
+     */
     @Transactional
-    public Order updateOrder(Order order) {
-        // This method is critical for persisting the Razorpay Payment Link ID
-        return orderRepository.save(order);
+    public Optional<Order> recordPayment(Long orderId, PaymentStatus status, String paymentId) {
+        int updated = orderRepository.recordPayment(orderId, status, paymentId,
+                EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PAYMENT_FAILED));
+        Order order = getOrderById(orderId);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        orderChanged(List.of(order));
+        return Optional.of(order);
     }
 
     /**
@@ -120,91 +207,206 @@ public class OrderService {
      */
     @Transactional
     public List<Order> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .filter(order -> !"PAYMENT_FAILED".equalsIgnoreCase(order.getStatus())) // Exclude failed payments
-                .toList();
+        return orderRepository.findAll(OrderSpecifications.notPaymentFailed()); // Exclude failed payments
     }
 
+    /**
+     * Moves an order to {@code newStatus} with a single guarded UPDATE (only from the
+     * states OrderStatus.allowedFrom permits), then reads the row back for the
+     * transition log, the notification and the broadcast.
+     *
+     * @throws OrderStatusConflictException if the order is not in a state that allows the
+     *         move, e.g. it was delivered or cancelled in the meantime
+     */
     @Transactional
     public Order updateOrderStatus(Long orderId, String newStatus) {
+        OrderStatus target = OrderStatus.from(newStatus);
+        return applyTransition(orderId, target, target.allowedFrom(), true);
+    }
+
+    /**
+     * Customer cancellation over WhatsApp: only while the restaurant has not picked the
+     * order up yet, even if it accepts it between the customer's message and this call.
+     */
+    @Transactional
+    public Order cancelPendingOrder(Long orderId) {
+        return applyTransition(orderId, OrderStatus.CANCELLED, EnumSet.of(OrderStatus.PENDING), true);
+    }
+
+    /**
+     * Cleanup of an order whose online payment failed, once the customer starts a new
+     * one: a move like any other (guarded UPDATE, status log, broadcast), minus the
+     * restaurant's cancellation message, since the chatbot explains it itself.
+     */
+    @Transactional
+    public Order cancelFailedPaymentOrder(Long orderId) {
+        return applyTransition(orderId, OrderStatus.CANCELLED, OrderStatus.CANCELLED.allowedFrom(), false);
+    }
+
+    private Order applyTransition(Long orderId, OrderStatus target, Set<OrderStatus> from, boolean notifyCancellation) {
+        int updated = applyTransition(List.of(orderId), target, from);
+
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+        if (updated == 0) {
+            throw new OrderStatusConflictException(orderId, order.getOrderStatus(), target);
+        }
+        orderStatusHistoryService.transitioned(List.of(order));
+        orderChanged(List.of(order));
 
-        String currentStatus = order.getOrderStatus();
-        String customerName = order.getCustomerName();
-        String customerPhone = order.getUserPhone();
-        boolean isCancelled = false; 
-
-        // Prevent cancelling delivered orders
-        if ("Delivered".equalsIgnoreCase(currentStatus) && "Cancelled".equalsIgnoreCase(newStatus)) {
-            throw new RuntimeException("Cannot cancel a delivered order");
+        // Tell the customer once the cancellation is committed, without holding the
+        // transaction open for the WhatsApp call
+        if (target == OrderStatus.CANCELLED && notifyCancellation) {
+            TransactionCallbacks.afterCommit(() -> notificationService.queueMessage(order.getUserPhone(), cancellationMessage(order)));
         }
 
-        // Normalize status names for consistency
-        switch (newStatus.toLowerCase()) {
-            case "accepted":
-                order.setOrderStatus("Accepted");
-                break;
-            case "preparing":
-                order.setOrderStatus("Preparing");
-                break;
-            case "completed":
-                order.setOrderStatus("Completed");
-                break;
-            case "delivered":
-                order.setOrderStatus("Delivered");
-
-                // Auto-confirm payment if it was still pending
-                if ("PENDING".equalsIgnoreCase(order.getStatus())) {
-                    order.setStatus("CONFIRMED");
-                }
-                break;
-            case "cancelled":
-                // NORMALIZE to canonical "Cancelled" value used by the system
-                order.setOrderStatus("Cancelled");
-                isCancelled = true; 
-                break;
-            default:
-                throw new RuntimeException("Invalid order status: " + newStatus);
+        // Broadcast update for real-time UI once it is committed
+        eventPublisher.publishEvent(new OrderChangedEvent(List.of(order.getId())));
+
+        return order;
+    }
+
+    private int applyTransition(Collection<Long> orderIds, OrderStatus target, Set<OrderStatus> from) {
+        return target == OrderStatus.DELIVERED
+                ? orderRepository.markDelivered(orderIds, from) // also confirms a pending payment
+                : orderRepository.transitionStatus(orderIds, target, from);
+    }
+
+    // Analytics copies of the orders (rollups, column store) pick the change up after commit
+    private void orderChanged(List<Order> orders) {
+        for (Order order : orders) {
+            orderRollupService.markDirty(order.getOrderTime());
         }
+        orderColumnStore.record(orders);
+    }
 
-        Order updated = orderRepository.save(order);
+    /**
+     * Kitchen bulk update: applies many status changes in one transaction with one
+     * guarded UPDATE per target status. Changes the current state does not allow are
+     * skipped and reported, the rest still go through. Cancellation messages are queued
+     * and the moved orders are broadcast together, both after commit.
+     *
+     * @return "updated": DTOs of the orders that moved, "conflicts": orderId, currentStatus
+     *         and message for the ones that did not
+     * @throws IllegalArgumentException for an empty/oversized request or an unknown status
+     */
+    @Transactional
+    public Map<String, Object> updateOrderStatuses(List<OrderStatusChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No status changes given");
+        }
+        if (changes.size() > MAX_BULK_CHANGES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_CHANGES + " status changes per request");
+        }
 
-        // NEW LOGIC: Send WhatsApp message if the order was just cancelled by the restaurant
-        if (isCancelled) {
-            String cancellationMessage = String.format(
-                "❌ Order #%d Cancelled ❌\n\nDear %s,\nWe regret to inform you that your order with ID #%d has been cancelled by the restaurant due to an unforeseen issue.\n\nWe apologize for the inconvenience and hope to serve you again soon! 🙏",
-                updated.getId(), customerName, updated.getId());
+        Map<Long, OrderStatus> requested = new LinkedHashMap<>(); // last change wins if an order is listed twice
+        for (OrderStatusChange change : changes) {
+            if (change.getOrderId() == null || change.getStatus() == null) {
+                throw new IllegalArgumentException("Each change needs an orderId and a status");
+            }
+            requested.put(change.getOrderId(), OrderStatus.from(change.getStatus()));
+        }
 
-            try {
-                notificationService.sendMessage(customerPhone, cancellationMessage);
-                System.out.println("WhatsApp: Sent cancellation message for Order ID " + updated.getId() + " to " + customerPhone);
-            } catch (Exception e) {
-                System.err.println("Failed to send cancellation WhatsApp message: " + e.getMessage());
+        // Current states in one query, locked so nobody else moves them until commit. The
+        // UPDATEs below clear the persistence context, so these instances keep showing the
+        // state before the batch.
+        Map<Long, Order> before = new HashMap<>();
+        orderRepository.lockAllById(requested.keySet()).forEach(o -> before.put(o.getId(), o));
+
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        Map<OrderStatus, List<Long>> byTarget = new EnumMap<>(OrderStatus.class);
+        requested.forEach((id, target) -> {
+            Order current = before.get(id);
+            if (current == null) {
+                conflicts.add(conflict(id, null, "Order not found: " + id));
+            } else if (!target.allowedFrom().contains(current.getOrderStatus())) {
+                conflicts.add(conflict(id, current.getOrderStatus(),
+                        new OrderStatusConflictException(id, current.getOrderStatus(), target).getMessage()));
+            } else {
+                byTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(id);
             }
+        });
+        if (byTarget.isEmpty()) {
+            return Map.of("updated", List.of(), "conflicts", conflicts);
         }
-        // END NEW LOGIC
 
-        // Broadcast update for real-time UI
-        messagingTemplate.convertAndSend("/topic/orders", convertToDTO(updated));
+        byTarget.forEach((target, ids) -> applyTransition(ids, target, target.allowedFrom()));
+
+        // Read back: with the rows locked only these UPDATEs changed them, so a new version
+        // means this batch moved the order. The status alone can't tell: someone else may
+        // have moved it to the same target before the lock was taken.
+        Map<Long, Order> after = new HashMap<>();
+        orderRepository.findAllById(byTarget.values().stream().flatMap(List::stream).toList())
+                .forEach(o -> after.put(o.getId(), o));
+
+        List<Order> moved = new ArrayList<>();
+        byTarget.forEach((target, ids) -> ids.forEach(id -> {
+            Order order = after.get(id);
+            if (order != null && !Objects.equals(order.getVersion(), before.get(id).getVersion())) {
+                moved.add(order);
+            } else {
+                OrderStatus now = order != null ? order.getOrderStatus() : null;
+                conflicts.add(conflict(id, now, now == null ? "Order not found: " + id
+                        : new OrderStatusConflictException(id, now, target).getMessage()));
+            }
+        }));
+
+        orderStatusHistoryService.transitioned(moved);
+        orderChanged(moved);
 
-        return updated;
+        List<OrderDTO> updated = convertToDTOs(moved);
+        TransactionCallbacks.afterCommit(() -> {
+            for (Order order : moved) {
+                if (order.getOrderStatus() == OrderStatus.CANCELLED) {
+                    notificationService.queueMessage(order.getUserPhone(), cancellationMessage(order));
+                }
+            }
+        });
+        eventPublisher.publishEvent(new OrderChangedEvent(moved.stream().map(Order::getId).toList()));
+
+        return Map.of("updated", updated, "conflicts", conflicts);
     }
 
-    @Transactional
+    private static Map<String, Object> conflict(Long orderId, OrderStatus currentStatus, String message) {
+        Map<String, Object> conflict = new LinkedHashMap<>();
+        conflict.put("orderId", orderId);
+        conflict.put("currentStatus", currentStatus != null ? currentStatus.getLabel() : null);
+        conflict.put("message", message);
+        return conflict;
+    }
+
+    private static String cancellationMessage(Order order) {
+        return String.format(
+            "❌ Order #%d Cancelled ❌\n\nDear %s,\nWe regret to inform you that your order with ID #%d has been cancelled by the restaurant due to an unforeseen issue.\n\nWe apologize for the inconvenience and hope to serve you again soon! 🙏",
+            order.getId(), order.getCustomerName(), order.getId());
+    }
+
+    /**
+     * Per-month totals from the daily rollups, oldest month first, months without
+     * revenue orders left out.
+     */
     public List<Map<String, Object>> getMonthlySummary() {
-        List<Object[]> results = orderRepository.getMonthlySummary();
+        orderRollupService.flushPending();
+
+        RevenueBuckets months = orderRollupService.getRevenueBuckets(
+                RevenueBuckets.Granularity.MONTH, null, LocalDate.now());
+
         List<Map<String, Object>> summary = new ArrayList<>();
+        for (int i = 0; i < months.size(); i++) {
+            long orders = months.orders(i);
+            if (orders == 0) {
+                continue;
+            }
+            double revenue = months.revenue(i);
 
-        for (Object[] row : results) {
             Map<String, Object> map = new LinkedHashMap<>();
-            map.put("month", row[0]);
-            map.put("orders", row[1]);
-            map.put("revenue", row[2]);
-            map.put("avgOrderValue", row[3]);
-            map.put("cashPercent", row[4]);
-            map.put("cardPercent", row[5]);
-            map.put("upiPercent", row[6]);
+            map.put("month", months.label(i)); // "Mon YYYY"
+            map.put("orders", orders);
+            map.put("revenue", revenue);
+            map.put("avgOrderValue", Math.round(revenue / orders * 100.0) / 100.0);
+            map.put("cashPercent", percent(months.orders(i, PaymentMode.CASH), orders));
+            map.put("cardPercent", percent(months.orders(i, PaymentMode.CARD), orders));
+            map.put("upiPercent", percent(months.orders(i, PaymentMode.UPI), orders));
             map.put("note", "Revenue excludes cancelled and failed orders. All payment modes split individually.");
             summary.add(map);
         }
@@ -212,58 +414,106 @@ public class OrderService {
         return summary;
     }
 
-    @Transactional
-    public String getAIInsights() {
-        try {
-            // FIX 1: Use the same filtering logic as the /analytics endpoint
-            List<Order> allOrders = orderRepository.findAll().stream()
-                    .filter(order -> !"PAYMENT_FAILED".equalsIgnoreCase(order.getStatus())
-                              && !"FAILED".equalsIgnoreCase(order.getStatus()))
-                    .collect(Collectors.toList());
+    // (orders, revenue) of the rollup rows that count as revenue: not cancelled, payment not failed
+    private static double[] revenueTotals(List<Object[]> rows) {
+        double[] totals = new double[2];
+        for (Object[] row : rows) {
+            if (row[1] != PaymentStatus.PAYMENT_FAILED && row[2] != OrderStatus.CANCELLED) {
+                totals[0] += ((Number) row[3]).longValue();
+                totals[1] += ((Number) row[4]).doubleValue();
+            }
+        }
+        return totals;
+    }
 
-            // ⭐ KEEPING THIS AS REQUESTED: Only use non-cancelled orders for statistics
-            List<Order> validOrders = allOrders.stream()
-                    .filter(order -> !"CANCELLED".equalsIgnoreCase(order.getOrderStatus()))
-                    .collect(Collectors.toList());
+    private static double percent(long part, long total) {
+        return Math.round(1000.0 * part / total) / 10.0;
+    }
 
-            // FIX 2: Calculate all stats based on the "validOrders" list
-            long totalOrders = validOrders.size();
+    /**
+     * Revenue per payment mode over all time, from the in-memory column store.
+     * Excludes cancelled orders and failed payments.
+     */
+    public Map<PaymentMode, Double> getValidRevenueByPaymentMode() {
+        Map<PaymentMode, Double> revenue = new EnumMap<>(PaymentMode.class);
+        for (Object[] row : orderColumnStore.totalsSince(null)) {
+            if (row[0] != null && row[1] != PaymentStatus.PAYMENT_FAILED && row[2] != OrderStatus.CANCELLED) {
+                revenue.merge((PaymentMode) row[0], ((Number) row[4]).doubleValue(), Double::sum);
+            }
+        }
+        return revenue;
+    }
 
-            double totalRevenue = validOrders.stream()
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
+    /**
+     * Number of valid transactions (same rows as the transaction history) per payment status,
+     * from the in-memory column store.
+     */
+    public Map<PaymentStatus, Long> getTransactionCountsByPaymentStatus() {
+        Map<PaymentStatus, Long> counts = new EnumMap<>(PaymentStatus.class);
+        for (Object[] row : orderColumnStore.totalsSince(null)) {
+            if (row[0] != null && row[1] != null && row[1] != PaymentStatus.PAYMENT_FAILED
+                    && row[2] != OrderStatus.CANCELLED) {
+                counts.merge((PaymentStatus) row[1], ((Number) row[3]).longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
 
-            // last week vs this week comparison
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime weekStart = now.minusDays(7);
-            LocalDateTime lastWeekStart = now.minusDays(14);
-            LocalDateTime lastWeekEnd = now.minusDays(7);
+    /**
+     * Dashboard headline numbers (hot and archived orders), from the rollups.
+     * Cash orders count unless cancelled, online orders once their payment is confirmed.
+     */
+    public Map<String, Object> getDashboardTotals() {
+        orderRollupService.flushPending();
+
+        long cashOrders = 0;
+        long confirmedOnlineOrders = 0;
+        double totalRevenue = 0;
+        for (Object[] row : orderRollupService.getTotalsSince(null)) {
+            if (row[0] == null || row[2] == OrderStatus.CANCELLED) {
+                continue;
+            }
+            long count = ((Number) row[3]).longValue();
+            if (row[0] == PaymentMode.CASH) {
+                cashOrders += count;
+            } else if (row[1] == PaymentStatus.CONFIRMED) {
+                confirmedOnlineOrders += count;
+            } else {
+                continue;
+            }
+            totalRevenue += ((Number) row[4]).doubleValue();
+        }
 
-            double thisWeekRevenue = validOrders.stream() // Use validOrders
-                    .filter(o -> o.getOrderTime().isAfter(weekStart))
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("cashOrders", cashOrders);
+        totals.put("confirmedOnlineOrders", confirmedOnlineOrders);
+        totals.put("totalRevenue", totalRevenue);
+        return totals;
+    }
+
+    // Not transactional: the Gemini call below must not hold a connection
+    public String getAIInsights() {
+        try {
+            orderRollupService.flushPending();
 
-            double lastWeekRevenue = validOrders.stream() // Use validOrders
-                    .filter(o -> o.getOrderTime().isAfter(lastWeekStart) && o.getOrderTime().isBefore(lastWeekEnd))
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
+            // FIX 1 + 2: Same filtering as the /analytics endpoint, from the rollups:
+            // totals exclude failed payments and cancelled orders (hot and archived)
+            double[] allTime = revenueTotals(orderRollupService.getTotalsSince(null));
+            long totalOrders = (long) allTime[0];
+            double totalRevenue = allTime[1];
+
+            // last week vs this week comparison
+            LocalDateTime now = LocalDateTime.now();
+            double lastTwoWeeksRevenue = revenueTotals(orderRollupService.getTotalsSince(now.minusDays(14)))[1];
+            double thisWeekRevenue = revenueTotals(orderRollupService.getTotalsSince(now.minusDays(7)))[1];
+            double lastWeekRevenue = lastTwoWeeksRevenue - thisWeekRevenue;
 
             double percentChange = lastWeekRevenue > 0 ? ((thisWeekRevenue - lastWeekRevenue) / lastWeekRevenue) * 100 : 0;
 
-            // FIX 3: Add logic for Top Item
-            Map<String, Integer> itemCounts = new HashMap<>();
-            validOrders.forEach(order -> {
-                order.getOrderItems().forEach(item -> {
-                    String itemName = item.getMenuItem().getName();
-                    itemCounts.put(itemName, itemCounts.getOrDefault(itemName, 0) + item.getQuantity());
-                });
-            });
-
-            String topItem = itemCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(1)
-                .map(entry -> String.format("%s (with %d units sold)", entry.getKey(), entry.getValue()))
+            // FIX 3: Add logic for Top Item (top-K sketches over the item rollups, cancelled orders excluded)
+            List<Object[]> itemCounts = popularItemsIndex.topItemsSince(null, 1, false);
+            String topItem = itemCounts.stream()
+                .map(row -> String.format("%s (with %d units sold)", row[0], ((Number) row[1]).longValue()))
                 .findFirst()
                 .orElse("No items sold yet");
 
@@ -317,37 +567,180 @@ public class OrderService {
     }
 
     /**
-     * Used by the Dashboard/OrderHistory endpoints.
-     * Returns ALL orders (except payment failed) so client can filter.
+     * DTOs of the given orders in the given order, skipping ids that no longer exist;
+     * one read for the orders and one for their items per 1000 ids (OrderBroadcaster).
      */
     @Transactional
-    public List<OrderDTO> getFilteredOrders() {
-        return orderRepository.findAll().stream()
-                .filter(order -> !"PAYMENT_FAILED".equalsIgnoreCase(order.getStatus())) // Exclude failed
-                .map(this::convertToDTO)
-                .toList();
+    public List<OrderDTO> getOrderDTOs(Collection<Long> orderIds) {
+        List<Long> ids = List.copyOf(orderIds);
+        Map<Long, Order> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+            orderRepository.findAllById(ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size())))
+                    .forEach(order -> byId.put(order.getId(), order));
+        }
+        return convertToDTOs(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
     }
 
     /**
-     * Converts entity to DTO including both paymentStatus and orderStatus.
+     * Hot orders per status label, payment-failed excluded (the orders the dashboard
+     * lists), zero for the statuses no order is in.
      */
-    private OrderDTO convertToDTO(Order order) {
-        List<OrderItemDTO> items = order.getOrderItems().stream()
-                .map(oi -> new OrderItemDTO(
-                        oi.getId(),
-                        oi.getMenuItem().getName(),
-                        oi.getMenuItem().getPrice(),
-                        oi.getQuantity()
-                ))
+    @Transactional
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status.getLabel(), 0L);
+        }
+        for (Object[] row : orderRepository.countPerOrderStatus()) {
+            if (row[0] != null) {
+                counts.put(((OrderStatus) row[0]).getLabel(), ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Keyset-paginated order listing (newest first), filtered in SQL.
+     * Excludes payment-failed orders unless a paymentStatus filter asks for them.
+     */
+    @Transactional
+    public CursorPage<OrderDTO> getOrdersPage(OrderFilter filter, LocalDateTime beforeTime, Long beforeId, int size) {
+        CursorPage<Order> page = fetchPage(listingSpec(filter), listingSpec(filter), filter, beforeTime, beforeId, size);
+        return new CursorPage<>(convertToDTOs(page.getItems()),
+                page.isHasMore(), page.getNextBeforeTime(), page.getNextBeforeId());
+    }
+
+    /**
+     * Keyset-paginated transaction history (newest first), filtered in SQL.
+     */
+    @Transactional
+    public CursorPage<Map<String, Object>> getTransactionsPage(OrderFilter filter, LocalDateTime beforeTime,
+            Long beforeId, int size) {
+        CursorPage<Order> page = fetchPage(transactionSpec(filter), transactionSpec(filter), filter,
+                beforeTime, beforeId, size);
+        return new CursorPage<>(page.getItems().stream().map(this::toTransactionRow).toList(),
+                page.isHasMore(), page.getNextBeforeTime(), page.getNextBeforeId());
+    }
+
+    // Excludes payment-failed orders unless a paymentStatus filter asks for them
+    private static <T> Specification<T> listingSpec(OrderFilter filter) {
+        Specification<T> spec = OrderSpecifications.matching(filter);
+        if (filter == null || filter.getPaymentStatus() == null || filter.getPaymentStatus().isBlank()) {
+            spec = spec.and(OrderSpecifications.notPaymentFailed());
+        }
+        return spec;
+    }
+
+    private static <T> Specification<T> transactionSpec(OrderFilter filter) {
+        return OrderSpecifications.<T>matching(filter)
+                .and(OrderSpecifications.notCancelled())
+                .and(OrderSpecifications.notPaymentFailed())
+                .and(OrderSpecifications.hasPaymentMode());
+    }
+
+    /**
+     * Fetches one page of at most {@code size} orders after the (beforeTime, beforeId) cursor.
+     * Reads one extra row to know whether another page exists, so no COUNT query is needed.
+     *
+     * The archive is only read when the filter's date range reaches it and the hot rows
+     * don't already fill the page with orders newer than everything archived; then both
+     * sides are read with the same cursor and merged.
+     */
+    private CursorPage<Order> fetchPage(Specification<Order> spec, Specification<ArchivedOrder> archivedSpec,
+            OrderFilter filter, LocalDateTime beforeTime, Long beforeId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<Order> pageSpec = spec.and(OrderSpecifications.hasOrderTime());
+        Specification<ArchivedOrder> archivedPageSpec = archivedSpec.and(OrderSpecifications.hasOrderTime());
+        if (beforeTime != null && beforeId != null) {
+            pageSpec = pageSpec.and(OrderSpecifications.before(beforeTime, beforeId));
+            archivedPageSpec = archivedPageSpec.and(OrderSpecifications.before(beforeTime, beforeId));
+        }
+
+        List<Order> rows = orderRepository.findBy(pageSpec,
+                q -> q.sortBy(KEYSET_SORT).limit(pageSize + 1).all());
+
+        LocalDateTime from = filter != null ? filter.getFrom() : null;
+        LocalDateTime horizon = orderArchiveService.getHorizon();
+        boolean pageFilledAboveHorizon = horizon != null && rows.size() > pageSize
+                && rows.get(pageSize).getOrderTime().isAfter(horizon);
+        if (OrderArchiveService.reaches(horizon, from) && !pageFilledAboveHorizon) {
+            List<Order> merged = new ArrayList<>(rows);
+            archivedOrderRepository.findBy(archivedPageSpec, q -> q.sortBy(KEYSET_SORT).limit(pageSize + 1).all())
+                    .forEach(a -> merged.add(a.toOrder()));
+            merged.sort(Comparator.comparing(Order::getOrderTime).thenComparing(Order::getId).reversed());
+            rows = merged.size() > pageSize + 1 ? merged.subList(0, pageSize + 1) : merged;
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Order> items = hasMore ? rows.subList(0, pageSize) : rows;
+        Order last = hasMore ? items.get(items.size() - 1) : null;
+
+        return new CursorPage<>(items, hasMore,
+                last != null ? last.getOrderTime() : null,
+                last != null ? last.getId() : null);
+    }
+
+    private Map<String, Object> toTransactionRow(Order o) {
+        Map<String, Object> tx = new LinkedHashMap<>();
+        tx.put("id", o.getId());
+        tx.put("customerName", o.getCustomerName());
+        tx.put("userPhone", o.getUserPhone());
+        tx.put("paymentMode", o.getPaymentMode() != null ? o.getPaymentMode().getLabel() : null);
+        tx.put("status", o.getStatus() != null ? o.getStatus().name() : null);
+        tx.put("totalPrice", o.getTotalPrice());
+        tx.put("razorpayPaymentId", o.getRazorpayPaymentId() != null ? o.getRazorpayPaymentId() : "N/A");
+        tx.put("orderTime", o.getOrderTime());
+        tx.put("orderStatus", o.getOrderStatus() != null ? o.getOrderStatus().getLabel() : null);
+        return tx;
+    }
+
+    /**
+     * Converts a list of orders to DTOs with a constant number of queries: the order lines
+     * are read as flat projection rows (one query per 1000 orders) instead of walking the
+     * lazy orderItems/menuItem associations of every order.
+     */
+    private List<OrderDTO> convertToDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + IN_LIST_CHUNK, orderIds.size()));
+            for (OrderItemRow row : orderItemRepository.findRowsByOrderIds(chunk)) {
+                itemsByOrder.computeIfAbsent(row.orderId(), id -> new ArrayList<>()).add(row.toDTO());
+            }
+        }
+
+        // Orders with no hot lines came from the archive
+        List<Long> archivedIds = orderIds.stream().filter(id -> !itemsByOrder.containsKey(id)).toList();
+        if (!archivedIds.isEmpty() && orderArchiveService.mayHoldOrdersFrom(null)) {
+            for (int from = 0; from < archivedIds.size(); from += IN_LIST_CHUNK) {
+                List<Long> chunk = archivedIds.subList(from, Math.min(from + IN_LIST_CHUNK, archivedIds.size()));
+                for (OrderItemRow row : archivedOrderItemRepository.findRowsByOrderIds(chunk)) {
+                    itemsByOrder.computeIfAbsent(row.orderId(), id -> new ArrayList<>()).add(row.toDTO());
+                }
+            }
+        }
+
+        return orders.stream()
+                .map(order -> toDTO(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .toList();
+    }
 
+    /**
+     * Builds the DTO including both paymentStatus and orderStatus.
+     */
+    private OrderDTO toDTO(Order order, List<OrderItemDTO> items) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setCustomerName(order.getCustomerName());
         dto.setUserPhone(order.getUserPhone());
-        dto.setPaymentStatus(order.getStatus());     // Payment Status
-        dto.setPaymentMode(order.getPaymentMode());
-        dto.setOrderStatus(order.getOrderStatus());  // Order Status
+        dto.setPaymentStatus(order.getStatus() != null ? order.getStatus().name() : null);           // Payment Status
+        dto.setPaymentMode(order.getPaymentMode() != null ? order.getPaymentMode().getLabel() : null);
+        dto.setOrderStatus(order.getOrderStatus() != null ? order.getOrderStatus().getLabel() : null); // Order Status
         dto.setTotalPrice(order.getTotalPrice());
         dto.setOrderTime(order.getOrderTime());
         dto.setOrderItems(items);
@@ -0,0 +1,44 @@
+package com.chatBot.service;
+
+import com.chatBot.model.OrderStatus;
+
+/**
+ * A status change that the order's current state does not allow, either because the
+ * move is not in the transition table or because someone else changed the order first.
+ * The dashboard gets a 409 with the message.
+ */
+public class OrderStatusConflictException extends RuntimeException {
+
+    private final Long orderId;
+    private final OrderStatus currentStatus;
+    private final OrderStatus requestedStatus;
+
+    public OrderStatusConflictException(Long orderId, OrderStatus currentStatus, OrderStatus requestedStatus) {
+        super(message(orderId, currentStatus, requestedStatus));
+        this.orderId = orderId;
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+    }
+
+    private static String message(Long orderId, OrderStatus current, OrderStatus requested) {
+        if (current == OrderStatus.DELIVERED && requested == OrderStatus.CANCELLED) {
+            return "Cannot cancel an already delivered order";
+        }
+        if (current == requested) {
+            return "Order #" + orderId + " is already " + current.getLabel();
+        }
+        return "Order #" + orderId + " is " + current.getLabel() + ", cannot move it to " + requested.getLabel();
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public OrderStatus getRequestedStatus() {
+        return requestedStatus;
+    }
+}
@@ -0,0 +1,250 @@
+package com.chatBot.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.OrderStatusTransition;
+import com.chatBot.repository.OrderStatusTransitionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Writes the order status transition log and keeps kitchen latency histograms over it:
+ *
+ *  - ACCEPT:   time spent Pending before the restaurant picks the order up,
+ *  - PREP:     time spent Preparing,
+ *  - DELIVERY: time from Completed to Delivered.
+ *
+ * OrderService logs the placement and every status change in the transaction that makes
+ * it. The from status and the time it was entered come from the order's latest log row,
+ * read after the guarded UPDATE, while the order's row is locked. Durations go into
+ * one LatencyHistogram per stage and day once the transaction commits, and out to the
+ * other nodes over the cluster bus. The histograms of the last analytics.kitchen.days
+ * days are rebuilt from the log at startup, nightly and whenever the cluster bus reconnects.
+ */
+@Service
+public class OrderStatusHistoryService {
+
+    public enum Stage {
+        ACCEPT, PREP, DELIVERY;
+
+        // Stage a move from -> to closes, null if it is not measured (cancellations, Accepted -> Preparing)
+        static Stage closedBy(OrderStatus from, OrderStatus to) {
+            if (from == null || to == OrderStatus.CANCELLED) {
+                return null;
+            }
+            return switch (from) {
+                case PENDING -> ACCEPT;
+                case PREPARING -> PREP;
+                case COMPLETED -> to == OrderStatus.DELIVERED ? DELIVERY : null;
+                default -> null;
+            };
+        }
+    }
+
+    static final String RECORDED_CHANNEL = "orders.latency";
+
+    private static final int IN_LIST_CHUNK = 1000; // Oracle IN-list limit
+
+    private final OrderStatusTransitionRepository transitionRepository;
+    private final ClusterMessageBus messageBus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int days;
+
+    private volatile NavigableMap<LocalDate, Map<Stage, LatencyHistogram>> histograms = new ConcurrentSkipListMap<>();
+
+    public OrderStatusHistoryService(
+            OrderStatusTransitionRepository transitionRepository,
+            ClusterMessageBus messageBus,
+            @Value("${analytics.kitchen.days:30}") int days) {
+        this.transitionRepository = transitionRepository;
+        this.messageBus = messageBus;
+        this.days = Math.max(1, days);
+        messageBus.subscribe(RECORDED_CHANNEL, this::onRecorded);
+        messageBus.onReconnect(this::reloadScheduled); // samples announced meanwhile were missed
+    }
+
+    // ====================================================
+    // Log
+    // ====================================================
+
+    /**
+     * Logs the placement of {@code order}: no from status, to Pending, at the order time.
+     */
+    public void placed(Order order) {
+        transitionRepository.save(new OrderStatusTransition(order.getId(), null, order.getOrderStatus(), order.getOrderTime()));
+    }
+
+    /**
+     * Logs the move of each of {@code orders} to its current status, batched into one
+     * insert round-trip, and records the stage each move closes once the transaction
+     * commits. Call after the guarded UPDATE, with the orders read back.
+     */
+    public void transitioned(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Object[]> latest = latestTransitions(orders.stream().map(Order::getId).toList());
+
+        List<OrderStatusTransition> rows = new ArrayList<>();
+        List<Sample> samples = new ArrayList<>();
+        for (Order order : orders) {
+            Object[] last = latest.get(order.getId()); // (order id, to status, changed at); null for orders placed before the log
+            OrderStatus from = last != null ? (OrderStatus) last[1] : null;
+            rows.add(new OrderStatusTransition(order.getId(), from, order.getOrderStatus(), now));
+
+            Stage stage = Stage.closedBy(from, order.getOrderStatus());
+            if (stage != null) {
+                samples.add(new Sample(now.toLocalDate(), stage, seconds((LocalDateTime) last[2], now)));
+            }
+        }
+        transitionRepository.saveAll(rows);
+
+        if (!samples.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                apply(samples);
+                messageBus.publish(RECORDED_CHANNEL, nodeId + ":"
+                        + samples.stream().map(Sample::encode).collect(Collectors.joining(";")));
+            });
+        }
+    }
+
+    // Latest row per order; statuses only move forward, so of two rows at the same instant the later status wins
+    private Map<Long, Object[]> latestTransitions(List<Long> orderIds) {
+        Map<Long, Object[]> latest = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = orderIds.subList(from, Math.min(orderIds.size(), from + IN_LIST_CHUNK));
+            for (Object[] row : transitionRepository.findLatestByOrderIdIn(chunk)) {
+                latest.merge((Long) row[0], row,
+                        (a, b) -> ((OrderStatus) a[1]).ordinal() >= ((OrderStatus) b[1]).ordinal() ? a : b);
+            }
+        }
+        return latest;
+    }
+
+    // ====================================================
+    // Histograms
+    // ====================================================
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(cron = "${analytics.kitchen.reload-cron:0 25 4 * * *}")
+    public void reloadScheduled() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("Kitchen latency reload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the histograms of the last analytics.kitchen.days days from the log.
+     */
+    public synchronized void reload() {
+        LocalDateTime since = LocalDate.now().minusDays(days - 1).atStartOfDay();
+        NavigableMap<LocalDate, Map<Stage, LatencyHistogram>> fresh = new ConcurrentSkipListMap<>();
+
+        // Rows: (order id, from, to, changed at), each order's history oldest first
+        Object[] previous = null;
+        for (Object[] row : transitionRepository.findHistoriesChangedSince(since)) {
+            LocalDateTime changedAt = (LocalDateTime) row[3];
+            if (previous != null && previous[0].equals(row[0]) && !changedAt.isBefore(since)) {
+                Stage stage = Stage.closedBy((OrderStatus) row[1], (OrderStatus) row[2]);
+                if (stage != null) {
+                    histogram(fresh, changedAt.toLocalDate(), stage).record(seconds((LocalDateTime) previous[3], changedAt));
+                }
+            }
+            previous = row;
+        }
+        histograms = fresh;
+    }
+
+    // "<node id>:<day>,<stage>,<seconds>;..." from transitioned() on some node
+    private void onRecorded(String payload) {
+        int colon = payload.indexOf(':');
+        if (payload.substring(0, colon).equals(nodeId)) {
+            return; // applied before publishing
+        }
+        List<Sample> samples = new ArrayList<>();
+        for (String sample : payload.substring(colon + 1).split(";")) {
+            String[] fields = sample.split(",");
+            samples.add(new Sample(LocalDate.parse(fields[0]), Stage.valueOf(fields[1]), Long.parseLong(fields[2])));
+        }
+        apply(samples);
+    }
+
+    private synchronized void apply(List<Sample> samples) {
+        LocalDate oldest = LocalDate.now().minusDays(days - 1);
+        for (Sample sample : samples) {
+            histogram(histograms, sample.day(), sample.stage()).record(sample.seconds());
+        }
+        histograms.headMap(oldest).clear();
+    }
+
+    private static LatencyHistogram histogram(NavigableMap<LocalDate, Map<Stage, LatencyHistogram>> histograms,
+            LocalDate day, Stage stage) {
+        return histograms.computeIfAbsent(day, d -> new EnumMap<>(Stage.class))
+                .computeIfAbsent(stage, s -> new LatencyHistogram());
+    }
+
+    /**
+     * Count, p50, p90, p99 and max in seconds per stage ("acceptTime", "prepTime",
+     * "deliveryTime") for the stages closed since the day of {@code start} (null = the
+     * last analytics.kitchen.days days).
+     */
+    public Map<String, Object> latencySince(LocalDateTime start) {
+        Map<Stage, LatencyHistogram> merged = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            merged.put(stage, new LatencyHistogram());
+        }
+        Collection<Map<Stage, LatencyHistogram>> inRange = start != null
+                ? histograms.tailMap(start.toLocalDate()).values()
+                : histograms.values();
+        synchronized (this) {
+            for (Map<Stage, LatencyHistogram> day : inRange) {
+                day.forEach((stage, histogram) -> merged.get(stage).addAll(histogram));
+            }
+        }
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("acceptTime", merged.get(Stage.ACCEPT).summary());
+        latency.put("prepTime", merged.get(Stage.PREP).summary());
+        latency.put("deliveryTime", merged.get(Stage.DELIVERY).summary());
+        return latency;
+    }
+
+    private static long seconds(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).getSeconds();
+    }
+
+    // One closed stage: the day it closed and how long it took
+    private record Sample(LocalDate day, Stage stage, long seconds) {
+
+        String encode() {
+            return day + "," + stage + "," + seconds;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.chatBot.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.model.OrderItemRollup;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.model.RollupGrain;
+import com.chatBot.repository.OrderItemRollupRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Top selling items for any range starting at some hour and running to now, from
+ * TopItemsSketch summaries kept in memory per hour, day and month:
+ *
+ *  - filled from the HOUR rows of order_item_rollup, at startup, nightly and whenever
+ *    the cluster bus reconnects,
+ *  - every time OrderRollupService rebuilds a day, that day (and its month) is replaced
+ *    from the rebuilt rows and the day is announced on the cluster bus; the other nodes
+ *    re-read it from the rollup table,
+ *  - a range read merges the hours of its partial first day, the whole days up to the
+ *    next month and the whole months after that: a few dozen sketches, no database.
+ *
+ * Each window keeps two sketches, with and without cancelled orders; failed payments are
+ * never counted. Hour sketches are only kept for the last hour-days days; a range that
+ * starts mid-day before that reads its first partial day from the rollup table.
+ *
+ * Memory is bounded by the counters: two sketches per day and month, plus 48 per day
+ * for the last hour-days days, of at most capacity counters each. While a menu has no
+ * more items than capacity, nothing is evicted and the counts are exact.
+ */
+@Service
+public class PopularItemsIndex {
+
+    static final String REBUILT_CHANNEL = "rollups.day-rebuilt";
+
+    private final OrderItemRollupRepository orderItemRollupRepository;
+    private final ClusterMessageBus messageBus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int capacity;
+    private final int hourDays;
+
+    // Replaced wholesale by reload(); entries replaced one by one by replaceDay()
+    private volatile NavigableMap<LocalDate, Day> days = new ConcurrentSkipListMap<>();
+    private volatile NavigableMap<YearMonth, Window> months = new ConcurrentSkipListMap<>();
+
+    public PopularItemsIndex(
+            OrderItemRollupRepository orderItemRollupRepository,
+            ClusterMessageBus messageBus,
+            @Value("${analytics.top-items.capacity:64}") int capacity,
+            @Value("${analytics.top-items.hour-days:31}") int hourDays) {
+        this.orderItemRollupRepository = orderItemRollupRepository;
+        this.messageBus = messageBus;
+        this.capacity = capacity;
+        this.hourDays = Math.max(1, hourDays);
+        messageBus.subscribe(REBUILT_CHANNEL, this::onRebuilt);
+        messageBus.onReconnect(this::reloadScheduled); // rebuilt days announced meanwhile were missed
+    }
+
+    // ====================================================
+    // Maintenance
+    // ====================================================
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(cron = "${analytics.top-items.reload-cron:0 20 4 * * *}")
+    public void reloadScheduled() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("Popular items reload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds every window from the rollup table, one query per month of history.
+     * Day rebuilds wait for it to finish.
+     */
+    public synchronized void reload() {
+        NavigableMap<LocalDate, Day> freshDays = new ConcurrentSkipListMap<>();
+        NavigableMap<YearMonth, Window> freshMonths = new ConcurrentSkipListMap<>();
+
+        LocalDateTime first = orderItemRollupRepository.findMinBucketStart();
+        if (first != null) {
+            for (YearMonth month = YearMonth.from(first); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+                List<Object[]> rows = orderItemRollupRepository.sumHourlyQuantitiesBetween(
+                        month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+                Map<LocalDate, List<Object[]>> byDay = new LinkedHashMap<>();
+                for (Object[] row : rows) {
+                    byDay.computeIfAbsent(((LocalDateTime) row[0]).toLocalDate(), d -> new ArrayList<>()).add(row);
+                }
+                byDay.forEach((day, dayRows) -> freshDays.put(day, buildDay(day, dayRows)));
+                putMonth(freshDays, freshMonths, month);
+            }
+        }
+
+        days = freshDays;
+        months = freshMonths;
+        System.out.println("Popular items: " + freshDays.size() + " days, " + freshMonths.size() + " months");
+    }
+
+    /**
+     * Called by OrderRollupService once a rebuilt day is committed, with the day's new
+     * item rollups; replaces the day here and tells the other nodes to re-read it.
+     */
+    public void dayRebuilt(LocalDate day, List<OrderItemRollup> rollups) {
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderItemRollup rollup : rollups) {
+            // Same filter as sumHourlyQuantitiesBetween
+            if (rollup.getGrain() == RollupGrain.HOUR && rollup.getPaymentStatus() != null
+                    && rollup.getPaymentStatus() != PaymentStatus.PAYMENT_FAILED) {
+                rows.add(new Object[] { rollup.getBucketStart(), rollup.getItemName(), rollup.getOrderStatus(),
+                        rollup.getQuantity() });
+            }
+        }
+        replaceDay(day, rows);
+        messageBus.publish(REBUILT_CHANNEL, nodeId + ":" + day);
+    }
+
+    // "<node id>:<day>" from dayRebuilt on some node
+    private void onRebuilt(String payload) {
+        int colon = payload.indexOf(':');
+        if (payload.substring(0, colon).equals(nodeId)) {
+            return; // replaced before publishing
+        }
+        LocalDate day = LocalDate.parse(payload.substring(colon + 1));
+        replaceDay(day, orderItemRollupRepository.sumHourlyQuantitiesBetween(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+    }
+
+    private synchronized void replaceDay(LocalDate day, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            days.remove(day);
+        } else {
+            days.put(day, buildDay(day, rows));
+        }
+        putMonth(days, months, YearMonth.from(day));
+    }
+
+    // Rows: (hour, item name, order status, units)
+    private Day buildDay(LocalDate day, List<Object[]> rows) {
+        Window total = new Window(capacity);
+        Window[] hours = day.isAfter(LocalDate.now().minusDays(hourDays)) ? new Window[24] : null;
+        for (Object[] row : rows) {
+            String item = (String) row[1];
+            OrderStatus orderStatus = (OrderStatus) row[2];
+            long units = ((Number) row[3]).longValue();
+
+            total.add(item, orderStatus, units);
+            if (hours != null) {
+                int hour = ((LocalDateTime) row[0]).getHour();
+                if (hours[hour] == null) {
+                    hours[hour] = new Window(capacity);
+                }
+                hours[hour].add(item, orderStatus, units);
+            }
+        }
+        return new Day(total, hours);
+    }
+
+    private void putMonth(NavigableMap<LocalDate, Day> days, NavigableMap<YearMonth, Window> months, YearMonth month) {
+        Collection<Day> inMonth = days.subMap(month.atDay(1), month.plusMonths(1).atDay(1)).values();
+        if (inMonth.isEmpty()) {
+            months.remove(month);
+        } else {
+            months.put(month, Window.merge(inMonth.stream().map(Day::total).toList(), capacity));
+        }
+    }
+
+    // ====================================================
+    // Reads
+    // ====================================================
+
+    /**
+     * (item name, units, error) for the {@code limit} best selling items since
+     * {@code start} (null = all time), most sold first; the item sold between
+     * units - error and units. Excludes failed payments; cancelled orders only count if
+     * {@code includeCancelled}. Like the rollups, a range starting mid-hour counts from
+     * the start of that hour.
+     */
+    public List<Object[]> topItemsSince(LocalDateTime start, int limit, boolean includeCancelled) {
+        NavigableMap<LocalDate, Day> days = this.days;
+        NavigableMap<YearMonth, Window> months = this.months;
+        List<Window> windows = new ArrayList<>();
+
+        if (start == null) {
+            windows.addAll(months.values());
+        } else {
+            LocalDate firstDay = start.toLocalDate();
+            LocalDate dayFrom = firstDay;
+            if (!start.equals(firstDay.atStartOfDay())) {
+                dayFrom = firstDay.plusDays(1);
+                Day partial = days.get(firstDay);
+                if (partial != null && partial.hours() != null) {
+                    for (int hour = start.getHour(); hour < 24; hour++) {
+                        if (partial.hours()[hour] != null) {
+                            windows.add(partial.hours()[hour]);
+                        }
+                    }
+                } else if (partial != null) {
+                    // Older than hour-days: this day's hours only live in the rollup table
+                    windows.add(buildDay(firstDay, orderItemRollupRepository.sumHourlyQuantitiesBetween(
+                            start.truncatedTo(ChronoUnit.HOURS), dayFrom.atStartOfDay())).total());
+                }
+            }
+
+            LocalDate monthFrom = dayFrom.getDayOfMonth() == 1 ? dayFrom
+                    : dayFrom.with(TemporalAdjusters.firstDayOfNextMonth());
+            days.subMap(dayFrom, monthFrom).values().forEach(day -> windows.add(day.total()));
+            windows.addAll(months.tailMap(YearMonth.from(monthFrom)).values());
+        }
+
+        List<TopItemsSketch> sketches = windows.stream()
+                .map(window -> includeCancelled ? window.all() : window.kept())
+                .toList();
+        return TopItemsSketch.merge(sketches, capacity).top(limit);
+    }
+
+    // Units per item in one window: all orders, and without the cancelled ones
+    private record Window(TopItemsSketch all, TopItemsSketch kept) {
+
+        Window(int capacity) {
+            this(new TopItemsSketch(capacity), new TopItemsSketch(capacity));
+        }
+
+        void add(String item, OrderStatus orderStatus, long units) {
+            all.add(item, units);
+            if (orderStatus != OrderStatus.CANCELLED) {
+                kept.add(item, units);
+            }
+        }
+
+        static Window merge(List<Window> windows, int capacity) {
+            return new Window(
+                    TopItemsSketch.merge(windows.stream().map(Window::all).toList(), capacity),
+                    TopItemsSketch.merge(windows.stream().map(Window::kept).toList(), capacity));
+        }
+    }
+
+    // hours[h] null for an hour without sales; hours null once the day is older than hour-days
+    private record Day(Window total, Window[] hours) {
+    }
+}
@@ -1,27 +1,97 @@
 package com.chatBot.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import java.util.Optional;
+
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.dto.RestaurantStatus;
 import com.chatBot.model.RestaurantInfo;
 import com.chatBot.repository.RestaurantRepository;
 
+import jakarta.annotation.PostConstruct;
+
+/*
+ * The open/closed flag is read on nearly every incoming WhatsApp message, so it is
+ * served from a volatile field instead of the database:
+ *  - loaded from the DB at startup,
+ *  - written to the DB with one UPDATE that bumps the row's version, then to memory,
+ *  - announced to the other nodes over the ClusterMessageBus as "version:open",
+ *  - re-read from the DB (past the second-level cache) periodically and whenever the bus
+ *    reconnects, as a safety net for missed notifications.
+ * A status only replaces the one in memory if its version is newer, so neither a late
+ * message nor a refresh that read the row before a toggle can undo it.
+ */
 @Service
 public class RestaurantService {
 
-    @Autowired
-    private RestaurantRepository repo;
+    static final String STATUS_CHANNEL = "restaurant.status";
+
+    private static final Long ROW_ID = 1L;
+
+    private final RestaurantRepository repo;
+    private final ClusterMessageBus messageBus;
+
+    private volatile boolean open = true;
+    private long version = -1; // Guarded by this
+
+    public RestaurantService(RestaurantRepository repo, ClusterMessageBus messageBus) {
+        this.repo = repo;
+        this.messageBus = messageBus;
+        messageBus.subscribe(STATUS_CHANNEL, this::onStatusChanged);
+        messageBus.onReconnect(this::refreshStatus);
+    }
+
+    @PostConstruct
+    public void loadStatus() {
+        readStatus().ifPresent(this::apply);
+    }
 
     // Toggle restaurant open/closed status
     public void setRestaurantStatus(boolean status) {
-        RestaurantInfo info = repo.findById(1L).orElse(new RestaurantInfo());
-        info.setOpen(status);
-        repo.save(info);
+        if (repo.updateOpen(ROW_ID, status) == 0) {
+            RestaurantInfo info = new RestaurantInfo(); // first toggle ever
+            info.setOpen(status);
+            repo.save(info);
+        }
+
+        RestaurantStatus saved = readStatus().orElseThrow();
+        apply(saved);
+        messageBus.publish(STATUS_CHANNEL, saved.version() + ":" + saved.open());
     }
 
-    // Get current restaurant status
+    // Get current restaurant status (in-memory, no DB round-trip)
     public boolean getRestaurantStatus() {
-        RestaurantInfo info = repo.findById(1L).orElse(new RestaurantInfo());
-        return info.isOpen();
+        return open;
+    }
+
+    // Reconcile with the DB in case a change notification from another node was missed
+    @Scheduled(fixedDelayString = "${restaurant.status.refresh-ms:30000}",
+               initialDelayString = "${restaurant.status.refresh-ms:30000}")
+    public void refreshStatus() {
+        try {
+            readStatus().ifPresent(this::apply);
+        } catch (Exception e) {
+            System.err.println("Failed to refresh restaurant status: " + e.getMessage());
+        }
+    }
+
+    // Takes the status unless the one in memory is at least as new
+    synchronized void apply(RestaurantStatus status) {
+        if (status.version() > version) {
+            version = status.version();
+            open = status.open();
+        }
+    }
+
+    private void onStatusChanged(String payload) {
+        int colon = payload.indexOf(':');
+        apply(new RestaurantStatus(Boolean.parseBoolean(payload.substring(colon + 1)),
+                Long.parseLong(payload.substring(0, colon))));
+    }
+
+    private Optional<RestaurantStatus> readStatus() {
+        return repo.findStatusById(ROW_ID);
     }
 }
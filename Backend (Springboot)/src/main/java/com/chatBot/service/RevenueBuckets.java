@@ -0,0 +1,187 @@
+package com.chatBot.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.chatBot.model.PaymentMode;
+
+/**
+ * Revenue, order counts and the per payment mode split of a date range, bucketed by day,
+ * week (Monday first) or month into flat arrays indexed by bucket offset.
+ *
+ * Filled in one pass with add(), whatever feeds it (daily rollup rows or single orders):
+ * the bucket of a date is plain arithmetic on its epoch day / month, no per-bucket scan.
+ * Not thread-safe; build one per request.
+ */
+public final class RevenueBuckets {
+
+    public enum Granularity {
+        DAY(731), WEEK(522), MONTH(240); // two, ten and twenty years
+
+        private final int maxBuckets;
+
+        Granularity(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        public int maxBuckets() {
+            return maxBuckets;
+        }
+
+        /**
+         * Earliest start of a range ending on {@code to} that still fits in maxBuckets.
+         */
+        public LocalDate earliestFrom(LocalDate to) {
+            return switch (this) {
+                case DAY -> to.minusDays(maxBuckets - 1);
+                case WEEK -> to.minusWeeks(maxBuckets - 1);
+                case MONTH -> to.minusMonths(maxBuckets - 1);
+            };
+        }
+
+        /**
+         * Case-insensitive lookup ("day", "Week", "MONTH").
+         */
+        public static Granularity from(String value) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(value.trim())) {
+                    return granularity;
+                }
+            }
+            throw new IllegalArgumentException("Invalid granularity: " + value);
+        }
+    }
+
+    private static final PaymentMode[] MODES = PaymentMode.values();
+
+    private final Granularity granularity;
+    private final LocalDate start; // start of the first bucket
+    private final long startIndex; // epoch day (DAY/WEEK) or epoch month (MONTH) of start
+    private final double[] revenue;
+    private final long[] orders;
+    private final long[] ordersByMode; // [bucket * MODES.length + mode.ordinal()]
+
+    /**
+     * Buckets covering {@code from} to {@code to}, both inclusive; the first and last
+     * bucket are widened to whole weeks/months.
+     *
+     * @throws IllegalArgumentException if the range ends before it starts or needs more
+     *         than the granularity's maxBuckets
+     */
+    public RevenueBuckets(Granularity granularity, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + from + " - " + to);
+        }
+        this.granularity = granularity;
+        this.start = switch (granularity) {
+            case DAY -> from;
+            case WEEK -> from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> from.withDayOfMonth(1);
+        };
+        this.startIndex = granularity == Granularity.MONTH ? epochMonth(start) : start.toEpochDay();
+
+        long size = index(to) + 1;
+        if (size > granularity.maxBuckets()) {
+            throw new IllegalArgumentException("Range too long for " + granularity.name().toLowerCase(Locale.ROOT)
+                    + " buckets: " + from + " - " + to + " needs " + size + ", at most " + granularity.maxBuckets());
+        }
+        this.revenue = new double[(int) size];
+        this.orders = new long[(int) size];
+        this.ordersByMode = new long[(int) size * MODES.length];
+    }
+
+    /**
+     * Adds {@code orderCount} orders worth {@code amount} placed on {@code day}. Days
+     * outside the range are ignored; a null mode only counts towards the totals.
+     */
+    public void add(LocalDate day, PaymentMode mode, long orderCount, double amount) {
+        long index = index(day);
+        if (index < 0 || index >= orders.length) {
+            return;
+        }
+        int bucket = (int) index;
+        revenue[bucket] += amount;
+        orders[bucket] += orderCount;
+        if (mode != null) {
+            ordersByMode[bucket * MODES.length + mode.ordinal()] += orderCount;
+        }
+    }
+
+    private long index(LocalDate day) {
+        return switch (granularity) {
+            case DAY -> day.toEpochDay() - startIndex;
+            case WEEK -> Math.floorDiv(day.toEpochDay() - startIndex, 7);
+            case MONTH -> epochMonth(day) - startIndex;
+        };
+    }
+
+    private static long epochMonth(LocalDate day) {
+        return day.getYear() * 12L + day.getMonthValue() - 1;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public int size() {
+        return orders.length;
+    }
+
+    public LocalDate bucketStart(int bucket) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(bucket);
+            case WEEK -> start.plusWeeks(bucket);
+            case MONTH -> start.plusMonths(bucket);
+        };
+    }
+
+    public double revenue(int bucket) {
+        return revenue[bucket];
+    }
+
+    public long orders(int bucket) {
+        return orders[bucket];
+    }
+
+    public long orders(int bucket, PaymentMode mode) {
+        return ordersByMode[bucket * MODES.length + mode.ordinal()];
+    }
+
+    /**
+     * Chart label: "M/d" of the day or week start, "Mon YYYY" for months.
+     */
+    public String label(int bucket) {
+        LocalDate date = bucketStart(bucket);
+        if (granularity == Granularity.MONTH) {
+            return date.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + date.getYear();
+        }
+        return date.getMonthValue() + "/" + date.getDayOfMonth();
+    }
+
+    /**
+     * One row per bucket: label, start, revenue (rounded to paise), orders and orders per
+     * payment mode.
+     */
+    public List<Map<String, Object>> toRows() {
+        List<Map<String, Object>> rows = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("date", label(i));
+            row.put("start", bucketStart(i).toString());
+            row.put("revenue", Math.round(revenue[i] * 100.0) / 100.0);
+            row.put("orders", orders[i]);
+            for (PaymentMode mode : MODES) {
+                row.put(mode.name().toLowerCase(Locale.ROOT), orders(i, mode));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
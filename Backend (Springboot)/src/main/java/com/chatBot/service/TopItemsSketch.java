@@ -0,0 +1,139 @@
+package com.chatBot.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of units sold per item: at most {@code capacity} counters, each an
+ * upper bound on the item's units with the most it can overcount by.
+ *
+ *  - an item that is listed sold between count - error and count units,
+ *  - an item that is not listed sold at most floor() units,
+ *  - for a sketch filled with add(), floor() is at most total() / capacity, so every item
+ *    that sold more than that is listed.
+ *
+ * With no more distinct items than counters nothing is evicted and the counts are exact.
+ * Sketches of adjacent windows (hours, days, months) merge into a sketch of the combined
+ * window with the same two guarantees; its floor is the sum of the inputs' floors, or the
+ * largest count it had to drop if that is higher. merge() never modifies its inputs.
+ * Not thread-safe while being filled; treat a filled sketch as read-only.
+ */
+public final class TopItemsSketch {
+
+    private final int capacity;
+    private final Map<String, long[]> counters; // item -> { count, error }
+    private long total;
+    private long floor;                          // most units an unlisted item can have sold
+
+    public TopItemsSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+    }
+
+    /**
+     * Counts {@code units} more for {@code item}. When all counters are taken, the item
+     * replaces the smallest one and inherits its count as error.
+     */
+    public void add(String item, long units) {
+        if (units <= 0) {
+            return;
+        }
+        total += units;
+        long[] counter = counters.get(item);
+        if (counter != null) {
+            counter[0] += units;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new long[] { units, 0 });
+            return;
+        }
+
+        // Linear scan: sketches are filled from pre-aggregated rollup rows, a few per item
+        Map.Entry<String, long[]> smallest = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long evicted = smallest.getValue()[0];
+        counters.remove(smallest.getKey());
+        counters.put(item, new long[] { evicted + units, evicted });
+        floor = Math.max(floor, evicted);
+    }
+
+    /**
+     * Sketch of the union of the windows {@code sketches} cover. An item missing from one
+     * of them is counted at that sketch's floor, so counts stay upper bounds; if more than
+     * {@code capacity} items remain, the smallest are dropped into the floor.
+     */
+    public static TopItemsSketch merge(Collection<TopItemsSketch> sketches, int capacity) {
+        TopItemsSketch merged = new TopItemsSketch(capacity);
+        long sumOfFloors = 0;
+        for (TopItemsSketch sketch : sketches) {
+            sumOfFloors += sketch.floor;
+            merged.total += sketch.total;
+        }
+        long floors = sumOfFloors;
+
+        // Every item starts at the sum of floors; each sketch that lists it swaps its floor for its counter
+        Map<String, long[]> union = new HashMap<>();
+        for (TopItemsSketch sketch : sketches) {
+            for (Map.Entry<String, long[]> entry : sketch.counters.entrySet()) {
+                long[] counter = union.computeIfAbsent(entry.getKey(), k -> new long[] { floors, floors });
+                counter[0] += entry.getValue()[0] - sketch.floor;
+                counter[1] += entry.getValue()[1] - sketch.floor;
+            }
+        }
+
+        merged.floor = floors;
+        if (union.size() <= capacity) {
+            merged.counters.putAll(union);
+            return merged;
+        }
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(union.entrySet());
+        entries.sort(BY_COUNT_DESC);
+        for (int i = 0; i < capacity; i++) {
+            merged.counters.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        merged.floor = Math.max(floors, entries.get(capacity).getValue()[0]);
+        return merged;
+    }
+
+    /**
+     * (item name, units, error) for the {@code limit} largest counts, largest first.
+     * The item sold between units - error and units.
+     */
+    public List<Object[]> top(int limit) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(BY_COUNT_DESC);
+        return entries.stream()
+                .limit(limit)
+                .map(e -> new Object[] { e.getKey(), e.getValue()[0], e.getValue()[1] })
+                .toList();
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long floor() {
+        return floor;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    // Ties by name, so equal counts come out in the same order on every node
+    private static final Comparator<Map.Entry<String, long[]>> BY_COUNT_DESC = Comparator
+            .comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed()
+            .thenComparing(Map.Entry::getKey);
+}
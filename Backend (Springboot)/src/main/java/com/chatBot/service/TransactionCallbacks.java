@@ -0,0 +1,25 @@
+package com.chatBot.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Side effects that must only happen once the current transaction has committed
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    // Runs once the surrounding transaction has committed (right away without one)
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.chatBot.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+
+import com.chatBot.config.AnalyticsTransactional;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming export of the transactions list (the rows /api/orders/transactions shows) for
+ * the accountants' year-end exports, as CSV or NDJSON.
+ *
+ * Rows come from forward-only cursors with a fetch size (hot orders, plus the archive when
+ * the range reaches it), merged by order time and written out one by one as projection
+ * rows, so memory stays flat whatever the range. Runs on the analytics pool.
+ */
+@Service
+public class TransactionExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String[] COLUMNS = { "id", "customerName", "userPhone", "paymentMode", "status",
+            "totalPrice", "razorpayPaymentId", "orderTime", "orderStatus" };
+
+    // Cursor rows: (id, customer name, phone, payment mode, payment status, total,
+    // Razorpay payment id, order time, order status)
+    private static final Comparator<Object[]> BY_ORDER_TIME = Comparator
+            .comparing((Object[] row) -> (LocalDateTime) row[7])
+            .thenComparing(row -> (Long) row[0]);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+            OrderArchiveService orderArchiveService, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the transactions placed in [from, to), oldest first, optionally only those
+     * paid with {@code mode}. Null bounds/mode are not filtered on.
+     *
+     * @return number of rows written
+     */
+    @AnalyticsTransactional
+    public long exportTransactions(OutputStream out, String format, LocalDateTime from, LocalDateTime to,
+            PaymentMode mode) throws IOException {
+        boolean ndjson = FORMAT_NDJSON.equalsIgnoreCase(format);
+        if (!ndjson && !FORMAT_CSV.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        try (Stream<Object[]> hot = orderRepository.streamTransactions(from, to, mode);
+                Stream<Object[]> cold = orderArchiveService.mayHoldOrdersFrom(from)
+                        ? archivedOrderRepository.streamTransactions(from, to, mode)
+                        : Stream.empty()) {
+            return ndjson ? writeNdjson(out, hot.iterator(), cold.iterator())
+                    : writeCsv(out, hot.iterator(), cold.iterator());
+        }
+    }
+
+    private long writeCsv(OutputStream out, Iterator<Object[]> hot, Iterator<Object[]> cold) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS) + "\n");
+
+        long rows = 0;
+        Merge merge = new Merge(hot, cold);
+        for (Object[] row = merge.next(); row != null; row = merge.next()) {
+            writer.write(row[0] + ","
+                    + MenuImportService.csvEscape((String) row[1]) + ","
+                    + MenuImportService.csvEscape((String) row[2]) + ","
+                    + ((PaymentMode) row[3]).getLabel() + ","
+                    + ((PaymentStatus) row[4]).name() + ","
+                    + (row[5] != null ? row[5] : "") + ","
+                    + MenuImportService.csvEscape(row[6] != null ? (String) row[6] : "N/A") + ","
+                    + row[7] + ","
+                    + ((OrderStatus) row[8]).getLabel() + "\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(OutputStream out, Iterator<Object[]> hot, Iterator<Object[]> cold) throws IOException {
+        long rows = 0;
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.setRootValueSeparator(null); // one object per line, see writeRaw below
+            Merge merge = new Merge(hot, cold);
+            for (Object[] row = merge.next(); row != null; row = merge.next()) {
+                gen.writeStartObject();
+                gen.writeNumberField(COLUMNS[0], (Long) row[0]);
+                gen.writeStringField(COLUMNS[1], (String) row[1]);
+                gen.writeStringField(COLUMNS[2], (String) row[2]);
+                gen.writeStringField(COLUMNS[3], ((PaymentMode) row[3]).getLabel());
+                gen.writeStringField(COLUMNS[4], ((PaymentStatus) row[4]).name());
+                if (row[5] != null) {
+                    gen.writeNumberField(COLUMNS[5], (Double) row[5]);
+                } else {
+                    gen.writeNullField(COLUMNS[5]);
+                }
+                gen.writeStringField(COLUMNS[6], row[6] != null ? (String) row[6] : "N/A");
+                gen.writeStringField(COLUMNS[7], row[7].toString());
+                gen.writeStringField(COLUMNS[8], ((OrderStatus) row[8]).getLabel());
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Two cursors that are each sorted by (order time, id), read as one
+    private static final class Merge {
+
+        private final Iterator<Object[]> a;
+        private final Iterator<Object[]> b;
+        private Object[] nextA;
+        private Object[] nextB;
+
+        Merge(Iterator<Object[]> a, Iterator<Object[]> b) {
+            this.a = a;
+            this.b = b;
+            this.nextA = a.hasNext() ? a.next() : null;
+            this.nextB = b.hasNext() ? b.next() : null;
+        }
+
+        // Null once both are exhausted
+        Object[] next() {
+            Object[] row;
+            if (nextB == null || (nextA != null && BY_ORDER_TIME.compare(nextA, nextB) <= 0)) {
+                row = nextA;
+                nextA = a.hasNext() ? a.next() : null;
+            } else {
+                row = nextB;
+                nextB = b.hasNext() ? b.next() : null;
+            }
+            return row;
+        }
+    }
+}
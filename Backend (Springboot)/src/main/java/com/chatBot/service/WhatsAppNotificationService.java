@@ -6,7 +6,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PreDestroy;
+
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class WhatsAppNotificationService {
@@ -19,6 +24,14 @@ public class WhatsAppNotificationService {
 
     private final RestTemplate restTemplate = new RestTemplate();
 
+    // One background sender: bulk notifications leave the request thread and reach the
+    // Graph API one at a time, in the order they were queued
+    private final ExecutorService outbox = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "whatsapp-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * 📩 Sends WhatsApp message (used only for restaurant → customer notifications)
      */
@@ -41,4 +54,23 @@ public class WhatsAppNotificationService {
 
         restTemplate.postForEntity(url, request, String.class);
     }
-}
\ No newline at end of file
+
+    /**
+     * Queues the message for the background sender and returns immediately.
+     * Failures are logged, not thrown.
+     */
+    public void queueMessage(String toPhone, String messageText) {
+        outbox.execute(() -> {
+            try {
+                sendMessage(toPhone, messageText);
+            } catch (Exception e) {
+                System.err.println("Failed to send queued WhatsApp message to " + toPhone + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        outbox.shutdown();
+    }
+}
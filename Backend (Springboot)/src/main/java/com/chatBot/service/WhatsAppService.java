@@ -24,6 +24,8 @@ import org.springframework.web.client.RestTemplate;
 import com.chatBot.config.GoogleApiConfig;
 import com.chatBot.model.MenuItem;
 import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentStatus;
 import com.chatBot.model.UserSession;
 import com.chatBot.repository.MenuItemRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -253,8 +255,8 @@ Where:
                             return;
                         }
                         
-                        String orderStatus = order.getOrderStatus();
-                        String paymentStatus = order.getStatus();
+                        String orderStatus = order.getOrderStatus().getLabel();
+                        String paymentStatus = order.getStatus().name();
                         
                         StringBuilder statusMsg = new StringBuilder("📦 *Order Status*\n\n");
                         statusMsg.append("Order ID: *#").append(order.getId()).append("*\n");
@@ -326,14 +328,13 @@ Where:
                 Optional<Order> lastOrder = orderService.findMostRecentOrderByPhone(userPhone);
                 if (lastOrder.isPresent()) {
                     Order order = lastOrder.get();
-                    String orderStatus = order.getOrderStatus();
+                    OrderStatus orderStatus = order.getOrderStatus();
                     
                     // If order is still Pending, customer can cancel
-                    if ("Pending".equalsIgnoreCase(orderStatus)) {
+                    if (orderStatus == OrderStatus.PENDING) {
                         try {
                             // ⭐ BUG FIX 1: Revoke Payment Link if payment mode was online AND payment is PENDING
-                            if (("UPI".equalsIgnoreCase(order.getPaymentMode()) || "Card".equalsIgnoreCase(order.getPaymentMode())) && 
-                                "PENDING".equalsIgnoreCase(order.getStatus())) {
+                            if (order.getPaymentMode().isOnline() && order.getStatus() == PaymentStatus.PENDING) {
                                 
                                 // Fetch the saved ID from the Order entity and revoke the link
                                 // NOTE: Order.razorpayPaymentId stores the Razorpay Payment Link ID (plink_xxx)
@@ -343,7 +344,7 @@ Where:
 
                             // Cancel the order in database. 
                             // The OrderService will detect the status change and send the branded notification.
-                            orderService.updateOrderStatus(order.getId(), "Cancelled");
+                            orderService.cancelPendingOrder(order.getId());
                             
                             // ⭐ FINAL FIX: Only send a minimal confirmation message here, to avoid duplication 
                             // with the detailed branded message sent by the OrderService.
@@ -351,6 +352,14 @@ Where:
                                 "✅ Your order #" + order.getId() + " has been marked cancelled.\n" +
                                 "You can place a new order anytime by typing *Order*. 😊");
                             
+                        } catch (OrderStatusConflictException e) {
+                            // The restaurant picked it up in the meantime
+                            sendMessage(userPhone,
+                                "⚠️ Your order #" + order.getId() + " is already being processed by the restaurant.\n\n" +
+                                "Status: *" + e.getCurrentStatus().getLabel() + "*\n\n" +
+                                "Please contact us directly to cancel:\n" +
+                                "📞 Contact no.: +91-9999900000\n\n" +
+                                "Thank you for your understanding! 🙏");
                         } catch (Exception e) {
                             sendMessage(userPhone,
                                 "❌ Failed to cancel order. Please contact the restaurant.\n" +
@@ -358,10 +367,10 @@ Where:
                         }
                     } 
                     // Simplified check: If it's not Pending and not already Cancelled, it's processing.
-                    else if (!"Cancelled".equalsIgnoreCase(orderStatus)) { 
+                    else if (orderStatus != OrderStatus.CANCELLED) { 
                         sendMessage(userPhone,
                             "⚠️ Your order #" + order.getId() + " is already being processed by the restaurant.\n\n" +
-                            "Status: *" + orderStatus + "*\n\n" +
+                            "Status: *" + orderStatus.getLabel() + "*\n\n" +
                             "Please contact us directly to cancel:\n" +
                             "📞 Contact no.: +91-9999900000\n\n" +
                             "Thank you for your understanding! 🙏");
@@ -391,12 +400,12 @@ Where:
                         // Handle previous PAYMENT_FAILED state and CLEANUP
                         // The link is revoked only if the user chooses to start a new order after failure.
                         Optional<Order> lastOrder = orderService.findMostRecentOrderByPhone(userPhone);
-                        if (lastOrder.isPresent() && "PAYMENT_FAILED".equalsIgnoreCase(lastOrder.get().getStatus())) {
+                        if (lastOrder.isPresent() && lastOrder.get().getStatus() == PaymentStatus.PAYMENT_FAILED) {
                             
                             Order failedOrder = lastOrder.get();
                             
                             // 1. REVOKE THE ACTIVE LINK BEFORE PROCEEDING
-                            if ("UPI".equalsIgnoreCase(failedOrder.getPaymentMode()) || "Card".equalsIgnoreCase(failedOrder.getPaymentMode())) {
+                            if (failedOrder.getPaymentMode().isOnline()) {
                                 try {
                                     // Use the stored Payment Link ID to cancel the link on Razorpay's end
                                     razorpayService.cancelPaymentLink(failedOrder.getRazorpayPaymentId());
@@ -408,13 +417,12 @@ Where:
                             
                             // 2. MARK THE ORDER INTERNALLY AS CANCELLED (Cleanup database record)
                             try {
-                                // Update Order status to internally mark it as Cancelled/Finished
-                                failedOrder.setOrderStatus("Cancelled");
-                                // Keep the Payment Status as PAYMENT_FAILED for analytics/tracking history
-                                orderService.updateOrder(failedOrder); 
+                                // Same guarded move and status log as any other cancellation;
+                                // the Payment Status stays PAYMENT_FAILED for analytics/tracking history
+                                orderService.cancelFailedPaymentOrder(failedOrder.getId());
                                 System.out.println("DB Updated: Failed Order ID: " + failedOrder.getId() + " marked Cancelled.");
                             } catch (Exception ignored) {
-                                // Silently ignore database save error, but the link cancellation attempt was made.
+                                // Silently ignore database save error (or an order already cancelled), but the link cancellation attempt was made.
                             }
                             
                             // 3. Send restart prompt (UX fix)
@@ -634,8 +642,8 @@ Where:
 
                         // Save the Link ID to the Order entity
                         // This ID is crucial for revoking the link later if the order is cancelled or payment fails and user restarts.
-                        order.setRazorpayPaymentId(paymentLinkId); // Use the existing field name from Order.java
-                        orderService.updateOrder(order); // Save the updated Order entity
+                        // Only that column: the restaurant may already be working on the order
+                        orderService.setPaymentLinkId(order.getId(), paymentLinkId);
                         
                         // Include Order ID in payment link message
                         StringBuilder paymentMsg = new StringBuilder("💳 *Payment Link Generated*\n\n");
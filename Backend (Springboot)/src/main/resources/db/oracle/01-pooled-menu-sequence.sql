@@ -0,0 +1,17 @@
+-- MenuItem ids are allocated in blocks of 50 (Hibernate pooled optimizer), so a bulk
+-- import costs one sequence call per 50 rows instead of one per row.
+-- Hibernate refuses to start when the mapped allocationSize and the database increment
+-- differ, so an existing sequence is widened here before the EntityManagerFactory boots.
+-- On a fresh schema there is nothing to do: Hibernate creates the sequence itself.
+DECLARE
+    v_increment NUMBER;
+BEGIN
+    SELECT increment_by INTO v_increment FROM user_sequences WHERE sequence_name = 'MENU_SEQ';
+    IF v_increment <> 50 THEN
+        EXECUTE IMMEDIATE 'ALTER SEQUENCE menu_seq INCREMENT BY 50';
+    END IF;
+EXCEPTION
+    WHEN NO_DATA_FOUND THEN
+        NULL;
+END;
+/
@@ -0,0 +1,21 @@
+-- Order and OrderItem ids are allocated in blocks of 50 (Hibernate pooled optimizer), so
+-- placing an order no longer costs a sequence round-trip per row.
+-- Same approach as 01-pooled-menu-sequence.sql: widen existing sequences so the mapped
+-- allocationSize matches; fresh schemas get the right increment from Hibernate.
+DECLARE
+    PROCEDURE widen(p_sequence VARCHAR2) IS
+        v_increment NUMBER;
+    BEGIN
+        SELECT increment_by INTO v_increment FROM user_sequences WHERE sequence_name = p_sequence;
+        IF v_increment <> 50 THEN
+            EXECUTE IMMEDIATE 'ALTER SEQUENCE ' || p_sequence || ' INCREMENT BY 50';
+        END IF;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            NULL;
+    END;
+BEGIN
+    widen('ORDER_SEQ');
+    widen('ORDER_ITEM_SEQ');
+END;
+/
@@ -0,0 +1,38 @@
+-- Order lines carry a snapshot of the menu item's name and unit price at order time
+-- (OrderItem.itemName / unitPrice). Adds the columns to an existing order_item table and
+-- backfills rows created before the snapshot existed from the current menu, in batches
+-- of 10k rows per commit. Safe to run on every startup: it only touches rows still NULL.
+DECLARE
+    v_count NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'ORDER_ITEM';
+    IF v_count = 0 THEN
+        RETURN;
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tab_columns
+     WHERE table_name = 'ORDER_ITEM' AND column_name = 'ITEM_NAME';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE order_item ADD (item_name VARCHAR2(255 CHAR))';
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tab_columns
+     WHERE table_name = 'ORDER_ITEM' AND column_name = 'UNIT_PRICE';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE order_item ADD (unit_price FLOAT(53))';
+    END IF;
+
+    LOOP
+        EXECUTE IMMEDIATE
+            'UPDATE order_item oi
+                SET (item_name, unit_price) =
+                    (SELECT m.name, m.price FROM menu_items m WHERE m.id = oi.menu_item_id)
+              WHERE (oi.item_name IS NULL OR oi.unit_price IS NULL)
+                AND EXISTS (SELECT 1 FROM menu_items m WHERE m.id = oi.menu_item_id)
+                AND ROWNUM <= 10000';
+        EXIT WHEN SQL%ROWCOUNT = 0;
+        COMMIT;
+    END LOOP;
+    COMMIT;
+END;
+/
@@ -0,0 +1,55 @@
+-- Order.status / orderStatus / paymentMode are enums stored by name (PENDING, CANCELLED,
+-- CASH, UPI, ...) so queries can compare columns directly instead of UPPER(col), which
+-- no index can serve. Rewrites legacy free-form values ("Pending", "Upi", "FAILED", NULL)
+-- in orders and orders_archive, 10k rows per commit, then adds the composite indexes the
+-- listings and dashboard filter on. Safe to run on every startup: only rows that are not
+-- yet normalized are touched and existing indexes are left alone.
+DECLARE
+    v_count NUMBER;
+
+    PROCEDURE normalize(p_table VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = UPPER(p_table);
+        IF v_count = 0 THEN
+            RETURN;
+        END IF;
+
+        LOOP
+            EXECUTE IMMEDIATE
+                'UPDATE ' || p_table || '
+                    SET order_status = NVL(UPPER(TRIM(order_status)), ''PENDING''),
+                        status       = DECODE(UPPER(TRIM(status)), ''FAILED'', ''PAYMENT_FAILED'',
+                                                                  NULL, ''PENDING'',
+                                                                  UPPER(TRIM(status))),
+                        payment_mode = UPPER(TRIM(payment_mode))
+                  WHERE (order_status IS NULL OR order_status <> UPPER(TRIM(order_status))
+                         OR status IS NULL OR status <> UPPER(TRIM(status)) OR status = ''FAILED''
+                         OR payment_mode <> UPPER(TRIM(payment_mode)))
+                    AND ROWNUM <= 10000';
+            EXIT WHEN SQL%ROWCOUNT = 0;
+            COMMIT;
+        END LOOP;
+        COMMIT;
+    END;
+
+    PROCEDURE create_index(p_name VARCHAR2, p_columns VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_indexes WHERE index_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE 'CREATE INDEX ' || p_name || ' ON orders (' || p_columns || ')';
+        END IF;
+    END;
+BEGIN
+    normalize('orders');
+    normalize('orders_archive');
+
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'ORDERS';
+    IF v_count = 0 THEN
+        RETURN; -- fresh schema: Hibernate creates the table with these indexes
+    END IF;
+
+    create_index('idx_orders_phone_time', 'user_phone, order_time');
+    create_index('idx_orders_order_status_time', 'order_status, order_time');
+    create_index('idx_orders_status_time', 'status, order_time');
+END;
+/
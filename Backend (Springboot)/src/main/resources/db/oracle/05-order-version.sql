@@ -0,0 +1,30 @@
+-- Optimistic-lock column for orders (Order.version). Hibernate's ddl-auto would add it
+-- as a nullable column and existing rows would keep NULL, which breaks the version check
+-- and the "version = version + 1" of the status transition UPDATE, so it is added here
+-- with a default. Safe to run on every startup.
+DECLARE
+    v_count NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'ORDERS';
+    IF v_count = 0 THEN
+        RETURN;
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tab_columns
+     WHERE table_name = 'ORDERS' AND column_name = 'VERSION';
+    IF v_count = 0 THEN
+        -- Oracle fills the default in as metadata, no rewrite of existing rows
+        EXECUTE IMMEDIATE 'ALTER TABLE orders ADD (version NUMBER(19) DEFAULT 0 NOT NULL)';
+        RETURN;
+    END IF;
+
+    -- Column already created by Hibernate before this script existed: backfill the NULLs
+    LOOP
+        EXECUTE IMMEDIATE
+            'UPDATE orders SET version = 0 WHERE version IS NULL AND ROWNUM <= 10000';
+        EXIT WHEN SQL%ROWCOUNT = 0;
+        COMMIT;
+    END LOOP;
+    COMMIT;
+END;
+/
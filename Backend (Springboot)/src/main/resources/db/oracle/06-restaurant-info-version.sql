@@ -0,0 +1,24 @@
+-- Version column for the restaurant open flag (RestaurantInfo.version). Every toggle bumps
+-- it and nodes ignore a status older than the one they hold, so a NULL left by
+-- Hibernate's ddl-auto would break "version = version + 1"; it is added here with a
+-- default. Safe to run on every startup.
+DECLARE
+    v_count NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'RESTAURANT_INFO';
+    IF v_count = 0 THEN
+        RETURN;
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tab_columns
+     WHERE table_name = 'RESTAURANT_INFO' AND column_name = 'VERSION';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE restaurant_info ADD (version NUMBER(19) DEFAULT 0 NOT NULL)';
+        RETURN;
+    END IF;
+
+    -- Column already created by Hibernate before this script existed
+    EXECUTE IMMEDIATE 'UPDATE restaurant_info SET version = 0 WHERE version IS NULL';
+    COMMIT;
+END;
+/
@@ -0,0 +1,64 @@
+-- Cold tables for OrderArchiveService (ArchivedOrder, ArchivedOrderItem) and its state row
+-- (OrderArchiveState): id 1 holds the archive horizon and is the lock archival batches
+-- take. Ids are copied from the hot tables, so there are no sequences. The horizon of an
+-- archive that predates the state row is its newest order time. Safe to run on every
+-- startup: only what is missing is created.
+DECLARE
+    v_count NUMBER;
+
+    PROCEDURE create_table(p_name VARCHAR2, p_ddl VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE p_ddl;
+        END IF;
+    END;
+
+    PROCEDURE create_index(p_name VARCHAR2, p_ddl VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_indexes WHERE index_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE p_ddl;
+        END IF;
+    END;
+BEGIN
+    create_table('orders_archive',
+        'CREATE TABLE orders_archive (
+             id                  NUMBER(19) PRIMARY KEY,
+             customer_name       VARCHAR2(255 CHAR) NOT NULL,
+             user_phone          VARCHAR2(255 CHAR) NOT NULL,
+             status              VARCHAR2(255 CHAR),
+             payment_mode        VARCHAR2(255 CHAR),
+             total_price         FLOAT(53),
+             order_time          TIMESTAMP(6),
+             order_status        VARCHAR2(255 CHAR),
+             razorpay_payment_id VARCHAR2(255 CHAR),
+             archived_at         TIMESTAMP(6))');
+    create_index('idx_orders_archive_time_id',
+        'CREATE INDEX idx_orders_archive_time_id ON orders_archive (order_time, id)');
+
+    create_table('order_item_archive',
+        'CREATE TABLE order_item_archive (
+             id           NUMBER(19) PRIMARY KEY,
+             order_id     NUMBER(19) NOT NULL,
+             menu_item_id NUMBER(19),
+             quantity     NUMBER(10) NOT NULL,
+             item_name    VARCHAR2(255 CHAR),
+             unit_price   FLOAT(53))');
+    create_index('idx_order_item_archive_order',
+        'CREATE INDEX idx_order_item_archive_order ON order_item_archive (order_id)');
+
+    create_table('order_archive_state',
+        'CREATE TABLE order_archive_state (
+             id      NUMBER(19) PRIMARY KEY,
+             horizon TIMESTAMP(6))');
+
+    -- Dynamic: the table may only have been created above
+    EXECUTE IMMEDIATE 'SELECT COUNT(*) FROM order_archive_state WHERE id = 1' INTO v_count;
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE
+            'INSERT INTO order_archive_state (id, horizon) SELECT 1, MAX(order_time) FROM orders_archive';
+        COMMIT;
+    END IF;
+END;
+/
@@ -0,0 +1,64 @@
+-- Analytics rollups (OrderRollup, OrderItemRollup): per HOUR/DAY bucket totals that
+-- OrderRollupService rebuilds in place, one row per unique key. Ids come from pooled
+-- sequences (allocationSize 50, hence INCREMENT BY 50). Safe to run on every startup:
+-- only what is missing is created.
+DECLARE
+    v_count NUMBER;
+
+    PROCEDURE create_sequence(p_name VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_sequences WHERE sequence_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE 'CREATE SEQUENCE ' || p_name || ' START WITH 1 INCREMENT BY 50';
+        END IF;
+    END;
+
+    PROCEDURE create_table(p_name VARCHAR2, p_ddl VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE p_ddl;
+        END IF;
+    END;
+
+    PROCEDURE create_index(p_name VARCHAR2, p_ddl VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_indexes WHERE index_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE p_ddl;
+        END IF;
+    END;
+BEGIN
+    create_sequence('order_rollup_seq');
+    create_table('order_rollup',
+        'CREATE TABLE order_rollup (
+             id             NUMBER(19) PRIMARY KEY,
+             grain          VARCHAR2(255 CHAR) NOT NULL,
+             bucket_start   TIMESTAMP(6) NOT NULL,
+             payment_mode   VARCHAR2(255 CHAR),
+             payment_status VARCHAR2(255 CHAR),
+             order_status   VARCHAR2(255 CHAR),
+             order_count    NUMBER(19) NOT NULL,
+             revenue        FLOAT(53) NOT NULL,
+             CONSTRAINT uq_order_rollup
+                 UNIQUE (grain, bucket_start, payment_mode, payment_status, order_status))');
+    create_index('idx_order_rollup_bucket',
+        'CREATE INDEX idx_order_rollup_bucket ON order_rollup (bucket_start, grain)');
+
+    create_sequence('order_item_rollup_seq');
+    create_table('order_item_rollup',
+        'CREATE TABLE order_item_rollup (
+             id             NUMBER(19) PRIMARY KEY,
+             grain          VARCHAR2(255 CHAR) NOT NULL,
+             bucket_start   TIMESTAMP(6) NOT NULL,
+             item_name      VARCHAR2(255 CHAR) NOT NULL,
+             payment_mode   VARCHAR2(255 CHAR),
+             payment_status VARCHAR2(255 CHAR),
+             order_status   VARCHAR2(255 CHAR),
+             quantity       NUMBER(19) NOT NULL,
+             CONSTRAINT uq_order_item_rollup
+                 UNIQUE (grain, bucket_start, item_name, payment_mode, payment_status, order_status))');
+    create_index('idx_order_item_rollup_bucket',
+        'CREATE INDEX idx_order_item_rollup_bucket ON order_item_rollup (bucket_start, grain)');
+END;
+/
@@ -0,0 +1,29 @@
+-- Distinct-customer rollup (CustomerRollup): one HyperLogLog sketch per HOUR/DAY bucket,
+-- rebuilt in place by OrderRollupService. Ids come from a pooled sequence (allocationSize
+-- 50, hence INCREMENT BY 50). Safe to run on every startup: only what is missing is
+-- created.
+DECLARE
+    v_count NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO v_count FROM user_sequences WHERE sequence_name = 'CUSTOMER_ROLLUP_SEQ';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'CREATE SEQUENCE customer_rollup_seq START WITH 1 INCREMENT BY 50';
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'CUSTOMER_ROLLUP';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE
+            'CREATE TABLE customer_rollup (
+                 id              NUMBER(19) PRIMARY KEY,
+                 grain           VARCHAR2(255 CHAR) NOT NULL,
+                 bucket_start    TIMESTAMP(6) NOT NULL,
+                 customer_sketch BLOB NOT NULL,
+                 CONSTRAINT uq_customer_rollup UNIQUE (grain, bucket_start))';
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_indexes WHERE index_name = 'IDX_CUSTOMER_ROLLUP_BUCKET';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'CREATE INDEX idx_customer_rollup_bucket ON customer_rollup (bucket_start, grain)';
+    END IF;
+END;
+/
@@ -0,0 +1,35 @@
+-- Order status log (OrderStatusTransition): one row per status change, written by
+-- OrderStatusHistoryService in the same transaction as the change. Ids come from a pooled
+-- sequence (allocationSize 50, hence INCREMENT BY 50). Safe to run on every startup:
+-- only what is missing is created.
+DECLARE
+    v_count NUMBER;
+
+    PROCEDURE create_index(p_name VARCHAR2, p_columns VARCHAR2) IS
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_indexes WHERE index_name = UPPER(p_name);
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE 'CREATE INDEX ' || p_name || ' ON order_status_transition (' || p_columns || ')';
+        END IF;
+    END;
+BEGIN
+    SELECT COUNT(*) INTO v_count FROM user_sequences WHERE sequence_name = 'ORDER_STATUS_TRANSITION_SEQ';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE 'CREATE SEQUENCE order_status_transition_seq START WITH 1 INCREMENT BY 50';
+    END IF;
+
+    SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'ORDER_STATUS_TRANSITION';
+    IF v_count = 0 THEN
+        EXECUTE IMMEDIATE
+            'CREATE TABLE order_status_transition (
+                 id          NUMBER(19) PRIMARY KEY,
+                 order_id    NUMBER(19) NOT NULL,
+                 from_status VARCHAR2(255 CHAR),
+                 to_status   VARCHAR2(255 CHAR) NOT NULL,
+                 changed_at  TIMESTAMP(6) NOT NULL)';
+    END IF;
+
+    create_index('idx_order_status_transition_order', 'order_id');
+    create_index('idx_order_status_transition_time', 'changed_at');
+END;
+/
@@ -0,0 +1,158 @@
+package com.chatBot.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two buses, standing in for two bot nodes, on an embedded ActiveMQ broker with a STOMP
+ * connector: what one node publishes reaches both, also after the broker went away and
+ * came back, and the nodes are told they reconnected.
+ */
+class StompClusterMessageBusTest {
+
+    private int port;
+    private BrokerService broker;
+    private StompClusterMessageBus nodeA;
+    private StompClusterMessageBus nodeB;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        broker = startBroker(port);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        for (StompClusterMessageBus node : new StompClusterMessageBus[] { nodeA, nodeB }) {
+            if (node != null) {
+                node.shutdown();
+            }
+        }
+        broker.stop();
+    }
+
+    @Test
+    void everyNodeGetsEveryMessage() throws Exception {
+        nodeA = node();
+        nodeB = node();
+        BlockingQueue<String> receivedA = subscribe(nodeA, "restaurant.status");
+        BlockingQueue<String> receivedB = subscribe(nodeB, "restaurant.status");
+        BlockingQueue<String> otherChannel = subscribe(nodeB, "orders.columns");
+        awaitConnected(nodeA, nodeB);
+
+        nodeA.publish("restaurant.status", "7:false");
+        nodeA.publish("restaurant.status", "8:true");
+
+        assertEquals(List.of("7:false", "8:true"), take(receivedB, 2), "the other node, in order");
+        assertEquals(List.of("7:false", "8:true"), take(receivedA, 2), "the publishing node too");
+        assertEquals(null, otherChannel.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void nodesReconnectAndResubscribeWhenTheBrokerComesBack() throws Exception {
+        nodeA = node();
+        nodeB = node();
+        BlockingQueue<String> receivedB = subscribe(nodeB, "restaurant.status");
+        CountDownLatch reconnected = new CountDownLatch(2);
+        nodeA.onReconnect(reconnected::countDown);
+        nodeB.onReconnect(reconnected::countDown);
+        awaitConnected(nodeA, nodeB);
+
+        broker.stop();
+        broker.waitUntilStopped();
+        nodeA.publish("restaurant.status", "1:false"); // dropped, nobody to send it to
+        broker = startBroker(port);
+
+        assertTrue(reconnected.await(20, TimeUnit.SECONDS), "reconnect listeners did not run");
+        nodeA.publish("restaurant.status", "2:true");
+        assertEquals(List.of("2:true"), take(receivedB, 1));
+    }
+
+    @Test
+    void nodesResyncWhenTheBrokerWasDownAtStartup() throws Exception {
+        broker.stop();
+        broker.waitUntilStopped();
+        nodeA = new StompClusterMessageBus("localhost", port, "guest", "guest", 200);
+        CountDownLatch resynced = new CountDownLatch(1);
+        nodeA.onReconnect(resynced::countDown);
+        nodeA.start(); // fails, retries every 200 ms
+
+        Thread.sleep(500);
+        broker = startBroker(port);
+
+        assertTrue(resynced.await(20, TimeUnit.SECONDS), "first connect after failures did not resync");
+    }
+
+    @Test
+    void aFirstConnectThatWorkedRightAwayDoesNotResync() throws Exception {
+        nodeA = new StompClusterMessageBus("localhost", port, "guest", "guest", 200);
+        AtomicInteger resyncs = new AtomicInteger();
+        nodeA.onReconnect(resyncs::incrementAndGet);
+        nodeA.start();
+        awaitConnected(nodeA);
+
+        assertEquals(0, resyncs.get(), "the startup load already covers it");
+    }
+
+    private StompClusterMessageBus node() {
+        StompClusterMessageBus bus = new StompClusterMessageBus("localhost", port, "guest", "guest", 200);
+        bus.start();
+        return bus;
+    }
+
+    private static BrokerService startBroker(int port) throws Exception {
+        BrokerService broker = new BrokerService();
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setAdvisorySupport(false);
+        broker.addConnector("stomp://localhost:" + port);
+        broker.start();
+        broker.waitUntilStarted();
+        return broker;
+    }
+
+    private static BlockingQueue<String> subscribe(ClusterMessageBus bus, String channel) {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        bus.subscribe(channel, received::add);
+        return received;
+    }
+
+    // Connected and subscribed: a message published now is delivered
+    private static void awaitConnected(StompClusterMessageBus... nodes) throws InterruptedException {
+        for (StompClusterMessageBus node : nodes) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!node.isConnected() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(node.isConnected(), "not connected to the broker");
+        }
+        Thread.sleep(200); // SUBSCRIBE frames are sent without waiting for a receipt
+    }
+
+    private static List<String> take(BlockingQueue<String> queue, int count) throws InterruptedException {
+        List<String> taken = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String message = queue.poll(10, TimeUnit.SECONDS);
+            if (message == null) {
+                break;
+            }
+            taken.add(message);
+        }
+        return taken;
+    }
+}
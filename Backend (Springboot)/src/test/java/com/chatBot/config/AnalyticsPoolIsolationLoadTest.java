@@ -0,0 +1,210 @@
+package com.chatBot.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.chatBot.repository.OrderRepository;
+import com.chatBot.service.OrderFixture;
+import com.chatBot.service.OrderServiceTest;
+
+/**
+ * Order placement while slow analytics transactions hammer the database.
+ *
+ * Analytics "reports" hold their connection (standing in for a heavy scan). Routed
+ * through @AnalyticsTransactional they only exhaust the analytics pool and saveOrder
+ * still goes through; the benchmark compares its latency with the same load on the OLTP
+ * pool (plain read-only transaction), which makes saveOrder queue behind the reports.
+ */
+@OrderServiceTest
+@TestPropertySource(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "analytics.datasource.hikari.maximum-pool-size=" + AnalyticsPoolIsolationLoadTest.ANALYTICS_POOL,
+        "analytics.datasource.hikari.connection-timeout=60000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DataSourceRoutingConfig.class, AnalyticsPoolIsolationLoadTest.SlowReports.class })
+class AnalyticsPoolIsolationLoadTest {
+
+    static final int ANALYTICS_POOL = 2;
+    private static final int HAMMER_THREADS = 8;
+    private static final long HOLD_MS = 100;
+    private static final String PHONE = "910000000033";
+    private static final Map<String, Integer> CART = Map.of("load dosa", 2, "load coffee", 1);
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private SlowReports slowReports;
+
+    /**
+     * Stand-in for a heavy dashboard query.
+     */
+    static class SlowReports {
+
+        private final Set<DataSourceRoute> routesSeen = ConcurrentHashMap.newKeySet();
+        private volatile CountDownLatch holding;
+        private volatile CountDownLatch release;
+
+        @Autowired
+        private OrderRepository orderRepository;
+
+        @AnalyticsTransactional
+        public void onAnalyticsPool() throws InterruptedException {
+            run();
+        }
+
+        @Transactional(readOnly = true)
+        public void onOltpPool() throws InterruptedException {
+            run();
+        }
+
+        // Accessed through the transactional proxy, so not a plain field read
+        public Set<DataSourceRoute> routesSeen() {
+            return routesSeen;
+        }
+
+        // From now on reports count down holding and keep their connection until release
+        public void holdUntil(CountDownLatch holding, CountDownLatch release) {
+            this.holding = holding;
+            this.release = release;
+        }
+
+        private void run() throws InterruptedException {
+            orderRepository.countPerOrderStatus();
+            routesSeen.add(DataSourceRoute.current());
+            CountDownLatch until = release;
+            if (until == null) {
+                Thread.sleep(HOLD_MS);
+            } else {
+                holding.countDown();
+                until.await();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Report {
+        void run() throws InterruptedException;
+    }
+
+    @Test
+    void ordersGoThroughWhileReportsHoldTheWholeAnalyticsPool() throws Exception {
+        seedMenu();
+        CountDownLatch holding = new CountDownLatch(ANALYTICS_POOL);
+        CountDownLatch release = new CountDownLatch(1);
+        slowReports.holdUntil(holding, release);
+
+        ExecutorService reports = Executors.newFixedThreadPool(ANALYTICS_POOL + 1);
+        try {
+            for (int i = 0; i < ANALYTICS_POOL; i++) {
+                reports.submit(() -> {
+                    slowReports.onAnalyticsPool();
+                    return null;
+                });
+            }
+            assertTrue(holding.await(10, TimeUnit.SECONDS), "reports did not get their connections");
+
+            // On a shared pool this would wait for a connection the reports never give back
+            Future<?> order = reports.submit(() -> orderFixture.placeOrder("Load Test", PHONE, "Cash", CART));
+            order.get(10, TimeUnit.SECONDS);
+            assertEquals(Set.of(DataSourceRoute.ANALYTICS), slowReports.routesSeen());
+        } finally {
+            release.countDown();
+            slowReports.holdUntil(null, null);
+            reports.shutdown();
+            reports.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void orderPlacementLatencyUnderAnalyticsLoad() throws Exception {
+        seedMenu();
+        placeOrders(50); // warm up
+
+        long[] idle = placeOrders(200);
+        long[] routed = underLoad(slowReports::onAnalyticsPool, 200);
+        slowReports.routesSeen().clear();
+        long[] shared = underLoad(slowReports::onOltpPool, 30);
+        assertEquals(Set.of(DataSourceRoute.OLTP), slowReports.routesSeen());
+
+        System.out.println("saveOrder latency (ms)          p50      p99");
+        print("idle", idle);
+        print("analytics load, routed", routed);
+        print("analytics load, shared pool", shared);
+    }
+
+    private void seedMenu() {
+        orderFixture.menuItem("Load Dosa", 80.0);
+        orderFixture.menuItem("Load Coffee", 30.0);
+    }
+
+    private long[] underLoad(Report report, int orders) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService hammer = Executors.newFixedThreadPool(HAMMER_THREADS);
+        for (int i = 0; i < HAMMER_THREADS; i++) {
+            hammer.submit(() -> {
+                while (running.get()) {
+                    try {
+                        report.run();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        Thread.sleep(HOLD_MS); // let the reports grab their connections
+
+        try {
+            return placeOrders(orders);
+        } finally {
+            running.set(false);
+            hammer.shutdown();
+            hammer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private long[] placeOrders(int count) {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            long started = System.nanoTime();
+            orderFixture.placeOrder("Load Test", PHONE, "Cash", CART);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+
+    private static void print(String label, long[] sorted) {
+        System.out.printf("%-28s %8.2f %8.2f%n", label,
+                percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6);
+    }
+}
@@ -0,0 +1,129 @@
+package com.chatBot.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A dashboard stuck on a slow write: order updates waiting for it are conflated to the
+ * latest per order once it lags, other frames are kept in order, and past the buffer limit
+ * the session is closed with what was still waiting counted as dropped.
+ */
+class ConflatingSessionDecoratorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private SlowSessionGuard guard;
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    void laggingSessionGetsTheLatestUpdatePerOrder() throws Exception {
+        guard = new SlowSessionGuard(512, 10_000, true, 2, 1);
+        ConflatingSessionDecorator session = connect();
+
+        session.sendMessage(frame(1, "1"));
+        assertTrue(firstWriteStarted.await(2, TimeUnit.SECONDS));
+        session.sendMessage(frame(2, "2"));
+        session.sendMessage(frame(3, "3,4"));
+        session.sendMessage(new TextMessage("MESSAGE\ndestination:/topic/analytics\n\n{}\0"));
+        session.sendMessage(frame(4, "2")); // lagging: replaces seq 2
+        session.sendMessage(frame(5, "4")); // seq 3 also carries order 3, kept
+        session.sendMessage(frame(6, "2,3,4")); // supersedes seq 3, 4 and 5
+        assertEquals(2, session.bufferedFrames());
+        assertEquals(1L, guard.stats().get("lagging"));
+
+        // Closing waits for the waiting frames to go out
+        session.close(CloseStatus.NORMAL);
+        release.countDown();
+        verify(session.getDelegate(), timeout(2_000)).close(CloseStatus.NORMAL);
+        assertEquals(List.of("seq:1", "/topic/analytics", "seq:6"), written);
+        assertEquals(4L, guard.stats().get("conflated"));
+        assertEquals(0L, guard.stats().get("dropped"));
+    }
+
+    @Test
+    void sessionPastTheBufferLimitIsClosed() throws Exception {
+        guard = new SlowSessionGuard(1, 10_000, false, 2, 1); // 1 KB
+        ConflatingSessionDecorator session = connect();
+
+        session.sendMessage(frame(1, "1"));
+        assertTrue(firstWriteStarted.await(2, TimeUnit.SECONDS));
+        int sent = 1;
+        while (guard.stats().get("closedSlowSessions").equals(0L)) {
+            session.sendMessage(frame(++sent, String.valueOf(sent)));
+        }
+        session.sendMessage(frame(++sent, "1"));
+
+        ArgumentCaptor<CloseStatus> status = ArgumentCaptor.forClass(CloseStatus.class);
+        verify(session.getDelegate()).close(status.capture());
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), status.getValue().getCode());
+        assertEquals(0L, guard.stats().get("conflated"), "conflation off");
+        assertEquals((long) sent - 1, guard.stats().get("dropped"), "all but the frame being written");
+        assertEquals(0, session.bufferedFrames());
+    }
+
+    @Test
+    void readsTheOrderIdsHeaderOfMessageFramesOnly() {
+        assertEquals(Set.of(7L, 8L), ConflatingSessionDecorator.orderIds(frame(1, "7,8")));
+        assertNull(ConflatingSessionDecorator.orderIds(new TextMessage("MESSAGE\ndestination:/topic/orders\n\n{\"orderIds\":1}\0")));
+        assertNull(ConflatingSessionDecorator.orderIds(new TextMessage("RECEIPT\nreceipt-id:1\n\n\0")));
+    }
+
+    // Opens a session through the guard's handler decorator, as the STOMP endpoint does
+    private ConflatingSessionDecorator connect() throws Exception {
+        WebSocketHandler stompHandler = mock(WebSocketHandler.class);
+        guard.decorate(stompHandler).afterConnectionEstablished(slowSession());
+        ArgumentCaptor<WebSocketSession> session = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(stompHandler).afterConnectionEstablished(session.capture());
+        return (ConflatingSessionDecorator) session.getValue();
+    }
+
+    // Delegate whose first write blocks until released, like a dashboard on bad Wi-Fi
+    private WebSocketSession slowSession() throws Exception {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("slow");
+        doAnswer(invocation -> {
+            String frame = ((TextMessage) invocation.<WebSocketMessage<?>>getArgument(0)).getPayload();
+            written.add(frame.contains("\nseq:") ? frame.substring(frame.indexOf("seq:"), frame.indexOf('\n', frame.indexOf("seq:")))
+                    : frame.substring(frame.indexOf("destination:") + 12, frame.indexOf('\n', frame.indexOf("destination:"))));
+            firstWriteStarted.countDown();
+            release.await();
+            return null;
+        }).when(delegate).sendMessage(any());
+        return delegate;
+    }
+
+    private static TextMessage frame(long seq, String orderIds) {
+        return new TextMessage("MESSAGE\ndestination:/topic/orders/batch\nepoch:1\nseq:" + seq
+                + "\norderIds:" + orderIds + "\nsubscription:sub-0\n\n[{\"id\":" + orderIds.split(",")[0] + "}]\0");
+    }
+}
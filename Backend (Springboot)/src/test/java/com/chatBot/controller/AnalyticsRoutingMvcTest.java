@@ -0,0 +1,86 @@
+package com.chatBot.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.chatBot.config.GoogleApiConfig;
+import com.chatBot.repository.CustomerRollupRepository;
+import com.chatBot.service.OrderRollupService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Through the whole web stack, with the app's open-in-view setting: the dashboard reads of /analytics
+ * run on the analytics pool even though the request first flushes the rollups in a write
+ * transaction on the OLTP pool.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:mvcrouting;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false",
+        "analytics.rollup.backfill-delay-ms=3600000"
+})
+@AutoConfigureMockMvc
+class AnalyticsRoutingMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("oltpDataSource")
+    private HikariDataSource oltpDataSource;
+
+    @Autowired
+    @Qualifier("analyticsDataSource")
+    private HikariDataSource analyticsDataSource;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @MockitoSpyBean
+    private CustomerRollupRepository customerRollupRepository;
+
+    @MockitoBean
+    private GoogleApiConfig googleApiConfig;
+
+    @Test
+    void analyticsReadsAfterTheFlushUseTheAnalyticsPool() throws Exception {
+        int[] activeDuringRead = new int[2];
+        doAnswer(invocation -> {
+            activeDuringRead[0] = active(analyticsDataSource);
+            activeDuringRead[1] = active(oltpDataSource);
+            return List.of();
+        }).when(customerRollupRepository).findSketchesSince(any(), any());
+        orderRollupService.markDirty(LocalDateTime.now()); // so the request has a day to flush first
+
+        mockMvc.perform(get("/api/orders/analytics").param("range", "week"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(1, 0), List.of(activeDuringRead[0], activeDuringRead[1]),
+                "[analytics, oltp] connections in use during the customer count");
+    }
+
+    // A pool starts on its first connection
+    private static int active(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean() == null ? 0 : pool.getHikariPoolMXBean().getActiveConnections();
+    }
+}
@@ -0,0 +1,71 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * HyperLogLog accuracy against exact distinct counts, merging of day sketches with
+ * returning customers, and the serialized size of the customer_rollup rows.
+ */
+class CustomerSketchTest {
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        for (int customers : new int[] { 10, 250, 5_000, 100_000, 1_000_000 }) {
+            CustomerSketch sketch = new CustomerSketch();
+            for (int i = 0; i < customers; i++) {
+                sketch.add(phone(i));
+                sketch.add(phone(i)); // repeat orders don't count
+            }
+            long estimate = sketch.estimate();
+            double error = Math.abs(estimate - customers) / (double) customers;
+            System.out.printf("Customer sketch: %,d customers -> %,d (%.2f%% off, %,d bytes)%n",
+                    customers, estimate, error * 100, sketch.toBytes().length);
+            assertTrue(error <= 3 * CustomerSketch.STANDARD_ERROR, customers + " estimated as " + estimate);
+        }
+    }
+
+    @Test
+    void mergedDaysCountReturningCustomersOnce() {
+        // 30 days of 400 customers each, drawn from 3,000 regulars: 3,000 distinct in total
+        List<CustomerSketch> days = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            CustomerSketch sketch = new CustomerSketch();
+            for (int i = 0; i < 400; i++) {
+                sketch.add(phone((day * 97 + i * 7) % 3_000));
+            }
+            days.add(CustomerSketch.fromBytes(sketch.toBytes()));
+        }
+
+        long estimate = CustomerSketch.merge(days).estimate();
+        assertTrue(Math.abs(estimate - 3_000) <= 3 * CustomerSketch.STANDARD_ERROR * 3_000, "estimated " + estimate);
+    }
+
+    @Test
+    void serializedFormRoundTrips() {
+        CustomerSketch few = new CustomerSketch();
+        CustomerSketch many = new CustomerSketch();
+        for (int i = 0; i < 20_000; i++) {
+            if (i < 40) {
+                few.add(phone(i));
+            }
+            many.add(phone(i));
+        }
+
+        byte[] sparse = few.toBytes();
+        byte[] dense = many.toBytes();
+        assertTrue(sparse.length <= 1 + 3 * 40, "sparse form for a quiet hour");
+        assertEquals(1 + CustomerSketch.REGISTERS, dense.length);
+        assertEquals(40, CustomerSketch.fromBytes(sparse).estimate());
+        assertEquals(many.estimate(), CustomerSketch.fromBytes(dense).estimate());
+    }
+
+    private static String phone(int customer) {
+        return "91" + (9_000_000_000L + customer * 7_919L);
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.chatBot.dto.CursorPage;
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
+
+/**
+ * The dashboard parts run concurrently, and a failing part fails the call and cancels the
+ * parts still running. Latches, not timings: each part waits until all three are running.
+ */
+class DashboardServiceTest {
+
+    private static final long WAIT_SECONDS = 10;
+
+    @Test
+    void partsRunConcurrently() {
+        OrderService orderService = mock(OrderService.class);
+        CountDownLatch allRunning = new CountDownLatch(3);
+        when(orderService.getDashboardTotals()).thenAnswer(i -> whenAllRunning(allRunning, Map.of("cashOrders", 3L, "totalRevenue", 450.0)));
+        when(orderService.getStatusCounts()).thenAnswer(i -> whenAllRunning(allRunning, Map.of("Pending", 2L)));
+        when(orderService.getOrdersPage(any(OrderFilter.class), isNull(), isNull(), eq(20)))
+                .thenAnswer(i -> {
+                    assertEquals(Boolean.TRUE, i.<OrderFilter>getArgument(0).getActive());
+                    return whenAllRunning(allRunning, new CursorPage<OrderDTO>(List.of(new OrderDTO()), true, LocalDateTime.of(2025, 1, 31, 19, 42), 7L));
+                });
+        DashboardService dashboardService = new DashboardService(orderService);
+
+        Map<String, Object> dashboard = dashboardService.getDashboard(20);
+
+        assertEquals(3L, dashboard.get("cashOrders"));
+        assertEquals(Map.of("Pending", 2L), dashboard.get("statusCounts"));
+        assertEquals(1, ((List<?>) dashboard.get("orders")).size());
+        assertEquals(true, dashboard.get("hasMore"));
+        assertEquals(7L, dashboard.get("nextBeforeId"));
+    }
+
+    @Test
+    void firstFailureCancelsTheOtherParts() {
+        OrderService orderService = mock(OrderService.class);
+        CountDownLatch slowPartRunning = new CountDownLatch(1);
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        when(orderService.getDashboardTotals()).thenAnswer(i -> {
+            slowPartRunning.await();
+            throw new IllegalStateException("rollups unavailable");
+        });
+        when(orderService.getStatusCounts()).thenAnswer(i -> {
+            slowPartRunning.countDown();
+            try {
+                never.await(); // only a cancellation ends this part
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return Map.of();
+        });
+        when(orderService.getOrdersPage(any(), any(), any(), eq(50))).thenReturn(new CursorPage<>(List.of(), false, null, null));
+        DashboardService dashboardService = new DashboardService(orderService);
+
+        // Without the cancellation the call would wait for the blocked part forever
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(WAIT_SECONDS),
+                () -> assertThrows(IllegalStateException.class, () -> dashboardService.getDashboard(50)));
+
+        assertEquals("rollups unavailable", failure.getMessage());
+        assertTrue(interrupted.get(), "the slow part was cancelled");
+    }
+
+    // Returns value once all parts counting down on allRunning are running; fails if they run one by one
+    private static <T> T whenAllRunning(CountDownLatch allRunning, T value) throws InterruptedException {
+        allRunning.countDown();
+        assertTrue(allRunning.await(WAIT_SECONDS, TimeUnit.SECONDS), "parts ran one after the other");
+        return value;
+    }
+}
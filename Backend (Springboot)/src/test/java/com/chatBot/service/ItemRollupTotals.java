@@ -0,0 +1,55 @@
+package com.chatBot.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.chatBot.model.OrderStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+
+/**
+ * Exact units sold per item, one query over the item rollups per call, to check
+ * PopularItemsIndex (and the rollups themselves) against.
+ */
+public class ItemRollupTotals {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * item name -> units since {@code start} (null = all time), failed payments excluded,
+     * cancelled orders only if {@code includeCancelled}. Whole days from DAY rows, the
+     * partial first day from HOUR rows, like the dashboard reads.
+     */
+    @Transactional
+    public Map<String, Long> unitsSince(LocalDateTime start, boolean includeCancelled) {
+        LocalDateTime hourFrom = start != null ? start.truncatedTo(ChronoUnit.HOURS) : null;
+        LocalDateTime dayFrom = null;
+        if (start != null) {
+            LocalDateTime midnight = start.toLocalDate().atStartOfDay();
+            dayFrom = midnight.equals(start) ? midnight : midnight.plusDays(1);
+        }
+
+        Map<String, Long> units = new HashMap<>();
+        for (Object[] row : entityManager.createQuery("""
+                SELECT r.itemName, r.orderStatus, SUM(r.quantity)
+                FROM OrderItemRollup r
+                WHERE r.paymentStatus <> PAYMENT_FAILED
+                  AND ((r.grain = com.chatBot.model.RollupGrain.DAY AND (:dayFrom IS NULL OR r.bucketStart >= :dayFrom))
+                    OR (r.grain = com.chatBot.model.RollupGrain.HOUR AND r.bucketStart >= :hourFrom AND r.bucketStart < :dayFrom))
+                GROUP BY r.itemName, r.orderStatus
+                """, Object[].class)
+                .setParameter("dayFrom", dayFrom)
+                .setParameter("hourFrom", hourFrom)
+                .getResultList()) {
+            if (includeCancelled || row[1] != OrderStatus.CANCELLED) {
+                units.merge((String) row[0], ((Number) row[2]).longValue(), Long::sum);
+            }
+        }
+        return units;
+    }
+}
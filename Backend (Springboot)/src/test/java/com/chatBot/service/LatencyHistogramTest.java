@@ -0,0 +1,64 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bucket bounds of the latency histogram stay within 1/64 of the value, percentiles match
+ * the exact sorted samples within that bound, and adjacent days add up.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsBoundEveryValueWithinOneSixtyFourth() {
+        for (long value = 0; value <= LatencyHistogram.MAX_VALUE; value += value < 10_000 ? 1 : 97) {
+            long highest = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+            assertTrue(highest >= value && highest - value <= value / 64, value + " reported as " + highest);
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)),
+                "the last bucket ends at the cap");
+    }
+
+    @Test
+    void percentilesMatchTheSortedSamples() {
+        // Prep times: log-normal around 12 minutes, a long tail of slow orders
+        Random random = new Random(44);
+        long[] samples = new long[50_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.round(Math.exp(Math.log(720) + random.nextGaussian() * 0.6));
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(samples.length, histogram.count());
+        for (double percentile : new double[] { 50, 90, 99, 100 }) {
+            long exact = samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+            long reported = histogram.percentile(percentile);
+            assertTrue(reported >= exact && reported - exact <= exact / 64, "p" + percentile + ": " + exact + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void adjacentDaysAddUp() {
+        LatencyHistogram monday = new LatencyHistogram();
+        LatencyHistogram tuesday = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            monday.record(i);
+            tuesday.record(1_000 + i);
+        }
+
+        LatencyHistogram both = new LatencyHistogram();
+        both.addAll(monday);
+        both.addAll(tuesday);
+
+        assertEquals(200, both.count());
+        assertEquals(100, both.percentile(50));
+        assertEquals(0, new LatencyHistogram().percentile(99));
+    }
+}
@@ -0,0 +1,117 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import com.chatBot.config.HibernateCacheConfig;
+import com.chatBot.repository.MenuItemRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * DB hits per simulated WhatsApp conversation, with the second-level/query cache emptied
+ * before every conversation ("before") and left warm ("after"); the benchmark reports
+ * them per 1,000 conversations.
+ *
+ * A conversation replays the reads WhatsAppService makes for one cash order: an
+ * open/closed check per message plus the in-flow checks, the menu listing, item lookups
+ * by name, and finally saveOrder.
+ */
+@OrderServiceTest
+@Import({ RestaurantService.class, HibernateCacheConfig.class })
+class MenuCacheBenchmarkTest {
+
+    private static final int CONVERSATIONS = 1_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestaurantService restaurantService;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        orderFixture.menuItem("Masala Dosa", 80.0);
+        orderFixture.menuItem("Filter Coffee", 30.0);
+        orderFixture.menuItem("Idli", 40.0);
+        restaurantService.setRestaurantStatus(true);
+    }
+
+    @Test
+    void warmCacheCutsDbHits() {
+        Statistics stats = statistics();
+        long before = coldConversations(20, stats);
+        long after = warmConversations(20, stats);
+
+        assertTrue(after < before, "cache did not reduce DB hits: " + before + " -> " + after);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void dbHitsPerThousandConversations() {
+        Statistics stats = statistics();
+        long before = coldConversations(CONVERSATIONS, stats);
+        long after = warmConversations(CONVERSATIONS, stats);
+
+        System.out.printf("DB hits per %d conversations: before=%d after=%d (L2 hits=%d, query cache hits=%d)%n",
+                CONVERSATIONS, before, after, stats.getSecondLevelCacheHitCount(), stats.getQueryCacheHitCount());
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        return stats;
+    }
+
+    // Statements for count conversations, each starting from an empty cache
+    private long coldConversations(int count, Statistics stats) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        stats.clear();
+        for (int i = 0; i < count; i++) {
+            sessionFactory.getCache().evictAll();
+            sessionFactory.getCache().evictQueryRegions();
+            conversation();
+        }
+        return stats.getPrepareStatementCount();
+    }
+
+    // Statements for count conversations after one that warms the cache
+    private long warmConversations(int count, Statistics stats) {
+        conversation();
+        stats.clear();
+        for (int i = 0; i < count; i++) {
+            conversation();
+        }
+        return stats.getPrepareStatementCount();
+    }
+
+    private void conversation() {
+        restaurantService.getRestaurantStatus();       // "hi"
+        restaurantService.getRestaurantStatus();       // "order"
+        menuItemRepository.findByAvailableTrue();       // menu shown
+        restaurantService.getRestaurantStatus();       // item selection
+        menuItemRepository.findByNameIgnoreCase("masala dosa");
+        restaurantService.getRestaurantStatus();       // quantity
+        menuItemRepository.findByNameIgnoreCase("filter coffee");
+        restaurantService.getRestaurantStatus();       // payment choice
+        orderService.saveOrder("Cache Bench", "910000000031", "Cash", Map.of("masala dosa", 1, "filter coffee", 2));
+    }
+}
@@ -0,0 +1,156 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+
+import com.chatBot.dto.CursorPage;
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderRepository;
+import com.chatBot.repository.OrderSpecifications;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Finished orders past the cutoff move to the archive in batches, listings merge both
+ * tables only when the requested range reaches the archive, and runs on two nodes at
+ * once move each order exactly once.
+ */
+@OrderServiceTest
+@TestPropertySource(properties = "orders.archive.batch-size=7")
+class OrderArchiveServiceTest {
+
+    private static final String PHONE = "910000000034";
+    private static final String OTHER_NODE_PHONE = "910000000134";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderTables orderTables;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seedMenu() {
+        orderFixture.menuItem("Archive Thali", 120.0);
+    }
+
+    @Test
+    void archivesOldFinishedOrdersAndMergesThemBackIntoListings() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Collected newest first, the order the listing must return them in
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(placeOrder(now.minusDays(i), OrderStatus.DELIVERED));         // recent
+        }
+        for (int i = 0; i < 3; i++) {
+            expected.add(placeOrder(now.minusDays(150 + i), OrderStatus.PENDING));     // old, still open
+        }
+        for (int i = 0; i < 20; i++) {
+            expected.add(placeOrder(now.minusDays(181 + i), OrderStatus.DELIVERED));   // old, finished
+        }
+
+        int moved = orderArchiveService.archiveOrdersBefore(now.minusDays(90));
+
+        assertEquals(20, moved);
+        assertEquals(20, archivedOrderRepository.count(phone(PHONE)));
+        assertEquals(13, orderRepository.count(phone(PHONE)));
+        assertEquals(now.minusDays(90).withNano(0), orderArchiveService.getHorizon().withNano(0));
+
+        // Paging over the whole history walks hot and archived rows in one order
+        OrderFilter filter = new OrderFilter();
+        filter.setPhone(PHONE);
+        List<OrderDTO> all = new ArrayList<>();
+        CursorPage<OrderDTO> page = orderService.getOrdersPage(filter, null, null, 5);
+        all.addAll(page.getItems());
+        while (page.isHasMore()) {
+            page = orderService.getOrdersPage(filter, page.getNextBeforeTime(), page.getNextBeforeId(), 5);
+            all.addAll(page.getItems());
+        }
+        assertEquals(expected, all.stream().map(OrderDTO::getId).toList());
+        assertTrue(all.stream().allMatch(dto -> dto.getOrderItems().size() == 1), "archived lines are read back");
+
+        // A range newer than the archive never touches it
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        filter.setFrom(now.minusDays(30));
+        stats.clear();
+        CursorPage<OrderDTO> recent = orderService.getOrdersPage(filter, null, null, 50);
+        assertEquals(10, recent.getItems().size());
+        assertFalse(recent.isHasMore());
+        assertEquals(3, stats.getPrepareStatementCount(), "horizon + orders + lines, no archive query");
+
+        assertEquals(33, orderTables.validOrders().stream()
+                .filter(o -> PHONE.equals(o.getUserPhone())).count());
+    }
+
+    @Test
+    void concurrentRunsMoveEveryOrderOnce() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 30; i++) {
+            placeOrder(OTHER_NODE_PHONE, now.minusDays(200 + i), OrderStatus.DELIVERED);
+        }
+
+        // Archival enabled on two nodes at once
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = nodes.submit(() -> orderArchiveService.archiveOrdersBefore(now.minusDays(90)));
+            Future<Integer> second = nodes.submit(() -> orderArchiveService.archiveOrdersBefore(now.minusDays(90)));
+            first.get(30, TimeUnit.SECONDS);
+            second.get(30, TimeUnit.SECONDS);
+        } finally {
+            nodes.shutdown();
+        }
+
+        assertEquals(30, archivedOrderRepository.count(phone(OTHER_NODE_PHONE)));
+        assertEquals(0, orderRepository.count(phone(OTHER_NODE_PHONE)));
+    }
+
+    private long placeOrder(LocalDateTime time, OrderStatus orderStatus) {
+        return placeOrder(PHONE, time, orderStatus);
+    }
+
+    private long placeOrder(String phone, LocalDateTime time, OrderStatus orderStatus) {
+        Long id = orderFixture.placeOrder("Archive Test", phone, "Cash", "archive thali", 1);
+        return orderFixture.backdate(id, time, orderStatus);
+    }
+
+    private static <T> Specification<T> phone(String phone) {
+        OrderFilter filter = new OrderFilter();
+        filter.setPhone(phone);
+        return OrderSpecifications.matching(filter);
+    }
+}
@@ -0,0 +1,155 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderStatusChange;
+
+/**
+ * Order changes reach the dashboards only after commit: changes committed within the
+ * batching window go out as one message with the state after the last of them, rolled
+ * back orders never go out, every message is numbered and can be replayed (a dropped one
+ * leaves a gap that can't), and the commit-to-send lag is counted.
+ */
+@OrderServiceTest
+@TestPropertySource(properties = "orders.broadcast.batch-ms=300")
+@Import(OrderBroadcaster.class)
+class OrderBroadcasterTest {
+
+    private static final String PHONE = "910000000047";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderBroadcaster orderBroadcaster;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void seed() {
+        orderFixture.menuItem("Broadcast Idli", 30.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commitsWithinTheWindowGoOutAsOneMessage() {
+        // Warm up so the placements below commit well within one window
+        Long warmUp = placeOrder();
+        verify(messagingTemplate, timeout(2_000)).convertAndSend(eq(OrderBroadcaster.TOPIC), (Object) argThat(dto -> hasId(dto, warmUp)), anyMap());
+        long messagesBefore = (Long) orderBroadcaster.stats().get("messages");
+
+        Long first = placeOrder();
+        Long second = placeOrder();
+        orderService.updateOrderStatuses(List.of(change(first, "Accepted"), change(second, "Preparing")));
+        orderService.updateOrderStatus(first, "Preparing");
+
+        ArgumentCaptor<Object> batch = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, timeout(2_000)).convertAndSend(eq(OrderBroadcaster.BATCH_TOPIC), batch.capture(), headers.capture());
+        List<OrderDTO> orders = (List<OrderDTO>) batch.getValue();
+        assertEquals(List.of(first, second), orders.stream().map(OrderDTO::getId).toList());
+        assertEquals(List.of("Preparing", "Preparing"), orders.stream().map(OrderDTO::getOrderStatus).toList());
+
+        // A client that saw the message before this one gets exactly this one back
+        String epoch = (String) headers.getValue().get("epoch");
+        long seq = (Long) headers.getValue().get("seq");
+        Map<String, Object> missed = orderBroadcaster.eventsSince(epoch, seq - 1);
+        assertEquals(false, missed.get("snapshot"));
+        assertEquals(List.of(Map.of("seq", seq, "orders", orders)), missed.get("events"));
+
+        Map<String, Object> stats = orderBroadcaster.stats();
+        assertEquals(messagesBefore + 1, stats.get("messages"));
+        Map<String, Object> lag = (Map<String, Object>) stats.get("lagMs");
+        assertTrue((Long) lag.get("count") >= 5, "one lag sample per committed change: " + lag);
+        assertTrue((Long) lag.get("max") < 2_000, "lag " + lag);
+    }
+
+    @Test
+    void rolledBackOrderIsNeverBroadcast() {
+        Long rolledBack = new TransactionTemplate(transactionManager).execute(status -> {
+            Long id = placeOrder();
+            status.setRollbackOnly();
+            return id;
+        });
+
+        verify(messagingTemplate, after(600).never()).convertAndSend(eq(OrderBroadcaster.TOPIC), (Object) argThat(dto -> hasId(dto, rolledBack)), anyMap());
+        verify(messagingTemplate, never()).convertAndSend(eq(OrderBroadcaster.BATCH_TOPIC), any(Object.class), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aBatchThatFailsStillUsesUpItsNumber() {
+        OrderService failingOnce = mock(OrderService.class);
+        OrderDTO order = new OrderDTO();
+        order.setId(48L);
+        when(failingOnce.getOrderDTOs(anyCollection()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(order));
+        SimpMessagingTemplate dashboards = mock(SimpMessagingTemplate.class);
+        OrderBroadcaster broadcaster = new OrderBroadcaster(failingOnce, dashboards, new LocalClusterMessageBus(), "simple", 0, 10);
+        broadcaster.start();
+        try {
+            broadcaster.onOrderChanged(new OrderChangedEvent(List.of(47L)));
+            verify(failingOnce, timeout(2_000)).getOrderDTOs(anyCollection()); // a batch of its own
+            broadcaster.onOrderChanged(new OrderChangedEvent(List.of(48L)));
+
+            ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+            verify(dashboards, timeout(2_000)).convertAndSend(eq(OrderBroadcaster.TOPIC), (Object) eq(order), headers.capture());
+            assertEquals(2L, headers.getValue().get("seq"), "the gap tells dashboards they missed one");
+            assertEquals(1L, broadcaster.stats().get("failures"));
+            String epoch = (String) headers.getValue().get("epoch");
+            assertEquals(true, broadcaster.eventsSince(epoch, 0L).get("snapshot"), "and that it can't be replayed");
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    private static boolean hasId(Object dto, Long id) {
+        return dto instanceof OrderDTO order && id.equals(order.getId());
+    }
+
+    private static OrderStatusChange change(Long orderId, String status) {
+        OrderStatusChange change = new OrderStatusChange();
+        change.setOrderId(orderId);
+        change.setStatus(status);
+        return change;
+    }
+
+    private Long placeOrder() {
+        return orderFixture.placeOrder("Broadcast Test", PHONE, "Cash", "broadcast idli", 1);
+    }
+}
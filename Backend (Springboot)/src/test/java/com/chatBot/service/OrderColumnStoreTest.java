@@ -0,0 +1,320 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.dto.OrderStatusChange;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The column store follows order writes on this node and, over the cluster bus, on
+ * another one, agrees with the orders tables, and answers without touching the database.
+ * The deltas it pushes to the dashboards add up to the change in the /analytics counters,
+ * and a reload loses no order to an archival batch running at the same time.
+ * Also reports its memory and scan cost at 1,000,000 orders.
+ */
+@OrderServiceTest
+class OrderColumnStoreTest {
+
+    private static final String PHONE = "910000000040";
+    private static final int ORDERS = 1_000_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderTables orderTables;
+
+    @Autowired
+    private OrderColumnStore orderColumnStore;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private ClusterMessageBus messageBus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Test
+    void followsWritesOnBothNodesAndMatchesTheOrdersTables() {
+        orderFixture.menuItem("Column Pongal", 60.0);
+
+        // Other test classes write behind OrderService's back in the shared database
+        orderColumnStore.reload();
+        OrderColumnStore otherNode = new OrderColumnStore(orderRepository, archivedOrderRepository, transactionManager, messageBus,
+                mock(SimpMessagingTemplate.class), "simple"); // its own dashboards
+        otherNode.load();
+        SimpMessagingTemplate relayedDashboards = mock(SimpMessagingTemplate.class);
+        OrderColumnStore relayNode = new OrderColumnStore(orderRepository, archivedOrderRepository, transactionManager, messageBus,
+                relayedDashboards, "relay"); // behind an external broker
+        relayNode.load();
+
+        Long delivered = placeOrder("Cash");
+        orderService.updateOrderStatus(delivered, "Delivered");
+        orderService.cancelPendingOrder(placeOrder("UPI"));
+        List<OrderStatusChange> changes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderStatusChange change = new OrderStatusChange();
+            change.setOrderId(placeOrder("Card"));
+            change.setStatus("Preparing");
+            changes.add(change);
+        }
+        orderService.updateOrderStatuses(changes);
+        orderService.recordPayment(placeOrder("UPI"), PaymentStatus.CONFIRMED, "pay_paid");
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<Object[]> totals = orderColumnStore.totalsSince(null);
+        assertEquals(0, stats.getPrepareStatementCount(), "served from memory");
+
+        assertEquals(raw(), grouped(totals));
+        assertEquals(raw(), grouped(otherNode.totalsSince(null)));
+        assertEquals(raw(), grouped(relayNode.totalsSince(null)));
+        // Behind the relay every node pushes on its own topic, also what it re-read
+        String relayTopic = relayNode.totals(null).topic();
+        assertEquals(AnalyticsDelta.TOPIC + ".", relayTopic.substring(0, AnalyticsDelta.TOPIC.length() + 1));
+        verify(relayedDashboards, never()).convertAndSend(eq(AnalyticsDelta.TOPIC), any(Object.class));
+        verify(relayedDashboards, times(9)).convertAndSend(eq(relayTopic), any(Object.class)); // reset + 8 counted changes
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pushedDeltasAddUpToTheCounterChange() {
+        orderFixture.menuItem("Delta Idli", 45.0);
+        orderColumnStore.reload();
+        OrderColumnStore.Totals snapshot = orderColumnStore.totals(null);
+        Map<String, Double> before = counters(snapshot.rows());
+        clearInvocations(messagingTemplate);
+
+        orderService.updateOrderStatus(placeOrder("Cash", "delta idli"), "Delivered");
+        orderService.cancelPendingOrder(placeOrder("UPI", "delta idli"));
+        orderService.updateOrderStatus(placeOrder("Card", "delta idli"), "Accepted"); // moves no counter
+        orderService.recordPayment(placeOrder("UPI", "delta idli"), PaymentStatus.PAYMENT_FAILED, "pay_failed");
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq(AnalyticsDelta.TOPIC), events.capture());
+        Map<String, Double> pushed = new LinkedHashMap<>();
+        long seq = snapshot.seq();
+        for (Object event : events.getAllValues()) {
+            // Numbered right after the snapshot, without gaps
+            assertEquals(snapshot.epoch(), ((Map<String, Object>) event).get("epoch"));
+            assertEquals(++seq, ((Map<String, Object>) event).get("seq"));
+            for (Map<String, Object> change : (List<Map<String, Object>>) ((Map<String, Object>) event).get("changes")) {
+                change.forEach((counter, value) -> {
+                    if (!counter.equals("at")) {
+                        pushed.merge(counter, ((Number) value).doubleValue(), Double::sum);
+                    }
+                });
+            }
+        }
+        assertEquals(7, events.getAllValues().size(), "one event per placement and counted change");
+
+        OrderColumnStore.Totals latest = orderColumnStore.totals(null);
+        assertEquals(seq, latest.seq(), "a snapshot now holds every event sent");
+        Map<String, Double> after = counters(latest.rows());
+        for (String counter : AnalyticsDelta.COUNTERS) {
+            double change = Math.round((after.get(counter) - before.get(counter)) * 100) / 100.0;
+            assertEquals(change, Math.round(pushed.getOrDefault(counter, 0.0) * 100) / 100.0, counter);
+        }
+        assertEquals(1.0, pushed.get("delivered"));
+        assertEquals(1.0, pushed.get("cancelled"));
+    }
+
+    @Test
+    void reloadKeepsOrdersArchivedBetweenItsTwoReads() throws Exception {
+        orderFixture.menuItem("Column Pongal", 60.0);
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(400);
+        for (int i = 0; i < 3; i++) {
+            orderFixture.backdate(placeOrder("Cash"), longAgo, OrderStatus.DELIVERED);
+        }
+
+        // The archival job moves them right after the archive table was read
+        ArchivedOrderRepository archive = mock(ArchivedOrderRepository.class, AdditionalAnswers.delegatesTo(archivedOrderRepository));
+        AtomicInteger moved = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<Object[]> page = archivedOrderRepository.findColumnsAfter(invocation.getArgument(0), invocation.getArgument(1));
+            if (moved.get() == 0) {
+                moved.set(CompletableFuture.supplyAsync(() -> orderArchiveService.archiveOrdersBefore(longAgo.plusDays(1)))
+                        .get(30, TimeUnit.SECONDS));
+            }
+            return page;
+        }).when(archive).findColumnsAfter(anyLong(), any());
+        OrderColumnStore store = new OrderColumnStore(orderRepository, archive, transactionManager, new LocalClusterMessageBus(), messagingTemplate, "simple");
+        store.reload();
+
+        assertTrue(moved.get() >= 3, "archived during the reload: " + moved.get());
+        assertEquals(raw(), grouped(store.totalsSince(null)));
+    }
+
+    @Test
+    void reReadsFinishingOutOfOrderNeverGoBackwards() {
+        OrderColumnStore store = new OrderColumnStore(orderRepository, archivedOrderRepository, transactionManager, new LocalClusterMessageBus(), messagingTemplate, "simple");
+        LocalDateTime placed = LocalDateTime.now();
+        OrderColumnStore.Row accepted = OrderColumnStore.Row.of(7L, placed, 100.0, PaymentMode.UPI,
+                PaymentStatus.PENDING, OrderStatus.ACCEPTED, 1);
+        OrderColumnStore.Row cancelled = OrderColumnStore.Row.of(7L, placed, 100.0, PaymentMode.UPI,
+                PaymentStatus.PENDING, OrderStatus.CANCELLED, 2);
+
+        store.apply(List.of(cancelled));
+        assertTrue(store.apply(List.of(accepted)).isEmpty(), "read before the cancellation, arrived after it");
+
+        List<Object[]> totals = store.totalsSince(null);
+        assertEquals(1, totals.size());
+        assertEquals(OrderStatus.CANCELLED, totals.get(0)[2]);
+    }
+
+    @Test
+    void memoryAndScanCostPerMillionOrders() {
+        OrderColumnStore store = new OrderColumnStore(orderRepository, archivedOrderRepository, transactionManager, new LocalClusterMessageBus(), messagingTemplate, "simple");
+        LocalDateTime now = LocalDateTime.now();
+        Random random = new Random(40);
+        PaymentMode[] modes = PaymentMode.values();
+        OrderStatus[] statuses = OrderStatus.values();
+
+        List<OrderColumnStore.Row> rows = new ArrayList<>(ORDERS);
+        for (long id = 1; id <= ORDERS; id++) {
+            rows.add(OrderColumnStore.Row.of(id, now.minusMinutes((ORDERS - id) / 2), 50.0 + random.nextInt(950),
+                    modes[random.nextInt(modes.length)], PaymentStatus.CONFIRMED,
+                    statuses[random.nextInt(statuses.length)], 0));
+        }
+        store.apply(rows);
+
+        long memory = store.memoryBytes();
+        assertEquals(ORDERS, store.size());
+        assertTrue(memory >= (long) ORDERS * OrderColumnStore.BYTES_PER_ORDER
+                && memory <= (long) ORDERS * OrderColumnStore.BYTES_PER_ORDER * 3 / 2);
+
+        long all = Long.MAX_VALUE;
+        long week = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long started = System.nanoTime();
+            store.totalsSince(null);
+            all = Math.min(all, System.nanoTime() - started);
+
+            started = System.nanoTime();
+            store.totalsSince(now.minusDays(7));
+            week = Math.min(week, System.nanoTime() - started);
+        }
+
+        System.out.printf("Column store, %,d orders: %.1f MB (%d bytes/order + growth slack); "
+                + "totals all=%.2f ms, last 7 days=%.2f ms%n",
+                ORDERS, memory / 1e6, OrderColumnStore.BYTES_PER_ORDER, all / 1e6, week / 1e6);
+    }
+
+    // (mode, payment status, order status) -> [orders, revenue] from the orders tables
+    private Map<List<Object>, List<Double>> raw() {
+        Map<List<Object>, List<Double>> raw = new HashMap<>();
+        for (Order order : orderTables.validOrders()) {
+            double price = order.getTotalPrice() != null ? order.getTotalPrice() : 0;
+            raw.merge(Arrays.asList(order.getPaymentMode(), order.getStatus(), order.getOrderStatus()),
+                    List.of(1.0, Math.round(price * 100) / 100.0), OrderColumnStoreTest::add);
+        }
+        return raw;
+    }
+
+    private static Map<List<Object>, List<Double>> grouped(List<Object[]> totals) {
+        Map<List<Object>, List<Double>> grouped = new HashMap<>();
+        for (Object[] row : totals) {
+            if (row[1] != PaymentStatus.PAYMENT_FAILED) {
+                grouped.merge(Arrays.asList(row[0], row[1], row[2]),
+                        List.of(((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue()), OrderColumnStoreTest::add);
+            }
+        }
+        return grouped;
+    }
+
+    // The /analytics counters, same rules as the endpoint
+    private static Map<String, Double> counters(List<Object[]> totals) {
+        Map<String, Double> counters = new LinkedHashMap<>();
+        for (String counter : AnalyticsDelta.COUNTERS) {
+            counters.put(counter, 0.0);
+        }
+        for (Object[] row : totals) {
+            double count = ((Number) row[3]).doubleValue();
+            if (row[1] == PaymentStatus.PAYMENT_FAILED) {
+                continue;
+            }
+            if (row[2] == OrderStatus.CANCELLED) {
+                counters.merge("cancelled", count, Double::sum);
+                continue;
+            }
+            counters.merge(row[2] == OrderStatus.DELIVERED ? "delivered" : "pending", count, Double::sum);
+            counters.merge("orders", count, Double::sum);
+            counters.merge("revenue", ((Number) row[4]).doubleValue(), Double::sum);
+            if (row[0] != null) {
+                counters.merge(((PaymentMode) row[0]).name().toLowerCase(), count, Double::sum);
+            }
+        }
+        return counters;
+    }
+
+    // Sums kept in paise so both sides round the same way
+    private static List<Double> add(List<Double> a, List<Double> b) {
+        return List.of(a.get(0) + b.get(0), Math.round((a.get(1) + b.get(1)) * 100) / 100.0);
+    }
+
+    private Long placeOrder(String paymentMode) {
+        return placeOrder(paymentMode, "column pongal");
+    }
+
+    private Long placeOrder(String paymentMode, String item) {
+        return orderFixture.placeOrder("Column Test", PHONE, paymentMode, item, 2);
+    }
+}
@@ -0,0 +1,102 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import com.chatBot.dto.CursorPage;
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderFilter;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The order listings and broadcasts must build the whole DTO graph (orders, lines, menu names/prices)
+ * in a constant number of statements, however many orders and lines there are.
+ *
+ * Runs on a fresh database, so the listings hold exactly the orders seeded here, and
+ * removes them again after each test.
+ */
+@OrderServiceTest
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class OrderDtoStatementCountTest {
+
+    private static final String PHONE = "910000000029";
+    private static final int ORDERS = 25;
+    private static final int LINES = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void seedOrders() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        for (int i = 1; i <= LINES; i++) {
+            orderFixture.menuItem("Dto Item " + i, 5.0 * i);
+            cart.put("Dto Item " + i, i);
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            orderFixture.placeOrder("Dto Customer", PHONE, "Cash", cart);
+        }
+    }
+
+    @AfterEach
+    void removeOrders() {
+        String ownOrders = "(SELECT id FROM orders WHERE user_phone = '" + PHONE + "')";
+        jdbcTemplate.update("DELETE FROM order_status_transition WHERE order_id IN " + ownOrders);
+        jdbcTemplate.update("DELETE FROM order_item WHERE order_id IN " + ownOrders);
+        jdbcTemplate.update("DELETE FROM orders WHERE user_phone = ?", PHONE);
+        jdbcTemplate.update("DELETE FROM menu_items WHERE name LIKE 'Dto Item %'");
+    }
+
+    @Test
+    void orderPageIsThreeStatements() {
+        OrderFilter filter = new OrderFilter();
+        filter.setPhone(PHONE);
+
+        stats.clear();
+        CursorPage<OrderDTO> page = orderService.getOrdersPage(filter, null, null, ORDERS);
+
+        assertEquals(ORDERS, page.getItems().size());
+        page.getItems().forEach(dto -> assertEquals(LINES, dto.getOrderItems().size()));
+        assertEquals("Dto Item 1", page.getItems().get(0).getOrderItems().get(0).getMenuItemName());
+        assertEquals(3, stats.getPrepareStatementCount(), "archive horizon + orders query + one order-line projection query");
+    }
+
+    @Test
+    void broadcastDtosAreConstantStatements() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM orders WHERE user_phone = ?", Long.class, PHONE);
+
+        stats.clear();
+        List<OrderDTO> orders = orderService.getOrderDTOs(ids);
+
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(dto -> assertEquals(LINES, dto.getOrderItems().size()));
+        assertEquals(2, stats.getPrepareStatementCount(), "orders query + one line query per 1000 orders");
+    }
+}
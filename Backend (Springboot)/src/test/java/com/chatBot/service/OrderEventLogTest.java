@@ -0,0 +1,86 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.chatBot.dto.OrderDTO;
+
+/**
+ * A client that missed messages still in the log gets exactly those, in order; one whose
+ * gap has dropped out of the log, spans a skipped message, or whose number is from another
+ * epoch, is told to reload.
+ */
+class OrderEventLogTest {
+
+    @Test
+    void replaysOnlyTheGap() {
+        OrderEventLog log = new OrderEventLog(4);
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(id, log.append(List.of(order(id))));
+        }
+
+        Map<String, Object> gap = log.since(log.epoch(), 1L);
+        assertEquals(false, gap.get("snapshot"));
+        assertEquals(3L, gap.get("seq"));
+        assertEquals(List.of(2L, 3L), seqs(gap));
+        assertEquals(List.of(order(2)), events(gap).get(0).get("orders"));
+
+        assertEquals(List.of(), seqs(log.since(log.epoch(), 3L)), "up to date");
+        assertEquals(List.of(1L, 2L, 3L), seqs(log.since(log.epoch(), 0L)), "missed everything, all still kept");
+    }
+
+    @Test
+    void gapsItCannotReplayAskForASnapshot() {
+        OrderEventLog log = new OrderEventLog(4);
+        for (long id = 1; id <= 10; id++) {
+            log.append(List.of(order(id)));
+        }
+
+        // 7..10 are kept, so a client at 6 can catch up and one at 5 cannot
+        assertEquals(List.of(7L, 8L, 9L, 10L), seqs(log.since(log.epoch(), 6L)));
+        assertSnapshot(log, log.since(log.epoch(), 5L));
+        assertSnapshot(log, log.since("another-node", 9L));
+        assertSnapshot(log, log.since(log.epoch(), 11L));
+        assertSnapshot(log, log.since(null, null));
+    }
+
+    @Test
+    void aSkippedMessageCannotBeReplayed() {
+        OrderEventLog log = new OrderEventLog(4);
+        log.append(List.of(order(1)));
+        assertEquals(2L, log.skip());
+        log.append(List.of(order(3)));
+
+        Map<String, Object> gap = log.since(log.epoch(), 1L);
+        assertEquals(true, gap.get("snapshot"));
+        assertEquals(3L, gap.get("seq"));
+        assertEquals(List.of(3L), seqs(log.since(log.epoch(), 2L)), "after the skipped one");
+    }
+
+    private static void assertSnapshot(OrderEventLog log, Map<String, Object> result) {
+        assertEquals(true, result.get("snapshot"));
+        assertEquals(log.epoch(), result.get("epoch"));
+        assertEquals(10L, result.get("seq"));
+        assertNull(result.get("events"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> events(Map<String, Object> result) {
+        return (List<Map<String, Object>>) result.get("events");
+    }
+
+    private static List<Object> seqs(Map<String, Object> result) {
+        return events(result).stream().map(event -> event.get("seq")).toList();
+    }
+
+    private static OrderDTO order(long id) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,145 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.dto.OrderDTO;
+
+/**
+ * Two bot nodes, each with its own in-JVM STOMP broker and subscribed dashboards, sharing a
+ * cluster bus: every order change made on either node reaches every dashboard on both,
+ * exactly once. The benchmark does it for thousands of dashboards and prints the rate.
+ */
+class OrderFanoutBenchmarkTest {
+
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        nodes.forEach(node -> node.broadcaster.shutdown());
+    }
+
+    @Test
+    void everyChangeReachesEveryDashboardOnEveryNode() throws InterruptedException {
+        fanOut(20, 40);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fanOutRateToThousandsOfDashboards() throws InterruptedException {
+        int subscribers = 2_500;
+        int changes = 400;
+        long started = System.nanoTime();
+        long frames = fanOut(subscribers, changes);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Fan-out: %d changes to 2 nodes x %d dashboards: %d frames, every dashboard got all %d orders, in %.2f s, %.0f frames/s, %.0f order updates/s%n",
+                changes, subscribers, frames, changes, seconds, frames / seconds, 2.0 * subscribers * changes / seconds);
+    }
+
+    // Makes changes order changes alternately on two nodes, checks every dashboard got each once; returns the frames sent
+    private long fanOut(int subscribers, int changes) throws InterruptedException {
+        ClusterMessageBus bus = new LocalClusterMessageBus();
+        Node kitchen = new Node(bus, subscribers);
+        Node frontDesk = new Node(bus, subscribers);
+
+        for (long id = 1; id <= changes; id++) {
+            // Alternate between the nodes, as behind a load balancer
+            (id % 2 == 0 ? kitchen : frontDesk).broadcaster.onOrderChanged(new OrderChangedEvent(List.of(id)));
+        }
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while ((kitchen.ordersSent() < changes || frontDesk.ordersSent() < changes) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long frames = 0;
+        for (Node node : nodes) {
+            assertEquals(changes, node.ordersSent(), "orders sent to this node's dashboards");
+            assertEquals(subscribers, node.ordersPerSession.size(), "every dashboard got updates");
+            node.ordersPerSession.forEach((session, orders) ->
+                    assertEquals(changes, orders.get(), session + " got every order once"));
+            assertEquals(changes / 2, (Long) node.broadcaster.stats().get("fromOtherNodes"));
+            frames += node.frames.get();
+        }
+        return frames;
+    }
+
+    // A bot node: its broadcaster, its in-JVM broker and its subscribed dashboards
+    private final class Node {
+
+        final OrderBroadcaster broadcaster;
+        final AtomicLong frames = new AtomicLong();
+        final Map<String, AtomicLong> ordersPerSession = new ConcurrentHashMap<>();
+
+        Node(ClusterMessageBus bus, int subscribers) {
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            MessageChannel clientOutbound = (message, timeout) -> {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                    return true; // CONNECT_ACK
+                }
+                frames.incrementAndGet();
+                int orders = message.getPayload() instanceof Collection<?> batch ? batch.size() : 1;
+                ordersPerSession.computeIfAbsent(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), s -> new AtomicLong())
+                        .addAndGet(orders);
+                return true;
+            };
+            SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(
+                    new ExecutorSubscribableChannel(), clientOutbound, brokerChannel, List.of("/topic"));
+            broker.start();
+            for (int i = 0; i < subscribers; i++) {
+                broker.handleMessage(stomp(SimpMessageType.CONNECT, "dashboard-" + i, null, null));
+                broker.handleMessage(stomp(SimpMessageType.SUBSCRIBE, "dashboard-" + i, "0", OrderBroadcaster.TOPIC));
+                broker.handleMessage(stomp(SimpMessageType.SUBSCRIBE, "dashboard-" + i, "1", OrderBroadcaster.BATCH_TOPIC));
+            }
+
+            OrderService orderService = mock(OrderService.class);
+            when(orderService.getOrderDTOs(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                    .map(id -> {
+                        OrderDTO order = new OrderDTO();
+                        order.setId(id);
+                        order.setOrderStatus("Pending");
+                        return order;
+                    })
+                    .toList());
+            broadcaster = new OrderBroadcaster(orderService, new SimpMessagingTemplate(brokerChannel), bus, "simple", 5, 1000);
+            broadcaster.start();
+            nodes.add(this);
+        }
+
+        long ordersSent() {
+            return (Long) broadcaster.stats().get("orders");
+        }
+    }
+
+    private static Message<byte[]> stomp(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
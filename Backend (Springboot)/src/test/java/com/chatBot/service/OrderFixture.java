@@ -0,0 +1,63 @@
+package com.chatBot.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.chatBot.model.MenuItem;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.MenuItemRepository;
+import com.chatBot.repository.OrderRepository;
+
+/**
+ * Menu items and orders for the order path tests. The database is shared by every test
+ * class, so each one orders its own menu items from its own phone number.
+ */
+public class OrderFixture {
+
+    private final OrderService orderService;
+    private final MenuItemRepository menuItemRepository;
+    private final OrderRepository orderRepository;
+
+    public OrderFixture(OrderService orderService, MenuItemRepository menuItemRepository,
+            OrderRepository orderRepository) {
+        this.orderService = orderService;
+        this.menuItemRepository = menuItemRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    // Adds an available item to the menu, unless an earlier test already did
+    public MenuItem menuItem(String name, double price) {
+        return menuItemRepository.findByNameIgnoreCase(name)
+                .orElseGet(() -> menuItemRepository.save(new MenuItem(null, name, null, price, true)));
+    }
+
+    // Placed the way the bot places it, so every analytics copy sees it
+    public Long placeOrder(String customer, String phone, String paymentMode, Map<String, Integer> cart) {
+        return orderService.saveOrder(customer, phone, paymentMode, cart).getId();
+    }
+
+    public Long placeOrder(String customer, String phone, String paymentMode, String item, int quantity) {
+        return placeOrder(customer, phone, paymentMode, Map.of(item, quantity));
+    }
+
+    /**
+     * Moves an order to another time and order status straight through the repository,
+     * behind OrderService's back, as older or imported orders would sit in the table.
+     */
+    public Long backdate(Long orderId, LocalDateTime time, OrderStatus orderStatus) {
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setOrderTime(time);
+        order.setOrderStatus(orderStatus);
+        return orderRepository.save(order).getId();
+    }
+
+    public Long backdate(Long orderId, LocalDateTime time, PaymentStatus paymentStatus, OrderStatus orderStatus) {
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setOrderTime(time);
+        order.setStatus(paymentStatus);
+        order.setOrderStatus(orderStatus);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,96 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Round-trips per order placed through OrderService.saveOrder, for carts of 1 to 20
+ * lines, against the embedded H2 database; the benchmark also reports latency.
+ *
+ * Round-trips are Hibernate's prepared statement count: sequence calls, the menu lookup
+ * and one statement per JDBC batch. With pooled ids and batched, ordered inserts the
+ * count should stay flat as the cart grows.
+ */
+@OrderServiceTest
+class OrderPlacementBenchmarkTest {
+
+    private static final String PHONE = "910000000000";
+    private static final int MAX_LINES = 20;
+    private static final int WARMUP_ORDERS = 50;
+    private static final int ORDERS_PER_SIZE = 100;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seedMenu() {
+        for (int i = 1; i <= MAX_LINES; i++) {
+            orderFixture.menuItem("Item " + i, 10.0 * i);
+        }
+    }
+
+    @Test
+    void roundTripsPerOrderDoNotGrowWithCartSize() {
+        Statistics stats = statistics();
+        placeOrders(MAX_LINES, 5, stats); // warm up the id pools
+
+        double oneLine = placeOrders(1, 10, stats) / 10.0;
+        double maxLines = placeOrders(MAX_LINES, 10, stats) / 10.0;
+
+        // menu lookup + order insert batch + item insert batch, plus amortised sequence calls
+        assertTrue(maxLines <= oneLine + 1.0, "round-trips grew with cart size: " + oneLine + " -> " + maxLines);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void roundTripsAndLatencyPerCartSize() {
+        Statistics stats = statistics();
+        placeOrders(MAX_LINES, WARMUP_ORDERS, stats);
+
+        System.out.println("lines | round-trips/order | avg latency (us)");
+        for (int lines = 1; lines <= MAX_LINES; lines++) {
+            long started = System.nanoTime();
+            long statements = placeOrders(lines, ORDERS_PER_SIZE, stats);
+            long elapsed = System.nanoTime() - started;
+
+            System.out.printf("%5d | %17.2f | %16.1f%n", lines, (double) statements / ORDERS_PER_SIZE,
+                    elapsed / 1_000.0 / ORDERS_PER_SIZE);
+        }
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Places count orders of the given cart size, returns the statements they took
+    private long placeOrders(int lines, int count, Statistics stats) {
+        Map<String, Integer> cart = cart(lines);
+        stats.clear();
+        for (int i = 0; i < count; i++) {
+            orderFixture.placeOrder("Bench", PHONE, "Cash", cart);
+        }
+        return stats.getPrepareStatementCount();
+    }
+
+    private static Map<String, Integer> cart(int lines) {
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        for (int i = 1; i <= lines; i++) {
+            cart.put("item " + i, 1 + i % 3);
+        }
+        return cart;
+    }
+}
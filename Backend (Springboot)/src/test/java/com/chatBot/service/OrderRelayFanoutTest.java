@@ -0,0 +1,189 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.dto.OrderDTO;
+
+/**
+ * Two bot nodes with websocket.broker=relay, each relaying /topic to one embedded ActiveMQ
+ * broker, and a dashboard connected through each: every order change made on either node
+ * reaches both dashboards once, and each node's messages arrive numbered 1, 2, 3, ... in
+ * its own epoch, which is what lets a dashboard tell that it missed one.
+ */
+class OrderRelayFanoutTest {
+
+    private static final int CHANGES = 20;
+
+    private BrokerService broker;
+    private int port;
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        broker = new BrokerService();
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setAdvisorySupport(false);
+        broker.addConnector("stomp://localhost:" + port);
+        broker.start();
+        broker.waitUntilStarted();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        for (Node node : nodes) {
+            node.broadcaster.shutdown();
+            node.relay.stop();
+        }
+        broker.stop();
+    }
+
+    @Test
+    void everyDashboardGetsEveryNodesChangesInOrder() throws Exception {
+        Node kitchen = new Node("kitchen-dashboard");
+        Node frontDesk = new Node("front-desk-dashboard");
+
+        for (long id = 1; id <= CHANGES; id++) {
+            // Alternate between the nodes, as behind a load balancer
+            (id % 2 == 0 ? kitchen : frontDesk).broadcaster.onOrderChanged(new OrderChangedEvent(List.of(id)));
+        }
+
+        for (Node node : nodes) {
+            Map<String, List<Long>> seqsByEpoch = new HashMap<>();
+            Set<Long> orders = new HashSet<>();
+            while (orders.size() < CHANGES) {
+                Message<?> message = node.received.poll(10, TimeUnit.SECONDS);
+                assertTrue(message != null, node.dashboard + " got " + orders.size() + " of " + CHANGES + " orders");
+                StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+                seqsByEpoch.computeIfAbsent(headers.getFirstNativeHeader("epoch"), e -> new ArrayList<>())
+                        .add(Long.valueOf(headers.getFirstNativeHeader("seq")));
+                for (String id : headers.getFirstNativeHeader("orderIds").split(",")) {
+                    assertTrue(orders.add(Long.valueOf(id)), "each order once");
+                }
+            }
+            assertEquals(null, node.received.poll(200, TimeUnit.MILLISECONDS), "no duplicates");
+
+            // One epoch per node, numbered 1, 2, 3, ... in send order
+            assertEquals(2, seqsByEpoch.size());
+            for (List<Long> seqs : seqsByEpoch.values()) {
+                for (int i = 0; i < seqs.size(); i++) {
+                    assertEquals(i + 1, seqs.get(i));
+                }
+            }
+        }
+        assertEquals(0L, (Long) kitchen.broadcaster.stats().get("fromOtherNodes"), "the broker fans out, not the bus");
+    }
+
+    // A bot node relaying to the broker, with one subscribed dashboard
+    private final class Node {
+
+        final String dashboard;
+        final StompBrokerRelayMessageHandler relay;
+        final OrderBroadcaster broadcaster;
+        final BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+        private final Map<String, CountDownLatch> receipts = new ConcurrentHashMap<>();
+
+        Node(String dashboard) throws InterruptedException {
+            this.dashboard = dashboard;
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            MessageChannel clientOutbound = (message, timeout) -> {
+                StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+                if (headers.getCommand() == StompCommand.MESSAGE) {
+                    received.add(message);
+                } else if (headers.getCommand() == StompCommand.CONNECTED) {
+                    receipts.computeIfAbsent("connected", r -> new CountDownLatch(1)).countDown();
+                } else if (headers.getCommand() == StompCommand.RECEIPT) {
+                    receipts.computeIfAbsent(headers.getReceiptId(), r -> new CountDownLatch(1)).countDown();
+                }
+                return true;
+            };
+            relay = new StompBrokerRelayMessageHandler(new ExecutorSubscribableChannel(), clientOutbound, brokerChannel, List.of("/topic"));
+            relay.setRelayHost("localhost");
+            relay.setRelayPort(port);
+            relay.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!relay.isBrokerAvailable() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(relay.isBrokerAvailable(), "relay connected to the broker");
+
+            relay.handleMessage(stomp(StompCommand.CONNECT, null, null));
+            await("connected");
+            relay.handleMessage(stomp(StompCommand.SUBSCRIBE, OrderBroadcaster.TOPIC, "orders"));
+            relay.handleMessage(stomp(StompCommand.SUBSCRIBE, OrderBroadcaster.BATCH_TOPIC, "batch"));
+            await("orders");
+            await("batch");
+
+            OrderService orderService = mock(OrderService.class);
+            when(orderService.getOrderDTOs(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                    .map(id -> {
+                        OrderDTO order = new OrderDTO();
+                        order.setId(id);
+                        order.setOrderStatus("Pending");
+                        return order;
+                    })
+                    .toList());
+            SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+            messagingTemplate.setMessageConverter(new MappingJackson2MessageConverter()); // JSON, as configured for the app
+            broadcaster = new OrderBroadcaster(orderService, messagingTemplate, new LocalClusterMessageBus(), "relay", 0, 1000);
+            broadcaster.start();
+            nodes.add(this);
+        }
+
+        // A frame from this node's dashboard; a subscription asks for a receipt named after its id
+        private Message<byte[]> stomp(StompCommand command, String destination, String subscriptionId) {
+            StompHeaderAccessor headers = StompHeaderAccessor.create(command);
+            headers.setSessionId(dashboard);
+            headers.setAcceptVersion("1.2");
+            headers.setLogin("guest");
+            headers.setPasscode("guest");
+            if (destination != null) {
+                headers.setDestination(destination);
+                headers.setSubscriptionId(subscriptionId);
+                headers.setReceipt(subscriptionId);
+            }
+            return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+        }
+
+        private void await(String receipt) throws InterruptedException {
+            assertTrue(receipts.computeIfAbsent(receipt, r -> new CountDownLatch(1)).await(10, TimeUnit.SECONDS),
+                    dashboard + " waiting for " + receipt);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.chatBot.dto.OrderStatusChange;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.ArchivedOrderRepository;
+import com.chatBot.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The rollups follow order writes (placement, single and bulk status changes) and the
+ * nightly reconcile repairs a change made behind the app's back; totals, units and the
+ * customer count read from them match the orders tables, at a fixed number of
+ * statements per read.
+ */
+@OrderServiceTest
+@TestPropertySource(properties = "analytics.rollup.reconcile-days=2")
+class OrderRollupServiceTest {
+
+    private static final String PHONE = "910000000038";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderTables orderTables;
+
+    @Autowired
+    private ItemRollupTotals itemRollupTotals;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void rollupsTrackOrderWritesAndMatchTheOrdersTables() {
+        orderFixture.menuItem("Rollup Idli", 40.0);
+
+        // Orders left behind by other test classes in the shared database
+        LocalDateTime first = orderRepository.findMinOrderTime();
+        LocalDateTime archived = archivedOrderRepository.findMinOrderTime();
+        if (archived != null && (first == null || archived.isBefore(first))) {
+            first = archived;
+        }
+        orderRollupService.rebuildDays(first != null ? first.toLocalDate() : LocalDate.now(), LocalDate.now());
+
+        Long delivered = placeOrder(2);
+        orderService.updateOrderStatus(delivered, "Delivered");
+        orderService.cancelPendingOrder(placeOrder(1));
+        OrderStatusChange change = new OrderStatusChange();
+        change.setOrderId(placeOrder(3));
+        change.setStatus("Preparing");
+        orderService.updateOrderStatuses(List.of(change));
+
+        orderRollupService.flushPending();
+        assertMatchesOrdersTables();
+
+        // Moved to yesterday without going through OrderService: only reconcile sees it
+        Order backdated = orderRepository.findById(placeOrder(1)).orElseThrow();
+        orderRollupService.flushPending();
+        backdated.setOrderTime(backdated.getOrderTime().minusDays(1));
+        orderRepository.save(backdated);
+        orderRollupService.reconcile();
+        assertMatchesOrdersTables();
+
+        assertEquals(7L, units("Rollup Idli", true));
+        assertEquals(6L, units("Rollup Idli", false));
+        assertEquals(customers(), orderRollupService.countCustomersSince(null));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        orderRollupService.getTotalsSince(LocalDateTime.now().minusDays(7));
+        orderRollupService.getRevenueBuckets(RevenueBuckets.Granularity.DAY, LocalDate.now().minusDays(6), LocalDate.now());
+        orderRollupService.countCustomersSince(LocalDateTime.now().minusDays(7));
+        assertEquals(3, stats.getPrepareStatementCount(), "one rollup query per read, whatever the order count");
+    }
+
+    // (mode, payment status, order status) -> orders and revenue, raw vs rollups
+    private void assertMatchesOrdersTables() {
+        Map<List<Object>, double[]> raw = new HashMap<>();
+        for (Order order : orderTables.validOrders()) {
+            double[] sums = raw.computeIfAbsent(
+                    Arrays.asList(order.getPaymentMode(), order.getStatus(), order.getOrderStatus()), k -> new double[2]);
+            sums[0]++;
+            sums[1] += order.getTotalPrice() != null ? order.getTotalPrice() : 0;
+        }
+
+        Map<List<Object>, double[]> rolled = new HashMap<>();
+        for (Object[] row : orderRollupService.getTotalsSince(null)) {
+            if (row[1] == PaymentStatus.PAYMENT_FAILED) {
+                continue;
+            }
+            double[] sums = rolled.computeIfAbsent(Arrays.asList(row[0], row[1], row[2]), k -> new double[2]);
+            sums[0] += ((Number) row[3]).doubleValue();
+            sums[1] += ((Number) row[4]).doubleValue();
+        }
+
+        assertEquals(raw.keySet(), rolled.keySet());
+        raw.forEach((key, sums) -> {
+            assertEquals(sums[0], rolled.get(key)[0], "orders for " + key);
+            assertEquals(sums[1], rolled.get(key)[1], 1e-6 * Math.max(1, sums[1]), "revenue for " + key);
+        });
+    }
+
+    // Distinct phones with a non-cancelled, non-failed order; few enough for the sketch to be exact
+    private long customers() {
+        return orderTables.validOrders().stream()
+                .filter(order -> order.getOrderStatus() != OrderStatus.CANCELLED)
+                .map(Order::getUserPhone)
+                .distinct()
+                .count();
+    }
+
+    private long units(String item, boolean includeCancelled) {
+        return itemRollupTotals.unitsSince(null, includeCancelled).getOrDefault(item, 0L);
+    }
+
+    private Long placeOrder(int quantity) {
+        return orderFixture.placeOrder("Rollup Test", PHONE, "Cash", "rollup idli", quantity);
+    }
+}
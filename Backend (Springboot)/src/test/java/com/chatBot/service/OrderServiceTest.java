@@ -0,0 +1,40 @@
+package com.chatBot.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.chatBot.config.GoogleApiConfig;
+
+/**
+ * A test of the order path against H2: OrderServiceTestConfig with OrderFixture, Hibernate
+ * statistics on, Google, the dashboards' STOMP template and WhatsApp mocked out, and no
+ * test-managed transaction, so every service call commits on its own as it does in the app.
+ * A test that verifies one of the mocks autowires it; extra properties go in a
+ * {@code @TestPropertySource}. Classes with the same extras share one context.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(OrderServiceTestConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@MockitoBean(types = { GoogleApiConfig.class, SimpMessagingTemplate.class, WhatsAppNotificationService.class })
+public @interface OrderServiceTest {
+}
@@ -0,0 +1,20 @@
+package com.chatBot.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+import com.chatBot.cluster.LocalClusterMessageBus;
+
+/**
+ * OrderService with every service it keeps in step on each order write (archive horizon,
+ * rollups, column store, popular items, status log), on a single-node cluster bus, with
+ * OrderTables and ItemRollupTotals to check the analytics copies against and OrderFixture to
+ * seed them. Tests of the order path get this through {@link OrderServiceTest} instead of
+ * listing the collaborators one by one, so a new one only has to be added here.
+ */
+@TestConfiguration
+@Import({ OrderService.class, OrderArchiveService.class, OrderRollupService.class, OrderColumnStore.class,
+        PopularItemsIndex.class, OrderStatusHistoryService.class, LocalClusterMessageBus.class, OrderTables.class,
+        ItemRollupTotals.class, OrderFixture.class })
+public class OrderServiceTestConfig {
+}
@@ -0,0 +1,154 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.dto.OrderStatusChange;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.OrderStatusTransition;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.OrderStatusTransitionRepository;
+
+/**
+ * Placements and status changes (single and bulk) land in the transition log, the stage
+ * durations between them reach the latency histograms on this node and, over the cluster
+ * bus, on another one, and a rebuild from the log gives the same counts. The chatbot's
+ * failed-payment cleanup is logged like any other cancellation.
+ */
+@OrderServiceTest
+class OrderStatusHistoryServiceTest {
+
+    private static final String PHONE = "910000000044";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatusHistoryService orderStatusHistoryService;
+
+    @Autowired
+    private OrderStatusTransitionRepository transitionRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private ClusterMessageBus messageBus;
+
+    @Autowired
+    private WhatsAppNotificationService notificationService;
+
+    @Test
+    void logsEveryMoveAndMeasuresTheStagesOnBothNodes() {
+        orderFixture.menuItem("Latency Upma", 40.0);
+        OrderStatusHistoryService otherNode = new OrderStatusHistoryService(transitionRepository, messageBus, 30);
+        otherNode.reload();
+        Map<String, Object> before = orderStatusHistoryService.latencySince(null);
+        Map<String, Object> otherBefore = otherNode.latencySince(null);
+
+        // Sat pending for two hours before the restaurant picked it up
+        Long slow = placeOrder();
+        OrderStatusTransition placement = history(slow).get(0);
+        placement.setChangedAt(placement.getChangedAt().minusHours(2));
+        transitionRepository.save(placement);
+        orderService.updateOrderStatus(slow, "Accepted");
+        orderService.updateOrderStatus(slow, "Preparing");
+        orderService.updateOrderStatus(slow, "Completed");
+        orderService.updateOrderStatus(slow, "Delivered");
+
+        // Two more through the bulk path: one straight to Preparing, one cancelled (not measured)
+        Long quick = placeOrder();
+        Long cancelled = placeOrder();
+        orderService.updateOrderStatuses(List.of(change(quick, "Preparing"), change(cancelled, "Cancelled")));
+
+        assertEquals(List.of("null->PENDING", "PENDING->ACCEPTED", "ACCEPTED->PREPARING", "PREPARING->COMPLETED", "COMPLETED->DELIVERED"),
+                moves(slow));
+        assertEquals(List.of("null->PENDING", "PENDING->PREPARING"), moves(quick));
+        assertEquals(List.of("null->PENDING", "PENDING->CANCELLED"), moves(cancelled));
+
+        Map<String, Object> after = orderStatusHistoryService.latencySince(LocalDateTime.now().minusDays(1));
+        assertEquals(2, count(after, "acceptTime") - count(before, "acceptTime"));
+        assertEquals(1, count(after, "prepTime") - count(before, "prepTime"));
+        assertEquals(1, count(after, "deliveryTime") - count(before, "deliveryTime"));
+        long slowest = (Long) stage(after, "acceptTime").get("max");
+        assertTrue(slowest >= 7_200 && slowest <= 7_200 + 7_200 / 64, "two hours pending reported as " + slowest + " s");
+
+        // The other node got the samples over the bus; a rebuild from the log agrees with both
+        Map<String, Object> other = otherNode.latencySince(null);
+        for (String stage : List.of("acceptTime", "prepTime", "deliveryTime")) {
+            assertEquals(count(after, stage) - count(before, stage), count(other, stage) - count(otherBefore, stage), stage);
+        }
+        OrderStatusHistoryService restarted = new OrderStatusHistoryService(transitionRepository, messageBus, 30);
+        restarted.reload();
+        assertEquals(other, restarted.latencySince(null));
+    }
+
+    @Test
+    void failedPaymentCleanupIsLoggedAndNotAnnouncedAsARestaurantCancellation() {
+        orderFixture.menuItem("Latency Upma", 40.0);
+        Long failed = placeOrder();
+        orderService.recordPayment(failed, PaymentStatus.PAYMENT_FAILED, "pay_failed"); // Razorpay webhook
+
+        orderService.cancelFailedPaymentOrder(failed); // customer starts a new order
+        assertThrows(OrderStatusConflictException.class, () -> orderService.cancelFailedPaymentOrder(failed));
+
+        assertEquals(List.of("null->PENDING", "PENDING->CANCELLED"), moves(failed));
+        verify(notificationService, never()).queueMessage(eq(PHONE), anyString());
+    }
+
+    @Test
+    void stagesCloseOnlyOnForwardMoves() {
+        assertEquals(OrderStatusHistoryService.Stage.ACCEPT, OrderStatusHistoryService.Stage.closedBy(OrderStatus.PENDING, OrderStatus.COMPLETED));
+        assertEquals(OrderStatusHistoryService.Stage.PREP, OrderStatusHistoryService.Stage.closedBy(OrderStatus.PREPARING, OrderStatus.DELIVERED));
+        assertEquals(OrderStatusHistoryService.Stage.DELIVERY, OrderStatusHistoryService.Stage.closedBy(OrderStatus.COMPLETED, OrderStatus.DELIVERED));
+        assertNull(OrderStatusHistoryService.Stage.closedBy(OrderStatus.ACCEPTED, OrderStatus.PREPARING));
+        assertNull(OrderStatusHistoryService.Stage.closedBy(OrderStatus.PREPARING, OrderStatus.CANCELLED));
+        assertNull(OrderStatusHistoryService.Stage.closedBy(null, OrderStatus.DELIVERED));
+    }
+
+    private List<OrderStatusTransition> history(Long orderId) {
+        return transitionRepository.findAll().stream()
+                .filter(t -> t.getOrderId().equals(orderId))
+                .sorted(Comparator.comparing(OrderStatusTransition::getChangedAt).thenComparing(OrderStatusTransition::getId))
+                .toList();
+    }
+
+    private List<String> moves(Long orderId) {
+        return history(orderId).stream().map(t -> t.getFromStatus() + "->" + t.getToStatus()).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stage(Map<String, Object> latency, String stage) {
+        return (Map<String, Object>) latency.get(stage);
+    }
+
+    private static long count(Map<String, Object> latency, String stage) {
+        return (Long) stage(latency, stage).get("count");
+    }
+
+    private static OrderStatusChange change(Long orderId, String status) {
+        OrderStatusChange change = new OrderStatusChange();
+        change.setOrderId(orderId);
+        change.setStatus(status);
+        return change;
+    }
+
+    private Long placeOrder() {
+        return orderFixture.placeOrder("Latency Test", PHONE, "Cash", "latency upma", 1);
+    }
+}
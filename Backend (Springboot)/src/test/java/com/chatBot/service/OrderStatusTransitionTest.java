@@ -0,0 +1,315 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatBot.dto.OrderDTO;
+import com.chatBot.dto.OrderStatusChange;
+import com.chatBot.model.Order;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentStatus;
+import com.chatBot.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Status changes go through one guarded UPDATE: allowed moves succeed, moves the current
+ * state does not allow come back as a conflict, and the payment updates (link id, Razorpay
+ * webhook) only touch their own columns, so they neither overwrite nor trip over them.
+ */
+@OrderServiceTest
+@RecordApplicationEvents
+class OrderStatusTransitionTest {
+
+    private static final String PHONE = "910000000036";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WhatsAppNotificationService notificationService;
+
+    @BeforeEach
+    void seed() {
+        orderFixture.menuItem("Transition Vada", 50.0);
+    }
+
+    @Test
+    void allowedMoveIsOneUpdatePlusTheReadBack() {
+        Long id = placeOrder("Cash");
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        Order accepted = orderService.updateOrderStatus(id, "Accepted");
+
+        assertEquals(OrderStatus.ACCEPTED, accepted.getOrderStatus());
+        assertEquals(1L, accepted.getVersion());
+        // UPDATE, order read back, latest log row, log INSERT, and the column store's re-read
+        // after commit; the broadcast DTO is read after commit too, by OrderBroadcaster
+        assertEquals(5, stats.getPrepareStatementCount());
+        assertEquals(new OrderChangedEvent(List.of(id)), events.stream(OrderChangedEvent.class).reduce((a, b) -> b).orElseThrow());
+    }
+
+    @Test
+    void deliveryConfirmsPendingPaymentAndIsFinal() {
+        Long id = placeOrder("Cash");
+
+        Order delivered = orderService.updateOrderStatus(id, "Delivered");
+        assertEquals(OrderStatus.DELIVERED, delivered.getOrderStatus());
+        assertEquals(PaymentStatus.CONFIRMED, delivered.getStatus());
+
+        OrderStatusConflictException conflict = assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateOrderStatus(id, "Cancelled"));
+        assertEquals(OrderStatus.DELIVERED, conflict.getCurrentStatus());
+        assertEquals(OrderStatus.DELIVERED, orderRepository.findById(id).orElseThrow().getOrderStatus());
+
+        assertThrows(OrderStatusConflictException.class, () -> orderService.updateOrderStatus(id, "Preparing"));
+    }
+
+    @Test
+    void customerCannotCancelOnceTheRestaurantAccepted() {
+        Long id = placeOrder("Cash");
+        orderService.updateOrderStatus(id, "Accepted");
+
+        assertThrows(OrderStatusConflictException.class, () -> orderService.cancelPendingOrder(id));
+        assertEquals(OrderStatus.ACCEPTED, orderRepository.findById(id).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    void paymentUpdatesDoNotClashWithAStatusChangeMadeMeanwhile() throws Exception {
+        Long linked = placeOrder("UPI");
+        orderService.updateOrderStatus(linked, "Accepted"); // before the chatbot stores the link
+        assertTrue(orderService.setPaymentLinkId(linked, "plink_036"));
+        Order order = orderRepository.findById(linked).orElseThrow();
+        assertEquals("plink_036", order.getRazorpayPaymentId());
+        assertEquals(OrderStatus.ACCEPTED, order.getOrderStatus());
+
+        // The kitchen and the webhook on the same orders at the same time
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(placeOrder("UPI"));
+        }
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> kitchen = threads.submit(() -> {
+                start.await();
+                ids.forEach(id -> orderService.updateOrderStatus(id, "Accepted"));
+                return null;
+            });
+            Future<?> webhook = threads.submit(() -> {
+                start.await();
+                ids.forEach(id -> orderService.recordPayment(id, PaymentStatus.CONFIRMED, "pay_" + id).orElseThrow());
+                return null;
+            });
+            start.countDown();
+            kitchen.get(30, TimeUnit.SECONDS);
+            webhook.get(30, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdown();
+        }
+        for (Long id : ids) {
+            Order both = orderRepository.findById(id).orElseThrow();
+            assertEquals(OrderStatus.ACCEPTED, both.getOrderStatus());
+            assertEquals(PaymentStatus.CONFIRMED, both.getStatus());
+            assertEquals("pay_" + id, both.getRazorpayPaymentId());
+        }
+    }
+
+    @Test
+    void aConfirmedPaymentIsFinalAndRedeliveredWebhooksAreIgnored() {
+        Long id = placeOrder("UPI");
+        orderService.setPaymentLinkId(id, "plink_036");
+
+        assertTrue(orderService.recordPayment(id, PaymentStatus.PAYMENT_FAILED, "pay_1").isPresent());
+        assertTrue(orderService.recordPayment(id, PaymentStatus.PAYMENT_FAILED, "pay_1").isEmpty(), "redelivered");
+        assertTrue(orderService.recordPayment(id, PaymentStatus.CONFIRMED, "pay_2").isPresent(), "retry through the link");
+        assertTrue(orderService.recordPayment(id, PaymentStatus.CONFIRMED, "pay_2").isEmpty(), "redelivered");
+        assertTrue(orderService.recordPayment(id, PaymentStatus.PAYMENT_FAILED, "pay_1").isEmpty(), "late failure");
+        assertFalse(orderService.setPaymentLinkId(id, "plink_other"));
+
+        Order order = orderRepository.findById(id).orElseThrow();
+        assertEquals(PaymentStatus.CONFIRMED, order.getStatus());
+        assertEquals("pay_2", order.getRazorpayPaymentId());
+        assertThrows(RuntimeException.class, () -> orderService.recordPayment(-1L, PaymentStatus.CONFIRMED, "pay_3"));
+    }
+
+    @Test
+    void cancellationMessageIsQueuedOnlyOnceCommitted() {
+        Long rolledBack = placeOrder("Cash");
+        Long committed = placeOrder("Cash");
+        clearInvocations(notificationService);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderService.updateOrderStatus(rolledBack, "Cancelled");
+            status.setRollbackOnly();
+        });
+        verify(notificationService, never()).queueMessage(anyString(), anyString());
+
+        orderService.updateOrderStatus(committed, "Cancelled");
+        verify(notificationService).queueMessage(eq(PHONE), contains("#" + committed));
+        verify(notificationService, never()).sendMessage(anyString(), anyString());
+    }
+
+    @Test
+    void unknownOrderIsNotAConflict() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderStatus(-36L, "Accepted"));
+        assertEquals("Order not found: -36", e.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkUpdateIsOneTransactionOneEventAndReportsConflicts() {
+        List<OrderStatusChange> changes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Long id = placeOrder("Cash");
+            ids.add(id);
+            changes.add(change(id, i < 6 ? "Preparing" : i < 10 ? "Delivered" : "Cancelled"));
+        }
+        Long delivered = placeOrder("Cash");
+        orderService.updateOrderStatus(delivered, "Delivered");
+        changes.add(change(delivered, "Cancelled"));
+        changes.add(change(-37L, "Preparing"));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        clearInvocations(notificationService);
+        events.clear();
+        stats.clear();
+        Map<String, Object> result = orderService.updateOrderStatuses(changes);
+        long statements = stats.getPrepareStatementCount();
+
+        List<OrderDTO> updated = (List<OrderDTO>) result.get("updated");
+        List<Map<String, Object>> conflicts = (List<Map<String, Object>>) result.get("conflicts");
+        assertEquals(ids, updated.stream().map(OrderDTO::getId).toList());
+        assertEquals(List.of(delivered, -37L), conflicts.stream().map(c -> c.get("orderId")).toList());
+        assertEquals("Delivered", conflicts.get(0).get("currentStatus"));
+        assertEquals(PaymentStatus.CONFIRMED, orderRepository.findById(ids.get(6)).orElseThrow().getStatus());
+
+        // locked read, 3 UPDATEs (one per target status), read back, lines for the DTOs,
+        // latest log rows, one batched log INSERT, the column store's re-read after commit
+        assertEquals(9, statements);
+        assertEquals(List.of(new OrderChangedEvent(ids)), events.stream(OrderChangedEvent.class).toList());
+        verify(notificationService, times(2)).queueMessage(eq(PHONE), anyString());
+
+        // Same moves one call at a time, for comparison
+        List<Long> single = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            single.add(placeOrder("Cash"));
+        }
+        stats.clear();
+        for (int i = 0; i < 12; i++) {
+            orderService.updateOrderStatus(single.get(i), i < 6 ? "Preparing" : i < 10 ? "Delivered" : "Cancelled");
+        }
+        System.out.printf("12 status changes: bulk=%d statements/1 transaction/1 event, one at a time=%d statements/12/12%n",
+                statements, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aConcurrentMoveToTheSameStatusCountsOnce() throws Exception {
+        Long id = placeOrder("Cash");
+        clearInvocations(notificationService);
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            // The owner cancels on one screen, the transaction still open...
+            CountDownLatch cancelled = new CountDownLatch(1);
+            CountDownLatch commit = new CountDownLatch(1);
+            Future<?> single = threads.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                orderService.updateOrderStatus(id, "Cancelled");
+                cancelled.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+
+            // ...while the kitchen's bulk request cancels it too, and waits for that row
+            AtomicReference<Thread> bulkThread = new AtomicReference<>();
+            Future<Map<String, Object>> bulk = threads.submit(() -> {
+                bulkThread.set(Thread.currentThread());
+                return orderService.updateOrderStatuses(List.of(change(id, "Cancelled")));
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((bulkThread.get() == null || bulkThread.get().getState() == Thread.State.RUNNABLE)
+                    && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            commit.countDown();
+            single.get(10, TimeUnit.SECONDS);
+
+            Map<String, Object> result = bulk.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of(), result.get("updated"));
+            List<Map<String, Object>> conflicts = (List<Map<String, Object>>) result.get("conflicts");
+            assertEquals("Cancelled", conflicts.get(0).get("currentStatus"));
+        } finally {
+            threads.shutdown();
+        }
+        verify(notificationService, times(1)).queueMessage(eq(PHONE), contains("#" + id));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_status_transition WHERE order_id = ? AND to_status = 'CANCELLED'", Long.class, id));
+    }
+
+    private static OrderStatusChange change(Long orderId, String status) {
+        OrderStatusChange change = new OrderStatusChange();
+        change.setOrderId(orderId);
+        change.setStatus(status);
+        return change;
+    }
+
+    private Long placeOrder(String paymentMode) {
+        return orderFixture.placeOrder("Transition Test", PHONE, paymentMode, "transition vada", 2);
+    }
+}
@@ -0,0 +1,33 @@
+package com.chatBot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chatBot.model.ArchivedOrder;
+import com.chatBot.model.Order;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+
+/**
+ * Reference reads straight from the orders tables, hot and archived, to check the analytics
+ * copies (rollups, column store) against.
+ */
+public class OrderTables {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Every order whose payment did not fail, archived ones included
+    @Transactional
+    public List<Order> validOrders() {
+        List<Order> orders = new ArrayList<>(entityManager
+                .createQuery("SELECT o FROM Order o WHERE o.status <> PAYMENT_FAILED", Order.class)
+                .getResultList());
+        entityManager.createQuery("SELECT o FROM ArchivedOrder o WHERE o.status <> PAYMENT_FAILED", ArchivedOrder.class)
+                .getResultList()
+                .forEach(archived -> orders.add(archived.toOrder()));
+        return orders;
+    }
+}
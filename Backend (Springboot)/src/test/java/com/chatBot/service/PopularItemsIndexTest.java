@@ -0,0 +1,105 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.chatBot.cluster.ClusterMessageBus;
+import com.chatBot.repository.OrderItemRollupRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The popular items sketches follow rollup rebuilds on this node and, over the cluster
+ * bus, on another one, give the same units as the exact rollup read while the menu fits
+ * the counters, and answer without touching the database.
+ */
+@OrderServiceTest
+class PopularItemsIndexTest {
+
+    private static final String PHONE = "910000000042";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private PopularItemsIndex popularItemsIndex;
+
+    @Autowired
+    private ItemRollupTotals itemRollupTotals;
+
+    @Autowired
+    private OrderItemRollupRepository orderItemRollupRepository;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private ClusterMessageBus messageBus;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void followsRollupRebuildsOnBothNodesAndMatchesTheExactRead() {
+        orderFixture.menuItem("Sketch Poori", 50.0);
+        orderFixture.menuItem("Sketch Kesari", 30.0);
+
+        // Other test classes rebuild rollups through their own contexts
+        popularItemsIndex.reload();
+        PopularItemsIndex otherNode = new PopularItemsIndex(orderItemRollupRepository, messageBus, 64, 31);
+        otherNode.load();
+
+        placeOrder(Map.of("sketch poori", 3, "sketch kesari", 1));
+        orderService.cancelPendingOrder(placeOrder(Map.of("sketch poori", 2)));
+        Long delivered = placeOrder(Map.of("sketch kesari", 4));
+        orderService.updateOrderStatus(delivered, "Delivered");
+        orderRollupService.flushPending();
+
+        LocalDateTime midHour = LocalDateTime.now().minusDays(7).withMinute(37);
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        Map<String, Long> all = units(popularItemsIndex.topItemsSince(null, Integer.MAX_VALUE, true));
+        Map<String, Long> kept = units(popularItemsIndex.topItemsSince(null, Integer.MAX_VALUE, false));
+        Map<String, Long> week = units(popularItemsIndex.topItemsSince(midHour, Integer.MAX_VALUE, true));
+        assertEquals(0, stats.getPrepareStatementCount(), "served from memory");
+
+        assertEquals(5L, all.get("Sketch Poori"));
+        assertEquals(3L, kept.get("Sketch Poori"));
+        assertEquals(itemRollupTotals.unitsSince(null, true), all);
+        assertEquals(itemRollupTotals.unitsSince(null, false), kept);
+        assertEquals(itemRollupTotals.unitsSince(midHour, true), week);
+
+        assertEquals(all, units(otherNode.topItemsSince(null, Integer.MAX_VALUE, true)));
+        assertEquals(kept, units(otherNode.topItemsSince(null, Integer.MAX_VALUE, false)));
+        assertEquals(List.of("Sketch Kesari", "Sketch Poori"), otherNode
+                .topItemsSince(LocalDateTime.now().minusHours(1), Integer.MAX_VALUE, false).stream()
+                .map(row -> (String) row[0])
+                .filter(item -> item.startsWith("Sketch "))
+                .toList());
+    }
+
+    // item -> units
+    private static Map<String, Long> units(List<Object[]> rows) {
+        Map<String, Long> units = new HashMap<>();
+        for (Object[] row : rows) {
+            units.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return units;
+    }
+
+    private Long placeOrder(Map<String, Integer> items) {
+        return orderFixture.placeOrder("Sketch Test", PHONE, "Cash", items);
+    }
+}
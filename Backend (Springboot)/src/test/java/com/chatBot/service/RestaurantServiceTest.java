@@ -0,0 +1,103 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.chatBot.cluster.LocalClusterMessageBus;
+import com.chatBot.config.HibernateCacheConfig;
+import com.chatBot.dto.RestaurantStatus;
+import com.chatBot.repository.RestaurantRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Two RestaurantService instances on one database, sharing one LocalClusterMessageBus,
+ * stand in for two bot nodes; the second-level cache is on as in production.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false"
+})
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RestaurantServiceTest {
+
+    @Autowired
+    private RestaurantRepository repo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalClusterMessageBus bus = new LocalClusterMessageBus();
+    private RestaurantService nodeA;
+    private RestaurantService nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = new RestaurantService(repo, bus);
+        nodeB = new RestaurantService(repo, bus);
+        nodeA.setRestaurantStatus(true);
+        nodeB.loadStatus();
+    }
+
+    @Test
+    void toggleIsWrittenThroughAndPropagatedToOtherNodes() {
+        nodeA.setRestaurantStatus(false);
+
+        assertFalse(repo.findStatusById(1L).orElseThrow().open(), "written through to the DB row");
+        assertFalse(nodeA.getRestaurantStatus());
+        assertFalse(nodeB.getRestaurantStatus(), "propagated to the other node");
+    }
+
+    @Test
+    void readsAreServedFromMemory() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+
+        for (int i = 0; i < 1_000; i++) {
+            nodeB.getRestaurantStatus();
+        }
+
+        assertEquals(0, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void refreshReadsTheRowPastTheSecondLevelCache() {
+        repo.findById(1L); // now cached on this node
+
+        // A toggle this node's cache never saw, e.g. made by another node
+        jdbcTemplate.update("UPDATE restaurant_info SET is_open = FALSE, version = version + 1 WHERE id = 1");
+        assertTrue(repo.findById(1L).orElseThrow().isOpen(), "the cache still holds the old row");
+
+        nodeB.refreshStatus();
+
+        assertFalse(nodeB.getRestaurantStatus());
+    }
+
+    @Test
+    void refreshThatReadTheRowBeforeAToggleDoesNotUndoIt() {
+        RestaurantStatus readBeforeToggle = repo.findStatusById(1L).orElseThrow();
+
+        nodeA.setRestaurantStatus(false);
+        nodeB.apply(readBeforeToggle); // the refresh finishing after the toggle's message
+
+        assertFalse(nodeB.getRestaurantStatus());
+    }
+}
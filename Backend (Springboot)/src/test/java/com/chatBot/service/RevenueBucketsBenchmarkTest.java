@@ -0,0 +1,120 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.chatBot.model.PaymentMode;
+
+/**
+ * Bucket alignment and the per-granularity range limit. The benchmark runs daily revenue
+ * for a year of 1,000,000 orders: the old chart loop (one stream over all orders per day
+ * in the range) against one RevenueBuckets pass that also fills the counts and the
+ * payment mode split.
+ */
+class RevenueBucketsBenchmarkTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int DAYS = 365;
+    private static final int RUNS = 3;
+
+    record Sale(LocalDate day, PaymentMode mode, double amount) {
+    }
+
+    @Test
+    void bucketsAlignToWeeksAndMonths() {
+        // Wed 2025-12-31 .. Mon 2026-01-12
+        LocalDate from = LocalDate.of(2025, 12, 31);
+        LocalDate to = LocalDate.of(2026, 1, 12);
+
+        RevenueBuckets weeks = new RevenueBuckets(RevenueBuckets.Granularity.WEEK, from, to);
+        weeks.add(LocalDate.of(2025, 12, 29), PaymentMode.CASH, 1, 10.0); // Monday of the first week
+        weeks.add(LocalDate.of(2026, 1, 4), PaymentMode.UPI, 1, 20.0);    // Sunday, same week
+        weeks.add(LocalDate.of(2026, 1, 12), PaymentMode.CARD, 2, 30.0);
+        weeks.add(LocalDate.of(2026, 1, 19), PaymentMode.CARD, 5, 99.0);  // past the range
+
+        assertEquals(3, weeks.size());
+        assertEquals(LocalDate.of(2025, 12, 29), weeks.bucketStart(0));
+        assertEquals(30.0, weeks.revenue(0));
+        assertEquals(1, weeks.orders(0, PaymentMode.UPI));
+        assertEquals(0, weeks.orders(1));
+        assertEquals(2, weeks.orders(2, PaymentMode.CARD));
+
+        RevenueBuckets months = new RevenueBuckets(RevenueBuckets.Granularity.MONTH, from, to);
+        months.add(from, PaymentMode.CASH, 1, 10.0);
+        months.add(to, null, 3, 45.0);
+
+        assertEquals(2, months.size());
+        assertEquals("Dec 2025", months.label(0));
+        assertEquals("Jan 2026", months.label(1));
+        assertEquals(3, months.orders(1));
+        assertEquals(0, months.orders(1, PaymentMode.CASH));
+    }
+
+    @Test
+    void rangesOverTheBucketLimitAreRejected() {
+        LocalDate to = LocalDate.of(2026, 6, 30);
+        for (RevenueBuckets.Granularity granularity : RevenueBuckets.Granularity.values()) {
+            LocalDate earliest = granularity.earliestFrom(to);
+            assertEquals(granularity.maxBuckets(), new RevenueBuckets(granularity, earliest, to).size());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new RevenueBuckets(granularity, earliest.minusMonths(1), to));
+            // Used to overflow the bucket count into a NegativeArraySizeException
+            assertThrows(IllegalArgumentException.class,
+                    () -> new RevenueBuckets(granularity, LocalDate.of(-999_999, 1, 1), to));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void singlePassBeatsPerDayScanAtOneMillionOrders() {
+        LocalDate to = LocalDate.of(2026, 6, 30);
+        LocalDate from = to.minusDays(DAYS - 1);
+        Random random = new Random(39);
+        PaymentMode[] modes = PaymentMode.values();
+        List<Sale> sales = random.ints(ORDERS, 0, DAYS)
+                .mapToObj(d -> new Sale(from.plusDays(d), modes[random.nextInt(modes.length)],
+                        50 + random.nextInt(950)))
+                .toList();
+
+        // Seconds per run; once is enough for the comparison
+        long started = System.nanoTime();
+        double[] perDay = from.datesUntil(to.plusDays(1))
+                .mapToDouble(date -> sales.stream()
+                        .filter(s -> s.day().equals(date))
+                        .mapToDouble(Sale::amount)
+                        .sum())
+                .toArray();
+        long scan = System.nanoTime() - started;
+
+        RevenueBuckets buckets = null;
+        long pass = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            started = System.nanoTime();
+            buckets = new RevenueBuckets(RevenueBuckets.Granularity.DAY, from, to);
+            for (Sale sale : sales) {
+                buckets.add(sale.day(), sale.mode(), 1, sale.amount());
+            }
+            pass = Math.min(pass, System.nanoTime() - started);
+        }
+
+        long orders = 0;
+        for (int i = 0; i < DAYS; i++) {
+            assertEquals(perDay[i], buckets.revenue(i), 1e-6 * perDay[i]);
+            orders += buckets.orders(i);
+        }
+        assertEquals(ORDERS, orders);
+
+        System.out.printf("%,d orders over %d days: per-day scan=%.1f ms, single pass=%.1f ms (best of %d)%n",
+                ORDERS, DAYS, scan / 1e6, pass / 1e6, RUNS);
+        assertTrue(pass * 10 < scan, "single pass not clearly faster: " + pass + " vs " + scan + " ns");
+    }
+}
@@ -0,0 +1,98 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Space-Saving bounds on a skewed stream split over hour sketches and merged back, plus
+ * what a dashboard read costs: merging a range's worth of sketches and taking the top 5.
+ */
+class TopItemsSketchTest {
+
+    private static final int CAPACITY = 64;
+    private static final int ITEMS = 5_000;
+    private static final int UNITS = 500_000;
+    private static final int HOURS = 24;
+
+    @Test
+    void exactWhileItemsFitTheCounters() {
+        TopItemsSketch morning = new TopItemsSketch(CAPACITY);
+        morning.add("Idli", 3);
+        morning.add("Dosa", 5);
+        TopItemsSketch evening = new TopItemsSketch(CAPACITY);
+        evening.add("Idli", 4);
+        evening.add("Vada", 1);
+
+        TopItemsSketch day = TopItemsSketch.merge(List.of(morning, evening), CAPACITY);
+
+        assertEquals(0, day.floor());
+        assertEquals(13, day.total());
+        List<Object[]> top = day.top(2);
+        assertEquals(List.of("Idli", 7L, 0L), List.of(top.get(0)));
+        assertEquals(List.of("Dosa", 5L, 0L), List.of(top.get(1)));
+    }
+
+    @Test
+    void mergedHourSketchesKeepTheErrorBounds() {
+        Random random = new Random(42);
+        Map<String, Long> sold = new HashMap<>();
+        List<TopItemsSketch> hours = new ArrayList<>();
+        for (int hour = 0; hour < HOURS; hour++) {
+            hours.add(new TopItemsSketch(CAPACITY));
+        }
+        for (int i = 0; i < UNITS; i++) {
+            String item = "item-" + zipf(random);
+            sold.merge(item, 1L, Long::sum);
+            hours.get(random.nextInt(HOURS)).add(item, 1);
+        }
+        for (TopItemsSketch hour : hours) {
+            assertTrue(hour.floor() <= hour.total() / CAPACITY);
+        }
+
+        TopItemsSketch day = TopItemsSketch.merge(hours, CAPACITY);
+        assertEquals(UNITS, day.total());
+
+        Map<String, Long> listed = new HashMap<>();
+        for (Object[] row : day.top(CAPACITY)) {
+            long units = (Long) row[1];
+            long error = (Long) row[2];
+            long actual = sold.get((String) row[0]);
+            assertTrue(units - error <= actual && actual <= units, row[0] + ": " + actual + " vs " + units + " - " + error);
+            listed.put((String) row[0], units);
+        }
+        sold.forEach((item, actual) -> assertTrue(listed.containsKey(item) || actual <= day.floor(), item));
+
+        List<String> expected = sold.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(5).map(Map.Entry::getKey).toList();
+        assertEquals(expected, day.top(5).stream().map(row -> (String) row[0]).toList());
+
+        // Worst case for a "30 days" read: the hours of a partial first day and 30 day sketches
+        List<TopItemsSketch> range = new ArrayList<>(hours.subList(10, HOURS));
+        for (int i = 0; i < 30; i++) {
+            range.add(day);
+        }
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 200; run++) {
+            long started = System.nanoTime();
+            TopItemsSketch.merge(range, CAPACITY).top(5);
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        System.out.printf("Top-K sketch, %,d units of %,d items, %d counters: floor=%d (total/k=%d); "
+                + "merge of %d sketches + top 5 = %.1f us%n",
+                UNITS, ITEMS, CAPACITY, day.floor(), UNITS / CAPACITY, range.size(), best / 1e3);
+    }
+
+    // Item ranks with P(rank r) ~ 1/r, like a menu where a few dishes sell most
+    private static int zipf(Random random) {
+        return (int) Math.min(ITEMS - 1, Math.floor(Math.exp(random.nextDouble() * Math.log(ITEMS))) - 1);
+    }
+}
@@ -0,0 +1,149 @@
+package com.chatBot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+import com.chatBot.dto.CursorPage;
+import com.chatBot.dto.OrderFilter;
+import com.chatBot.model.OrderStatus;
+import com.chatBot.model.PaymentMode;
+import com.chatBot.model.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The export streams the same rows as the transactions list, hot and archived orders
+ * merged oldest first, with the date range and payment mode filters applied in the query.
+ * Paging through the history with the same filters reaches the same rows, newest first.
+ */
+@OrderServiceTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(TransactionExportService.class)
+class TransactionExportServiceTest {
+
+    private static final String PHONE = "910000000041";
+    private static final LocalDateTime MARCH_2019 = LocalDateTime.of(2019, 3, 1, 0, 0); // nobody else's orders
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private OrderFixture orderFixture;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seedMenu() {
+        orderFixture.menuItem("Export Upma", 45.0);
+    }
+
+    @Test
+    void csvMergesHotAndArchivedRowsOldestFirst() throws IOException {
+        LocalDateTime day = MARCH_2019;
+        List<Long> ids = seed(day);
+
+        List<String> lines = export(TransactionExportService.FORMAT_CSV, day, day.plusDays(1), null);
+
+        assertEquals("id,customerName,userPhone,paymentMode,status,totalPrice,razorpayPaymentId,orderTime,orderStatus",
+                lines.get(0));
+        assertEquals(List.of(ids.get(0), ids.get(1), ids.get(2), ids.get(3)),
+                lines.subList(1, lines.size()).stream().map(line -> Long.valueOf(line.split(",")[0])).toList());
+        assertEquals(ids.get(1) + ",\"Rao, Anil\"," + PHONE + ",Cash,PENDING,90.0,N/A,2019-03-01T09:30,Delivered",
+                lines.get(2));
+    }
+
+    @Test
+    void ndjsonAppliesPaymentModeAndRangeFilters() throws IOException {
+        LocalDateTime day = MARCH_2019.plusDays(1);
+        List<Long> ids = seed(day);
+
+        List<String> cash = export(TransactionExportService.FORMAT_NDJSON, day, day.plusDays(1), PaymentMode.CASH);
+        assertEquals(List.of(ids.get(0), ids.get(1)), idsOf(cash));
+
+        List<String> window = export(TransactionExportService.FORMAT_NDJSON, day.plusMinutes(570), day.plusHours(11), null);
+        assertEquals(List.of(ids.get(1), ids.get(2)), idsOf(window));
+        assertEquals("Card", objectMapper.readTree(window.get(1)).get("paymentMode").asText());
+        assertTrue(window.stream().noneMatch(String::isBlank));
+    }
+
+    @Test
+    void historyPagesReachTheSameRowsAsTheExport() throws IOException {
+        LocalDateTime day = MARCH_2019.plusDays(2);
+        seed(day);
+        OrderFilter filter = new OrderFilter();
+        filter.setPaymentMode("Cash");
+        filter.setFrom(day);
+        filter.setTo(day.plusDays(1));
+
+        // As the payments screen pages its history, newest first
+        List<Long> paged = new ArrayList<>();
+        CursorPage<Map<String, Object>> page = orderService.getTransactionsPage(filter, null, null, 1);
+        paged.addAll(page.getItems().stream().map(tx -> (Long) tx.get("id")).toList());
+        while (page.isHasMore()) {
+            page = orderService.getTransactionsPage(filter, page.getNextBeforeTime(), page.getNextBeforeId(), 1);
+            paged.addAll(page.getItems().stream().map(tx -> (Long) tx.get("id")).toList());
+        }
+
+        List<Long> exported = new ArrayList<>(idsOf(export(TransactionExportService.FORMAT_NDJSON, day, day.plusDays(1),
+                PaymentMode.CASH)));
+        Collections.reverse(exported);
+        assertEquals(exported, paged);
+    }
+
+    // Six orders on the given day: four transactions (three of them archived), one
+    // cancelled, one with a failed payment
+    private List<Long> seed(LocalDateTime day) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(placeOrder(day, "Anil", "Cash", 9, 0, PaymentStatus.PENDING, OrderStatus.DELIVERED));
+        ids.add(placeOrder(day, "Rao, Anil", "Cash", 9, 30, PaymentStatus.PENDING, OrderStatus.DELIVERED));
+        ids.add(placeOrder(day, "Meera", "Card", 10, 0, PaymentStatus.PENDING, OrderStatus.PENDING)); // stays hot
+        ids.add(placeOrder(day, "Ravi", "UPI", 11, 0, PaymentStatus.CONFIRMED, OrderStatus.DELIVERED));
+        ids.add(placeOrder(day, "Cancelled", "Cash", 12, 0, PaymentStatus.PENDING, OrderStatus.CANCELLED));
+        ids.add(placeOrder(day, "Failed", "UPI", 13, 0, PaymentStatus.PAYMENT_FAILED, OrderStatus.PENDING));
+        orderArchiveService.archiveOrdersBefore(day.plusDays(1));
+        return ids;
+    }
+
+    private List<String> export(String format, LocalDateTime from, LocalDateTime to, PaymentMode mode) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.exportTransactions(out, format, from, to, mode);
+        return Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+    }
+
+    private List<Long> idsOf(List<String> ndjson) throws IOException {
+        List<Long> result = new ArrayList<>();
+        for (String line : ndjson) {
+            result.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        return result;
+    }
+
+    private Long placeOrder(LocalDateTime day, String name, String mode, int hour, int minute, PaymentStatus paymentStatus,
+            OrderStatus orderStatus) {
+        Long id = orderFixture.placeOrder(name, PHONE, mode, "export upma", 2);
+        return orderFixture.backdate(id, day.withHour(hour).withMinute(minute), paymentStatus, orderStatus);
+    }
+}
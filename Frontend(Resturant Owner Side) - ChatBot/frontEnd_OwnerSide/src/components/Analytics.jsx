@@ -28,6 +28,24 @@ import { over } from "stompjs";
 
 const COLORS = ["#10b981", "#f59e0b", "#ef4444", "#3b82f6", "#8b5cf6"];
 
+// Headline counters of /analytics; /topic/analytics pushes changes to them
+const DELTA_TOPIC = "/topic/analytics";
+const COUNTERS = ["orders", "revenue", "cash", "card", "upi", "delivered", "pending", "cancelled"];
+
+// Same range start as the backend ("week" = last 7 days, "month" = last 30 days)
+const rangeStart = (range) => {
+  const days = range === "week" ? 7 : range === "month" ? 30 : null;
+  return days ? new Date(Date.now() - days * 24 * 60 * 60 * 1000) : null;
+};
+
+// Percentages rounded to one decimal, as the backend does
+const split = (total, parts) =>
+  total > 0
+    ? parts
+        .filter(([, count]) => count > 0)
+        .map(([name, count]) => ({ name, value: Math.round((count * 1000) / total) / 10 }))
+    : [];
+
 const Analytics = () => {
   const [summary, setSummary] = useState({
     totalRevenue: 0,
@@ -48,18 +66,28 @@ const Analytics = () => {
   const [dateRange, setDateRange] = useState("week");
 
   const stompRef = useRef(null);
+  const countersRef = useRef(null);
+  const rangeRef = useRef(dateRange); // read by the WebSocket callbacks
+  // Pushed counter changes: the "epoch"/"seq" the counters on screen hold, the topic they come
+  // from, and the ones received while a fetch is under way (null when none is)
+  const deltasRef = useRef({ epoch: null, seq: 0, topic: null, subscription: null, pending: null, fetches: 0 });
 
   // 🆕 UPDATED TO USE ?range=${dateRange}
-  const fetchAnalytics = async () => {
+  const fetchAnalytics = async (attempt = 0) => {
+    const deltas = deltasRef.current;
+    const fetchId = ++deltas.fetches;
+    if (!deltas.pending) deltas.pending = [];
+    let again = false;
     setLoading(true);
     try {
       const res = await fetch(
-        `http://localhost:8080/api/orders/analytics?range=${dateRange}`
+        `http://localhost:8080/api/orders/analytics?range=${rangeRef.current}`
       );
 
       if (!res.ok) throw new Error("Failed to fetch analytics");
 
       const data = await res.json();
+      if (fetchId !== deltas.fetches) return; // a newer fetch (e.g. another range) is under way
 
       setSummary({
         totalRevenue: data.totalRevenue || 0,
@@ -72,11 +100,26 @@ const Analytics = () => {
       setPaymentSplit(data.paymentSplit || []);
       setPopularItems(data.popularItems || []);
       setOrderStatus(data.orderStatus || []);
+      countersRef.current = data.counters || null;
+      deltas.epoch = data.epoch || null;
+      deltas.seq = data.seq || 0;
+
+      // Behind a shared broker each server has its own topic: follow the one these counters
+      // came from and read them again, as its changes before the subscription were missed
+      if (data.topic && data.topic !== deltas.topic) {
+        again = subscribeDeltas(data.topic) && attempt < 2;
+      }
     } catch (err) {
       console.error("Error fetching analytics:", err);
     } finally {
-      setLoading(false);
+      if (fetchId === deltas.fetches && !again) {
+        setLoading(false);
+        const pending = deltas.pending;
+        deltas.pending = null;
+        pending.forEach(applyAnalyticsEvent);
+      }
     }
+    if (again) fetchAnalytics(attempt + 1);
   };
 
   const fetchMonthlySummary = async () => {
@@ -107,33 +150,117 @@ const Analytics = () => {
     }
   };
 
+  // Summary, splits and today's chart bar from the counters, no refetch
+  const showCounters = (c) => {
+    countersRef.current = c;
+    setSummary((prev) => ({
+      ...prev,
+      totalRevenue: Math.round(c.revenue * 100) / 100,
+      totalOrders: c.orders,
+      avgOrderValue: c.orders > 0 ? Math.round((c.revenue / c.orders) * 100) / 100 : 0,
+    }));
+    setPaymentSplit(split(c.orders, [["Cash", c.cash], ["Card", c.card], ["UPI", c.upi]]));
+    setOrderStatus(
+      split(c.delivered + c.pending + c.cancelled, [
+        ["Delivered", c.delivered],
+        ["Pending", c.pending],
+        ["Cancelled", c.cancelled],
+      ])
+    );
+  };
+
+  const subscribeDeltas = (topic) => {
+    const deltas = deltasRef.current;
+    const client = stompRef.current;
+    if (!client || !client.connected) return false;
+
+    if (deltas.subscription) deltas.subscription.unsubscribe();
+    deltas.subscription = client.subscribe(topic, (msg) => {
+      if (msg.body && topic === deltas.topic) applyAnalyticsEvent(JSON.parse(msg.body));
+    });
+    deltas.topic = topic;
+    if (deltas.pending) deltas.pending = []; // from the old topic; a fetch follows
+    return true;
+  };
+
+  // Applies a pushed change once, in order, and only if the counters on screen don't hold it
+  const applyAnalyticsEvent = (event) => {
+    const deltas = deltasRef.current;
+    if (deltas.pending) {
+      deltas.pending.push(event); // waits for the counters being fetched
+      return;
+    }
+    if (event.epoch === deltas.epoch && event.seq <= deltas.seq) return; // already counted
+    if (event.type === "reset" || event.epoch !== deltas.epoch || event.seq !== deltas.seq + 1) {
+      fetchAnalytics(); // server rebuilt its counters, restarted, or a change was missed
+      return;
+    }
+    deltas.seq = event.seq;
+    if (!countersRef.current) return;
+
+    const start = rangeStart(rangeRef.current);
+    const next = { ...countersRef.current };
+    const revenueByDay = {};
+    event.changes.forEach((change) => {
+      const at = change.at ? new Date(change.at) : null;
+      if (start && (!at || at < start)) return; // outside the range on screen
+      COUNTERS.forEach((counter) => {
+        next[counter] = (next[counter] || 0) + (change[counter] || 0);
+      });
+      if (at && change.revenue) {
+        const day = `${at.getMonth() + 1}/${at.getDate()}`; // chart label
+        revenueByDay[day] = (revenueByDay[day] || 0) + change.revenue;
+      }
+    });
+
+    showCounters(next);
+    setDailyRevenue((prev) =>
+      prev.map((row) =>
+        revenueByDay[row.date]
+          ? { ...row, revenue: Math.round((row.revenue + revenueByDay[row.date]) * 100) / 100 }
+          : row
+      )
+    );
+  };
+
   useEffect(() => {
-    fetchAnalytics();
     fetchMonthlySummary();
     fetchAiInsights();
 
-    const socket = new SockJS("http://localhost:8080/ws");
-    const stompClient = over(socket);
-    stompRef.current = stompClient;
-
-    stompClient.connect(
-      {},
-      () => {
-        console.log("✅ Analytics WebSocket connected");
-
-        stompClient.subscribe("/topic/orders", (msg) => {
-          if (!msg.body) return;
+    // Counters follow /topic/analytics; everything is refetched only on (re)connect
+    let stopped = false;
+    let connectedBefore = false;
+    const connect = () => {
+      const socket = new SockJS("http://localhost:8080/ws");
+      const stompClient = over(socket);
+      stompRef.current = stompClient;
+
+      stompClient.connect(
+        {},
+        () => {
+          console.log("✅ Analytics WebSocket connected");
+          deltasRef.current.subscription = null; // went with the old connection
+          subscribeDeltas(deltasRef.current.topic || DELTA_TOPIC);
+
+          // Subscribed first; changes arriving during the fetch are held until it is done,
+          // then applied if they are newer than the counters it returned
           fetchAnalytics();
-          fetchMonthlySummary();
-          fetchAiInsights();
-        });
-      },
-      (err) => {
-        console.error("WebSocket connection error:", err);
-      }
-    );
+          if (connectedBefore) {
+            fetchMonthlySummary();
+            fetchAiInsights();
+          }
+          connectedBefore = true;
+        },
+        (err) => {
+          console.error("WebSocket connection error:", err);
+          if (!stopped) setTimeout(connect, 5000);
+        }
+      );
+    };
+    connect();
 
     return () => {
+      stopped = true;
       if (stompRef.current && stompRef.current.connected) {
         stompRef.current.disconnect(() =>
           console.log("Analytics WebSocket disconnected")
@@ -145,6 +272,7 @@ const Analytics = () => {
 
   // 🆕 RE-FETCH WHEN RANGE CHANGES
   useEffect(() => {
+    rangeRef.current = dateRange;
     fetchAnalytics();
   }, [dateRange]);
 
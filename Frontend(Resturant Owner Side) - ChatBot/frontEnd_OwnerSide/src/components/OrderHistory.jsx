@@ -3,6 +3,25 @@ import React, { useState, useEffect, useRef, useMemo } from "react";
 import { History, Package, Calendar, XCircle, CheckCircle, Search, Filter } from "lucide-react";
 import SockJS from "sockjs-client";
 import { over } from "stompjs";
+import { subscribeOrders } from "../services/websocket";
+
+const PAGE_SIZE = 50;
+
+// One page of closed orders with the given status, older than `before` (the newest first when null)
+const fetchStatusPage = async (orderStatus, before) => {
+  const params = new URLSearchParams({ orderStatus, size: String(PAGE_SIZE) });
+  if (before) {
+    params.set("beforeTime", before.beforeTime);
+    params.set("beforeId", before.beforeId);
+  }
+  const res = await fetch(`http://localhost:8080/api/orders/page?${params}`);
+  if (!res.ok) throw new Error("Failed to fetch orders");
+  const page = await res.json();
+  return {
+    items: page.items || [],
+    next: page.hasMore ? { beforeTime: page.nextBeforeTime, beforeId: page.nextBeforeId } : null,
+  };
+};
 
 const OrderHistory = () => {
   // ... (all your state and functions remain unchanged) ...
@@ -13,33 +32,25 @@ const OrderHistory = () => {
   const [searchQuery, setSearchQuery] = useState("");
   const [dateFilter, setDateFilter] = useState("all"); // all, today, week, month, custom
   const [customDate, setCustomDate] = useState("");
+  // Where the next page of each list starts (null once everything is loaded)
+  const [nextPages, setNextPages] = useState({ delivered: null, cancelled: null });
+  const [loadingMore, setLoadingMore] = useState(false);
   const stompRef = useRef(null);
 
   const fetchOrders = async () => {
     setLoading(true);
     try {
-      const res = await fetch("http://localhost:8080/api/orders/dashboard");
-      if (!res.ok) throw new Error("Failed to fetch orders");
-      const data = await res.json();
-      
-      const delivered = (data.orders || []).filter(
-        (order) =>
-          order.orderStatus &&
-          order.orderStatus.toLowerCase() === "delivered" &&
-          order.paymentStatus &&
-          !["FAILED", "PAYMENT_FAILED"].includes(order.paymentStatus.toUpperCase())
-      );
-      
-      const cancelled = (data.orders || []).filter(
-        (order) =>
-          order.orderStatus &&
-          order.orderStatus.toLowerCase() === "cancelled"
-      );
+      // /dashboard only lists active orders now; read the latest closed ones by status, a page each
+      const [delivered, cancelled] = await Promise.all([
+        fetchStatusPage("Delivered"),
+        fetchStatusPage("Cancelled"),
+      ]);
       
-      console.log("📊 Fetched orders - Delivered:", delivered.length, "Cancelled:", cancelled.length);
+      console.log("📊 Fetched orders - Delivered:", delivered.items.length, "Cancelled:", cancelled.items.length);
       
-      setDeliveredOrders(delivered);
-      setCancelledOrders(cancelled);
+      setDeliveredOrders(delivered.items);
+      setCancelledOrders(cancelled.items);
+      setNextPages({ delivered: delivered.next, cancelled: cancelled.next });
     } catch (err) {
       console.error("Error fetching orders:", err);
     } finally {
@@ -47,6 +58,26 @@ const OrderHistory = () => {
     }
   };
 
+  // Next page of the list on screen, older than the ones shown
+  const loadMoreOrders = async () => {
+    const tab = activeTab;
+    if (!nextPages[tab] || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchStatusPage(tab === "delivered" ? "Delivered" : "Cancelled", nextPages[tab]);
+      const setOrders = tab === "delivered" ? setDeliveredOrders : setCancelledOrders;
+      setOrders((prev) => [
+        ...prev,
+        ...page.items.filter((o) => !prev.some((p) => p.id === o.id)),
+      ]);
+      setNextPages((prev) => ({ ...prev, [tab]: page.next }));
+    } catch (err) {
+      console.error("Error fetching orders:", err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchOrders();
 
@@ -59,7 +90,7 @@ const OrderHistory = () => {
       () => {
         console.log("✅ OrderHistory WebSocket connected");
 
-        stompClient.subscribe("/topic/orders", (msg) => {
+        subscribeOrders(stompClient, (msg) => {
           if (!msg.body) return;
           const updated = JSON.parse(msg.body);
           
@@ -528,6 +559,18 @@ const OrderHistory = () => {
             </div>
           )}
         </div>
+
+        {!loading && nextPages[activeTab] && (
+          <div className="flex justify-center mt-6">
+            <button
+              onClick={loadMoreOrders}
+              disabled={loadingMore}
+              className="px-5 py-2 rounded-lg bg-white shadow text-sm font-semibold text-slate-700 hover:bg-slate-100 disabled:opacity-60"
+            >
+              {loadingMore ? "Loading..." : "Load older orders"}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -8,21 +8,23 @@ import {
   ChefHat,
 } from "lucide-react";
 
-const OrderSummaryCards = ({ orders }) => {
+// counts: orders per status label, from /api/orders/dashboard
+const OrderSummaryCards = ({ counts }) => {
   const stats = useMemo(() => {
-    if (!Array.isArray(orders)) return [];
+    if (!counts) return [];
 
-    const pending = orders.filter((o) => o.orderStatus === "Pending").length;
-    const preparing = orders.filter((o) => o.orderStatus === "Preparing").length;
-    const confirmed = orders.filter((o) => o.orderStatus === "Confirmed").length;
-    const completed = orders.filter((o) => o.orderStatus === "Completed").length;
-    const delivered = orders.filter((o) => o.orderStatus === "Delivered").length;
-    const cancelled = orders.filter((o) => o.orderStatus === "Cancelled").length;
+    const pending = counts["Pending"] || 0;
+    const preparing = counts["Preparing"] || 0;
+    const confirmed = counts["Confirmed"] || 0;
+    const completed = counts["Completed"] || 0;
+    const delivered = counts["Delivered"] || 0;
+    const cancelled = counts["Cancelled"] || 0;
+    const total = Object.values(counts).reduce((sum, count) => sum + count, 0);
 
     return [
       {
         title: "Total Orders",
-        value: orders.length,
+        value: total,
         color: "from-blue-500 to-blue-600",
         icon: TrendingUp,
       },
@@ -57,7 +59,7 @@ const OrderSummaryCards = ({ orders }) => {
         icon: XCircle,
       },
     ];
-  }, [orders]);
+  }, [counts]);
 
   return (
     <div className="grid grid-cols-2 md:grid-cols-3 lg:grid-cols-6 gap-4 px-6 py-6">
@@ -26,12 +26,46 @@ import {
   FaChevronDown, // Added
   FaChevronUp, // Added
 } from "react-icons/fa";
-import { CSVLink } from "react-csv";
+
+const PAGE_SIZE = 50;
+
+// Payment mode and date range are filtered on the server; the date range is [from, to)
+const transactionFilterParams = (filter, startDate, endDate) => {
+  const params = new URLSearchParams();
+  if (filter) params.set("paymentMode", filter);
+  if (startDate) params.set("from", `${startDate}T00:00:00`);
+  if (endDate) {
+    const to = new Date(`${endDate}T00:00:00`);
+    to.setDate(to.getDate() + 1);
+    const pad = (n) => String(n).padStart(2, "0");
+    params.set("to", `${to.getFullYear()}-${pad(to.getMonth() + 1)}-${pad(to.getDate())}T00:00:00`);
+  }
+  return params;
+};
+
+// One page of the transaction history, newest first, and the cursor of the next one
+const fetchTransactionPage = async (filter, startDate, endDate, cursor) => {
+  const params = transactionFilterParams(filter, startDate, endDate);
+  params.set("size", PAGE_SIZE);
+  if (cursor) {
+    params.set("beforeTime", cursor.beforeTime);
+    params.set("beforeId", cursor.beforeId);
+  }
+  const res = await fetch(`http://localhost:8080/api/orders/transactions/page?${params}`);
+  if (!res.ok) throw new Error("Failed to fetch transactions");
+  const page = await res.json();
+  return {
+    items: page.items || [],
+    next: page.hasMore ? { beforeTime: page.nextBeforeTime, beforeId: page.nextBeforeId } : null,
+  };
+};
 
 const PaymentsFinance = () => {
   const [summary, setSummary] = useState({});
   const [transactions, setTransactions] = useState([]);
+  const [nextPage, setNextPage] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [search, setSearch] = useState("");
   const [filter, setFilter] = useState("");
   const [startDate, setStartDate] = useState("");
@@ -40,7 +74,6 @@ const PaymentsFinance = () => {
   const [viewMode, setViewMode] = useState("cards"); // 'cards' or 'table' for mobile
 
   useEffect(() => {
-    setLoading(true);
     // Setting viewMode based on screen size initially.
     // window.innerWidth >= 640 corresponds to 'sm' breakpoint in Tailwind CSS.
     if (window.innerWidth >= 640) {
@@ -49,17 +82,52 @@ const PaymentsFinance = () => {
       setViewMode("cards");
     }
     
-    Promise.all([
-      fetch("http://localhost:8080/api/orders/payment-summary").then((res) => res.json()),
-      fetch("http://localhost:8080/api/orders/transactions").then((res) => res.json()),
-    ])
-      .then(([summaryData, txData]) => {
-        setSummary(summaryData);
-        setTransactions(txData);
+    fetch("http://localhost:8080/api/orders/payment-summary")
+      .then((res) => res.json())
+      .then(setSummary)
+      .catch((err) => console.error("Error fetching data:", err));
+  }, []);
+
+  // First page again whenever the server-side filters change; the spinner is only for the first load
+  useEffect(() => {
+    let cancelled = false;
+    fetchTransactionPage(filter, startDate, endDate, null)
+      .then((page) => {
+        if (cancelled) return;
+        setTransactions(page.items);
+        setNextPage(page.next);
       })
       .catch((err) => console.error("Error fetching data:", err))
-      .finally(() => setLoading(false));
-  }, []);
+      .finally(() => {
+        if (!cancelled) setLoading(false);
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [filter, startDate, endDate]);
+
+  // Next page of the history, older than the rows shown
+  const loadMoreTransactions = async () => {
+    if (!nextPage || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchTransactionPage(filter, startDate, endDate, nextPage);
+      setTransactions((prev) => [
+        ...prev,
+        ...page.items.filter((t) => !prev.some((p) => p.id === t.id)),
+      ]);
+      setNextPage(page.next);
+    } catch (err) {
+      console.error("Error fetching transactions:", err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // The export streams every matching transaction, not just the loaded pages
+  const exportParams = transactionFilterParams(filter, startDate, endDate);
+  exportParams.set("format", "csv");
+  const exportUrl = `http://localhost:8080/api/orders/transactions/export?${exportParams}`;
 
   const pieData = [
     { name: "Cash", value: summary.totalCash || 0 },
@@ -69,31 +137,16 @@ const PaymentsFinance = () => {
 
   const COLORS = ["#10B981", "#3B82F6", "#F59E0B"];
 
+  // Search runs over the loaded pages; mode and dates are already applied by the server
   const filteredTransactions = transactions.filter((t) => {
     const query = search.toLowerCase();
-    const matchesSearch =
+    return (
       !search ||
       t.customerName?.toLowerCase().includes(query) ||
       t.userPhone?.includes(search) ||
       t.id?.toString().includes(search) ||
-      t.razorpayPaymentId?.toLowerCase().includes(query);
-
-    const matchesFilter = !filter || t.paymentMode?.toLowerCase() === filter.toLowerCase();
-
-    let matchesDate = true;
-    if (startDate || endDate) {
-      const orderDate = t.orderTime ? new Date(t.orderTime) : null;
-      if (orderDate) {
-        // Create start date at 00:00:00 and end date at 23:59:59
-        const start = startDate ? new Date(startDate) : null;
-        const end = endDate ? new Date(endDate + "T23:59:59") : null;
-        matchesDate = (!start || orderDate >= start) && (!end || orderDate <= end);
-      } else {
-        matchesDate = false;
-      }
-    }
-
-    return matchesSearch && matchesFilter && matchesDate;
+      t.razorpayPaymentId?.toLowerCase().includes(query)
+    );
   });
 
   const clearFilters = () => {
@@ -365,20 +418,20 @@ const PaymentsFinance = () => {
                     <div className="p-3 sm:p-4 rounded-xl bg-gradient-to-br from-blue-50 to-cyan-50 border border-blue-100">
                       <p className="text-gray-600 text-xs sm:text-sm font-medium mb-1">Avg Transaction Value</p>
                       <p className="text-xl sm:text-2xl font-bold text-blue-600">
-                        ₹{transactions.length > 0 ? Math.round(summary.grandTotal / transactions.length).toLocaleString() : 0}
+                        ₹{summary.transactionCount > 0 ? Math.round(summary.grandTotal / summary.transactionCount).toLocaleString() : 0}
                       </p>
                     </div>
 
                     <div className="p-3 sm:p-4 rounded-xl bg-gradient-to-br from-purple-50 to-pink-50 border border-purple-100">
                       <p className="text-gray-600 text-xs sm:text-sm font-medium mb-1">Total Transactions</p>
-                      <p className="text-xl sm:text-2xl font-bold text-purple-600">{transactions.length}</p>
+                      <p className="text-xl sm:text-2xl font-bold text-purple-600">{summary.transactionCount || 0}</p>
                     </div>
 
                     <div className="p-3 sm:p-4 rounded-xl bg-gradient-to-br from-green-50 to-emerald-50 border border-green-100">
                       <p className="text-gray-600 text-xs sm:text-sm font-medium mb-1">Payment Success Rate</p>
                       <p className="text-xl sm:text-2xl font-bold text-green-600">
-                        {transactions.length > 0 
-                          ? Math.round((transactions.filter(t => t.status === 'CONFIRMED').length / transactions.length) * 100)
+                        {summary.transactionCount > 0
+                          ? Math.round((summary.confirmedCount / summary.transactionCount) * 100)
                           : 0}%
                       </p>
                     </div>
@@ -447,13 +500,12 @@ const PaymentsFinance = () => {
                   </select>
 
                   <div className="flex gap-2 w-full sm:w-auto">
-                    <CSVLink
-                      data={filteredTransactions}
-                      filename={`transactions_filtered_${new Date().toISOString()}.csv`}
+                    <a
+                      href={exportUrl}
                       className="flex-1 sm:flex-initial flex items-center justify-center gap-2 px-4 py-2 bg-gradient-to-r from-emerald-500 to-green-600 text-white rounded-lg font-semibold text-sm shadow-lg hover:opacity-90 transition-all"
                     >
                       <FaFileExport /> Export
-                    </CSVLink>
+                    </a>
 
                     <button
                       onClick={clearFilters}
@@ -608,6 +660,18 @@ const PaymentsFinance = () => {
                 </div>
               </CardContent>
             </Card>
+
+            {nextPage && (
+              <div className="flex justify-center mt-6">
+                <button
+                  onClick={loadMoreTransactions}
+                  disabled={loadingMore}
+                  className="px-5 py-2 rounded-lg bg-white shadow text-sm font-semibold text-slate-700 hover:bg-slate-100 disabled:opacity-60"
+                >
+                  {loadingMore ? "Loading..." : "Load older transactions"}
+                </button>
+              </div>
+            )}
           </>
         )}
       </div>
@@ -1,6 +1,7 @@
 import React, { useState, useEffect, useRef } from "react";
 import SockJS from "sockjs-client";
 import { over } from "stompjs";
+import { subscribeOrders } from "../services/websocket";
 
 let stompClient = null;
 
@@ -27,7 +28,7 @@ const RestaurantOrders = () => {
     stompClient.connect({}, () => {
       console.log("✅ WebSocket connected");
 
-      stompClient.subscribe("/topic/orders", (message) => {
+      subscribeOrders(stompClient, (message) => {
         if (message.body) {
           const newOrder = JSON.parse(message.body);
           console.log("📦 New order received:", newOrder);
@@ -1,6 +1,7 @@
 import React, { useEffect, useState, useMemo, useRef } from "react";
 import SockJS from "sockjs-client";
 import { over } from "stompjs";
+import { subscribeOrders, createOrderStream, catchUpOrders } from "../services/websocket";
 import toast, { Toaster } from "react-hot-toast";
 import { Activity, Circle } from "lucide-react";
 
@@ -14,6 +15,10 @@ import OrderTable from "../components/OrderTable";
 
 const Dashboard = () => {
   const [orders, setOrders] = useState([]);
+  // Card counts over all orders; the list only holds the active ones, a page at a time
+  const [statusCounts, setStatusCounts] = useState({});
+  const [nextPage, setNextPage] = useState(null);
+  const ordersRef = useRef([]);
   const [filters, setFilters] = useState({
     search: "",
     payment: "All",
@@ -29,6 +34,7 @@ const Dashboard = () => {
   const [isRestaurantOpen, setIsRestaurantOpen] = useState(true);
 
   const stompRef = useRef(null);
+  const orderStreamRef = useRef(createOrderStream());
   const audioRef = useRef(null);
   const userInteracted = useRef(false);
 
@@ -71,11 +77,41 @@ const Dashboard = () => {
       const data = await res.json();
       console.log("📊 Dashboard fetched orders:", data.orders?.length || 0);
       setOrders(data.orders || []);
+      ordersRef.current = data.orders || [];
+      setStatusCounts(data.statusCounts || {});
+      setNextPage(data.hasMore ? { beforeTime: data.nextBeforeTime, beforeId: data.nextBeforeId } : null);
+    } catch (err) {
+      console.error(err);
+    }
+  };
+
+  // Next page of active orders, older than the ones shown
+  const loadMoreOrders = async () => {
+    if (!nextPage) return;
+    try {
+      const params = new URLSearchParams({
+        active: "true",
+        size: "50",
+        beforeTime: nextPage.beforeTime,
+        beforeId: nextPage.beforeId,
+      });
+      const res = await fetch(`http://localhost:8080/api/orders/page?${params}`);
+      if (!res.ok) throw new Error("Failed to fetch orders");
+      const page = await res.json();
+      setOrders((prev) => [
+        ...prev,
+        ...page.items.filter((o) => !prev.some((p) => p.id === o.id)),
+      ]);
+      setNextPage(page.hasMore ? { beforeTime: page.nextBeforeTime, beforeId: page.nextBeforeId } : null);
     } catch (err) {
       console.error(err);
     }
   };
 
+  useEffect(() => {
+    ordersRef.current = orders;
+  }, [orders]);
+
   useEffect(() => {
     fetchOrders();
     fetchRestaurantStatus(); // <-- NEW
@@ -112,70 +148,101 @@ const Dashboard = () => {
       return;
     }
 
-    const socket = new SockJS("http://localhost:8080/ws");
-    const stompClient = over(socket);
-    stompRef.current = stompClient;
-
-    stompClient.connect(
-      {},
-      () => {
-        console.log("✅ Dashboard WebSocket connected");
-
-        stompClient.subscribe("/topic/orders", (msg) => {
-          if (!msg.body) return;
-          const updated = JSON.parse(msg.body);
-
-          console.log("📡 Dashboard received WebSocket update:", {
-            id: updated.id,
-            orderStatus: updated.orderStatus,
-            paymentStatus: updated.paymentStatus
-          });
-
-          setOrders((prev) => {
-            
-            // ⭐ FIX: Remove the order if it is cancelled or delivered
-            // This ensures closed orders do not linger on the active dashboard list.
-            if (
-                updated.orderStatus && 
-                (updated.orderStatus.toLowerCase() === "cancelled" || 
-                 updated.orderStatus.toLowerCase() === "delivered")
-            ) {
-                console.log("🗑️ Removing order", updated.id, "from Dashboard (status:", updated.orderStatus + ")");
-                // Return the list without the updated order
-                return prev.filter((o) => o.id !== updated.id);
-            }
-
-            const exists = prev.some((o) => o.id === updated.id);
-            
-            if (!exists) {
-              console.log("➕ Adding new order", updated.id, "to Dashboard");
-              
-              if (userInteracted.current && audioRef.current) {
-                audioRef.current.play().catch(() => {});
-              }
-
-              setTimeout(
-                () => toast.success(`New order from ${updated.customerName}`),
-                0
-              );
-
-              return [updated, ...prev];
-            } else {
-              console.log("🔄 Updating existing order", updated.id, "in Dashboard");
-              // Update existing order (status change from Pending to Accepted, etc.)
-              return prev.map((o) =>
-                o.id === updated.id ? updated : o
-              );
-            }
-          });
+    // Keeps the current dashboard up to date from a websocket update
+    const applyOrderUpdate = (msg) => {
+      if (!msg.body) return;
+      const updated = JSON.parse(msg.body);
+
+      console.log("📡 Dashboard received WebSocket update:", {
+        id: updated.id,
+        orderStatus: updated.orderStatus,
+        paymentStatus: updated.paymentStatus
+      });
+
+      // Move the order between the status cards (a Pending order not listed yet is new)
+      const previous = ordersRef.current.find((o) => o.id === updated.id);
+      if (previous || updated.orderStatus === "Pending") {
+        setStatusCounts((counts) => {
+          const next = { ...counts };
+          if (previous) next[previous.orderStatus] = (next[previous.orderStatus] || 1) - 1;
+          next[updated.orderStatus] = (next[updated.orderStatus] || 0) + 1;
+          return next;
         });
-      },
-      (err) => {
-        console.error("STOMP conn error", err);
       }
-    );
+
+      // ⭐ FIX: Remove the order if it is cancelled or delivered
+      // This ensures closed orders do not linger on the active dashboard list.
+      const closed =
+        updated.orderStatus &&
+        (updated.orderStatus.toLowerCase() === "cancelled" ||
+         updated.orderStatus.toLowerCase() === "delivered");
+
+      // Replayed updates arrive before a render, so the next one must see this one
+      ordersRef.current = closed
+        ? ordersRef.current.filter((o) => o.id !== updated.id)
+        : previous
+          ? ordersRef.current.map((o) => (o.id === updated.id ? updated : o))
+          : [updated, ...ordersRef.current];
+
+      setOrders((prev) => {
+        if (closed) {
+            console.log("🗑️ Removing order", updated.id, "from Dashboard (status:", updated.orderStatus + ")");
+            // Return the list without the updated order
+            return prev.filter((o) => o.id !== updated.id);
+        }
+
+        const exists = prev.some((o) => o.id === updated.id);
+
+        if (!exists) {
+          console.log("➕ Adding new order", updated.id, "to Dashboard");
+
+          if (userInteracted.current && audioRef.current) {
+            audioRef.current.play().catch(() => {});
+          }
+
+          setTimeout(
+            () => toast.success(`New order from ${updated.customerName}`),
+            0
+          );
+
+          return [updated, ...prev];
+        } else {
+          console.log("🔄 Updating existing order", updated.id, "in Dashboard");
+          // Update existing order (status change from Pending to Accepted, etc.)
+          return prev.map((o) =>
+            o.id === updated.id ? updated : o
+          );
+        }
+      });
+    };
+
+    // Reconnects every 5s; on (re)connect only the updates missed meanwhile are fetched,
+    // the whole dashboard only when the server no longer has them
+    let stopped = false;
+    const connect = () => {
+      const socket = new SockJS("http://localhost:8080/ws");
+      const stompClient = over(socket);
+      stompRef.current = stompClient;
+
+      stompClient.connect(
+        {},
+        () => {
+          console.log("✅ Dashboard WebSocket connected");
+          subscribeOrders(stompClient, applyOrderUpdate, orderStreamRef.current);
+          catchUpOrders(orderStreamRef.current, applyOrderUpdate, fetchOrders).catch((err) =>
+            console.error("Order catch-up failed", err)
+          );
+        },
+        (err) => {
+          console.error("STOMP conn error", err);
+          if (!stopped) setTimeout(connect, 5000);
+        }
+      );
+    };
+    connect();
 
     return () => {
+      stopped = true;
       if (stompRef.current && stompRef.current.connected) {
         stompRef.current.disconnect(() =>
           console.log("STOMP disconnected (cleanup)")
@@ -220,7 +287,7 @@ const Dashboard = () => {
       />
 
       <main className="px-6 py-6 pt-28">
-        <OrderSummaryCards orders={orders} />
+        <OrderSummaryCards counts={statusCounts} />
 
         {/* Enhanced Header Section */}
         <div className="flex flex-col lg:flex-row items-start lg:items-center justify-between mb-6 px-6 gap-4">
@@ -264,6 +331,16 @@ const Dashboard = () => {
 
         <OrderFilters filters={filters} setFilters={setFilters} />
         <OrderTable orders={filtered} fetchOrders={fetchOrders} />
+        {nextPage && (
+          <div className="flex justify-center mt-4">
+            <button
+              onClick={loadMoreOrders}
+              className="px-5 py-2 rounded-lg bg-white shadow text-sm font-semibold text-slate-700 hover:bg-slate-100"
+            >
+              Load older orders
+            </button>
+          </div>
+        )}
       </main>
     </div>
   );
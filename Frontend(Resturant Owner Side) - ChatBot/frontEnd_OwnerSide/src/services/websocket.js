@@ -10,13 +10,102 @@ export const connectWebSocket = (onMessageReceived) => {
     console.log("Connected to WebSocket");
 
     // Subscribe to order updates
-    stompClient.subscribe("/topic/orders", (message) => {
+    subscribeOrders(stompClient, (message) => {
       const order = JSON.parse(message.body);
       onMessageReceived(order);
     });
   });
 };
 
+// Order updates come one per message on /topic/orders, or as one array on
+// /topic/orders/batch (kitchen bulk status changes). The handler gets one message per order.
+// With a stream (createOrderStream), messages are tracked by their "epoch"/"seq" headers so
+// catchUpOrders can replay what was missed while disconnected; duplicates are dropped.
+// Behind an external broker messages come from every server, each numbered in its own epoch,
+// and only the one serving /events can replay its own: missing another server's messages
+// (a gap in its numbers, or a reconnect once any were seen) means reloading the snapshot.
+export const subscribeOrders = (client, onMessage, stream) => {
+  if (stream && Object.keys(stream.others).length > 0) stream.missedOthers = true;
+  const receive = (message) => receiveOrders(message, onMessage, stream);
+  client.subscribe("/topic/orders", receive);
+  client.subscribe("/topic/orders/batch", receive);
+};
+
+const receiveOrders = (message, onMessage, stream) => {
+  if (!message.body) return;
+  if (stream) {
+    if (stream.pending) return stream.pending.push(message); // applied after the catch-up
+    const epoch = message.headers.epoch;
+    const seq = Number(message.headers.seq);
+    const own = epoch === stream.epoch;
+    const last = own ? stream.seq : stream.others[epoch];
+    if (last !== undefined && seq <= last) return; // already applied or replayed
+    if (last !== undefined && seq > last + 1 && stream.resync) {
+      if (!own) stream.missedOthers = true;
+      stream.resync(); // replays or reloads, this message included
+      return stream.pending.push(message);
+    }
+    if (own) stream.seq = seq;
+    else stream.others[epoch] = seq;
+  }
+  const orders = JSON.parse(message.body);
+  (Array.isArray(orders) ? orders : [orders]).forEach((order) =>
+    onMessage({ ...message, body: JSON.stringify(order) })
+  );
+};
+
+// Last order message seen, for catchUpOrders: of the server that replays ("epoch"/"seq") and
+// of every other server since the last snapshot ("others", epoch -> seq)
+export const createOrderStream = () => ({
+  epoch: null,
+  seq: 0,
+  others: {},
+  missedOthers: false,
+  pending: null,
+  resync: null,
+});
+
+// Call once subscribed: replays the order messages missed since the last one seen, or calls
+// onSnapshot (reload everything) when the server no longer has them, e.g. on the first
+// connect, after a long outage, after a server restart or when another server's messages
+// were missed. Also called by the stream itself when it sees a gap.
+export const catchUpOrders = async (stream, onMessage, onSnapshot) => {
+  const resync = () =>
+    catchUpOrders(stream, onMessage, onSnapshot).catch((err) =>
+      console.error("Order catch-up failed", err)
+    );
+  stream.pending = [];
+  let caughtUp = false;
+  try {
+    const replayable = stream.epoch && !stream.missedOthers;
+    const params = replayable ? `?epoch=${stream.epoch}&since=${stream.seq}` : "";
+    const res = await fetch(`http://localhost:8080/api/orders/events${params}`);
+    if (!res.ok) throw new Error("Failed to fetch missed order events");
+    const log = await res.json();
+
+    if (log.snapshot) {
+      stream.others = {};
+      stream.missedOthers = false;
+      await onSnapshot();
+    } else {
+      log.events.forEach((event) =>
+        event.orders.forEach((order) => onMessage({ headers: {}, body: JSON.stringify(order) }))
+      );
+    }
+    stream.epoch = log.epoch;
+    stream.seq = log.seq;
+    caughtUp = true;
+  } finally {
+    // After a failed catch-up the messages held meanwhile are applied as they are, gaps
+    // included, instead of trying again right away
+    stream.resync = caughtUp ? resync : null;
+    const pending = stream.pending;
+    stream.pending = null;
+    pending.forEach((message) => receiveOrders(message, onMessage, stream));
+    stream.resync = resync;
+  }
+};
+
 export const disconnectWebSocket = () => {
   if (stompClient !== null) stompClient.disconnect();
   console.log("Disconnected");